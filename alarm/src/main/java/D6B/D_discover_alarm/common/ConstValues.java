@@ -11,8 +11,6 @@ public class ConstValues {
     public static String PICTURE_SERVER;
     public static WebClient PICTURE_SERVER_CLIENT;
 
-    public static String FCM_API_URL;
-
     @Value(value = "${userServer}")
     public void setUserServer(String userServer) {
         this.USER_SERVER = userServer;
@@ -24,9 +22,5 @@ public class ConstValues {
         this.PICTURE_SERVER = pictureServer;
         PICTURE_SERVER_CLIENT = WebClient.builder().baseUrl(PICTURE_SERVER).build();
     }
-    @Value(value = "${FCMServer}")
-    public void setFcmApiUrl(String fcmApiUrl){
-        FCM_API_URL = fcmApiUrl;
-    }
 
 }
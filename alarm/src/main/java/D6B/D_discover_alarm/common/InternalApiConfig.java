@@ -0,0 +1,34 @@
+package D6B.D_discover_alarm.common;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 서비스 사이에서만 쓰는 운영용 API (metrics, push dead letter, FCM 토큰 evict)
+ * 게이트웨이 route 에서 막고, 혹시 게이트웨이를 거쳐 들어오면(X-Forwarded-For / Forwarded 헤더가 붙음) 여기서도 403 으로 거절한다.
+ */
+@Configuration
+public class InternalApiConfig implements WebMvcConfigurer {
+    static final String[] INTERNAL_PATHS = {"/alarm/metrics/**", "/alarm/push/**", "/alarm/fcm_token/**"};
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new InternalOnlyInterceptor()).addPathPatterns(INTERNAL_PATHS);
+    }
+
+    static class InternalOnlyInterceptor implements HandlerInterceptor {
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (request.getHeader("X-Forwarded-For") != null || request.getHeader("Forwarded") != null) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package D6B.D_discover_alarm.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 알람 SSE 스트림은 비동기 요청으로 열려 있으므로 컨테이너 기본 timeout(30초 안팎) 대신
+ * 스트림이 스스로 끝내는 시각보다 조금 길게 잡는다.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+    private final long timeoutMillis;
+
+    public WebAsyncConfig(@Value("${alarm.stream.max-connection-seconds:1800}") long maxConnectionSeconds) {
+        this.timeoutMillis = (maxConnectionSeconds + 60) * 1000;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
@@ -8,6 +8,8 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.FileInputStream;
@@ -17,6 +19,18 @@ import java.util.Objects;
 @Slf4j
 @Service
 public class AuthorizeService {
+    // 게이트웨이가 검증한 uid 를 넣어주는 헤더
+    public static final String AUTHENTICATED_UID_HEADER = "X-Authenticated-Uid";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // 게이트웨이 토큰 검증(gateway.auth.project-id)이 켜져 있을 때만 true. 꺼져 있으면 밖에서 보낸 헤더가 그대로 들어온다.
+    private final boolean trustGatewayHeader;
+
+    @Autowired
+    public AuthorizeService(@Value("${auth.trust-gateway-header:false}") boolean trustGatewayHeader) {
+        this.trustGatewayHeader = trustGatewayHeader;
+    }
+
     public AuthResponse isAuthorized(String idToken, String uid) throws IOException, FirebaseAuthException {
         // Firebase 초기화
         if(FirebaseApp.getApps().isEmpty()) {
@@ -42,4 +56,17 @@ public class AuthorizeService {
                     .build();
         }
     }
+
+    // 요청한 사람이 uid 본인인지 (SSE 스트림은 연결할 때 한 번만 확인한다)
+    // 게이트웨이가 검증한 uid 가 있으면 그 값과 비교하고, 없으면 Authorization 의 Firebase 토큰을 직접 검증한다.
+    public boolean isOwner(String gatewayUid, String authorization, String uid) throws IOException, FirebaseAuthException {
+        if (trustGatewayHeader && gatewayUid != null) {
+            return Objects.equals(gatewayUid, uid);
+        }
+        if (authorization == null || authorization.isBlank()) {
+            return false;
+        }
+        String idToken = authorization.startsWith(BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()) : authorization;
+        return isAuthorized(idToken.trim(), uid).getIsUser();
+    }
 }
@@ -1,22 +1,32 @@
 package D6B.D_discover_alarm.controller;
 
+import D6B.D_discover_alarm.common.service.AuthorizeService;
 import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
 import D6B.D_discover_alarm.controller.dto.IsAliveDto;
 
 import D6B.D_discover_alarm.controller.dto.NotificationDto;
 import D6B.D_discover_alarm.service.AlarmService;
-import D6B.D_discover_alarm.service.FirebaseCloudMessageService;
+import D6B.D_discover_alarm.service.AlarmStreamHub;
 import D6B.D_discover_alarm.service.NotificationService;
+import D6B.D_discover_alarm.service.PushDispatcher;
+import D6B.D_discover_alarm.service.cache.AlarmCacheStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 
 import javax.persistence.criteria.CriteriaBuilder;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -26,39 +36,104 @@ public class AlarmController {
 
     private final AlarmService alarmService;
     private final NotificationService notificationService;
-    private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final PushDispatcher pushDispatcher;
+    private final AlarmStreamHub alarmStreamHub;
+    private final AlarmCacheStore alarmCacheStore;
+    private final AuthorizeService authorizeService;
     @Autowired
     public AlarmController(AlarmService alarmService,
                            NotificationService notificationService,
-                           FirebaseCloudMessageService firebaseCloudMessageService) {
+                           PushDispatcher pushDispatcher,
+                           AlarmStreamHub alarmStreamHub,
+                           AlarmCacheStore alarmCacheStore,
+                           AuthorizeService authorizeService) {
 
         this.alarmService = alarmService;
         this.notificationService = notificationService;
-        this.firebaseCloudMessageService = firebaseCloudMessageService;
+        this.pushDispatcher = pushDispatcher;
+        this.alarmStreamHub = alarmStreamHub;
+        this.alarmCacheStore = alarmCacheStore;
+        this.authorizeService = authorizeService;
     }
+    // 안 읽은 알림 최신순 페이지 (cursor 는 이전 응답의 nextCursorCreatedAt, nextCursorId)
     @GetMapping("/list/{user_uid}")
-    public ResponseEntity<?> getAlarmList(@PathVariable String user_uid) {
+    public ResponseEntity<?> getAlarmList(@PathVariable String user_uid,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant cursorCreatedAt,
+                                          @RequestParam(required = false) Long cursorId,
+                                          @RequestParam(defaultValue = "30") int size) {
         try {
-            List<AlarmDto> dtos = alarmService.getAlarmList(user_uid);
-            return ResponseEntity.status(HttpStatus.OK).body(dtos);
+            AlarmPageResponseDto page = alarmService.getAlarmList(user_uid, cursorCreatedAt, cursorId, size);
+            return ResponseEntity.status(HttpStatus.OK).body(page);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Internal Server Error");
         }
     }
 
+    // 안 읽은 알림 수만 (뱃지 표시용)
+    @GetMapping("/unread_count/{user_uid}")
+    public ResponseEntity<Long> getUnreadCount(@PathVariable String user_uid) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(alarmService.getUnreadCount(user_uid));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // 새 알람 SSE 스트림 (다시 연결할 때 브라우저가 Last-Event-ID 헤더로 마지막 이벤트 id 를 보낸다)
+    // 본인 알람만 받을 수 있다. (게이트웨이가 검증한 uid 또는 Authorization 토큰)
+    @GetMapping(value = "/stream/{user_uid}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<AlarmDto>>> streamAlarms(@PathVariable String user_uid,
+                                                                        @RequestHeader(value = AuthorizeService.AUTHENTICATED_UID_HEADER, required = false) String authenticatedUid,
+                                                                        @RequestHeader(value = "Authorization", required = false) String authorization,
+                                                                        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            if (!authorizeService.isOwner(authenticatedUid, authorization, user_uid)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        } catch (Exception e) {
+            log.info("알람 스트림 인증 실패 {} : {}", user_uid, e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(alarmStreamHub.connect(user_uid, lastEventId));
+    }
+
+    // 스트림 상태 (연결된 유저 수, 연결 수, 보낸 수, 버린 수)
+    @GetMapping("/metrics/stream")
+    public ResponseEntity<Map<String, Long>> getStreamMetrics() {
+        return ResponseEntity.ok(alarmStreamHub.getMetrics());
+    }
 
     @PostMapping("/create")
     public  ResponseEntity<Object> createNotification(@RequestBody NotificationDto notificationdto){
+        // 알람만 저장하고 push 는 전송 큐에서 보낸다.
         NotificationDto createDto = notificationService.createNotification(notificationdto);
-        try {
-        firebaseCloudMessageService.sendMessageTo(notificationdto);
-// 원래 코드
-        } catch (Exception  e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("sendMessageTo 오류");
-        }
         return ResponseEntity.status(HttpStatus.OK).body(createDto);
     }
 
+    // 안 읽은 수, 첫 페이지, FCM 토큰 캐시 상태
+    @GetMapping("/metrics/cache")
+    public ResponseEntity<Map<String, Long>> getCacheMetrics() {
+        return ResponseEntity.ok(alarmCacheStore.getMetrics());
+    }
+
+    // push 전송 큐 상태 (쌓인 수, 보낸 수, 재시도, dead letter 수)
+    @GetMapping("/metrics/push")
+    public ResponseEntity<Map<String, Long>> getPushMetrics() {
+        return ResponseEntity.ok(pushDispatcher.getMetrics());
+    }
+
+    // 최근 dead letter 목록
+    @GetMapping("/push/dead_letters")
+    public ResponseEntity<List<PushDispatcher.DeadLetter>> getPushDeadLetters() {
+        return ResponseEntity.ok(pushDispatcher.getDeadLetters());
+    }
+
+    // dead letter 들을 다시 전송 큐에 넣는다.
+    @PostMapping("/push/dead_letters/redrive")
+    public ResponseEntity<Integer> redrivePushDeadLetters() {
+        return ResponseEntity.ok(pushDispatcher.redriveDeadLetters());
+    }
+
     @PutMapping("/{user_uid}/check")
     public ResponseEntity<String> Checked(@PathVariable String user_uid) {
         try {
@@ -103,4 +178,9 @@ public class AlarmController {
         alarmService.picmove(picture_id);
         return ResponseEntity.status(HttpStatus.OK).body("OK");
     }
+    @PutMapping("/picmove")
+    public ResponseEntity<String> picmoveAll(@RequestBody List<Long> pictureIds){
+        alarmService.picmoveAll(pictureIds);
+        return ResponseEntity.status(HttpStatus.OK).body("OK");
+    }
 }
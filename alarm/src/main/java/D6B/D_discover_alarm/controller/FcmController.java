@@ -1,21 +1,35 @@
 package D6B.D_discover_alarm.controller;
 
 import D6B.D_discover_alarm.controller.dto.RequestDTO;
+import D6B.D_discover_alarm.service.FcmTokenCache;
 import D6B.D_discover_alarm.service.FirebaseCloudMessageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class FcmController {
 
     private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final FcmTokenCache fcmTokenCache;
+
+    // 유저의 FCM 토큰이 바뀌면 유저 서버가 호출 - 캐시된 토큰 제거
+    @PostMapping("/alarm/fcm_token/evict/{uid}")
+    public ResponseEntity<Object> evictFcmToken(@PathVariable String uid) {
+        firebaseCloudMessageService.evictFCMToken(uid);
+        return ResponseEntity.ok().build();
+    }
+
+    // FCM 토큰 캐시 상태
+    @GetMapping("/alarm/metrics/fcm_token")
+    public ResponseEntity<Map<String, Long>> getFcmTokenMetrics() {
+        return ResponseEntity.ok(fcmTokenCache.getMetrics());
+    }
 
     @PostMapping("/alarm/fcm")
     public ResponseEntity<String> pushMessage(@RequestBody RequestDTO requestDTO) {
@@ -2,8 +2,10 @@ package D6B.D_discover_alarm.controller.dto;
 
 import D6B.D_discover_alarm.domain.Alarm;
 import D6B.D_discover_alarm.service.AlarmService;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import javax.persistence.Column;
@@ -14,6 +16,8 @@ import java.time.Instant;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 @ToString
 public class AlarmDto {
 
@@ -0,0 +1,20 @@
+package D6B.D_discover_alarm.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlarmPageResponseDto {
+    private List<AlarmDto> alarms;
+    // 다음 페이지 요청에 쓸 cursor (마지막 알람의 createdAt, id), 마지막 페이지면 null
+    private Instant nextCursorCreatedAt;
+    private Long nextCursorId;
+}
@@ -15,7 +15,12 @@ import java.time.ZonedDateTime;
 @Setter
 @ToString
 @Entity
-@Table(name = "alarm")
+@Table(name = "alarm", uniqueConstraints = {
+        // 좋아요 알람은 (누른 사람, 받는 사람, 그림) 당 하나 - upsert 와 되살리기, 취소가 이 index 로 한 행만 찾는다.
+        @UniqueConstraint(name = "uk_alarm_sender_receiver_picture", columnNames = {"sender_uid", "receiver_uid", "picture_id"})
+}, indexes = {
+        @Index(name = "idx_alarm_receiver_alive_read_created", columnList = "receiver_uid, is_alive, is_read, created_at"),
+        @Index(name = "idx_alarm_picture", columnList = "picture_id")})
 public class Alarm {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,27 @@
+package D6B.D_discover_alarm.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * 유저별 "여기까지 읽음" 시각 (alarm.read-watermark.enabled=true 일 때)
+ * 이 시각 이전에 생긴 알람은 모두 읽은 것으로 본다. 전부 읽음 처리는 이 행 하나만 바꾼다.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "alarm_read_mark")
+public class AlarmReadMark {
+    @Id
+    @Column(name = "receiver_uid")
+    private String receiverUid;
+
+    @Column(name = "last_read_at", nullable = false)
+    private Instant lastReadAt;
+}
@@ -0,0 +1,18 @@
+package D6B.D_discover_alarm.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface AlarmReadMarkRepository extends JpaRepository<AlarmReadMark, String> {
+    // 없으면 만들고, 있으면 더 나중 시각으로만 옮긴다.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO alarm_read_mark (receiver_uid, last_read_at) VALUES (:receiverUid, :lastReadAt) " +
+            "ON DUPLICATE KEY UPDATE last_read_at = GREATEST(last_read_at, VALUES(last_read_at))", nativeQuery = true)
+    int upsert(@Param("receiverUid") String receiverUid, @Param("lastReadAt") Instant lastReadAt);
+}
@@ -1,16 +1,115 @@
 package D6B.D_discover_alarm.domain;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AlarmRepository extends JpaRepository<Alarm,Long> {
-    List<Alarm> findByReceiverUid(String receiverUid);
+    // 안 읽은 살아있는 알람 최신순 (created_at, id 기준 keyset 페이징)
+    // after : 읽음 기준 시각 (이 시각 이후에 생긴 알람만), 읽음 기준 시각을 쓰지 않으면 EPOCH
+    @Query("SELECT a FROM Alarm a WHERE a.receiverUid = :receiverUid AND a.isAlive = true AND a.isRead = false " +
+            "AND a.createdAt > :after ORDER BY a.createdAt DESC, a.id DESC")
+    List<Alarm> findUnread(@Param("receiverUid") String receiverUid, @Param("after") Instant after, Pageable pageable);
+
+    @Query("SELECT a FROM Alarm a WHERE a.receiverUid = :receiverUid AND a.isAlive = true AND a.isRead = false " +
+            "AND a.createdAt > :after AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Alarm> findUnreadBefore(@Param("receiverUid") String receiverUid, @Param("after") Instant after,
+                                 @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM Alarm a WHERE a.receiverUid = :receiverUid AND a.isAlive = true AND a.isRead = false " +
+            "AND a.createdAt > :after")
+    long countUnread(@Param("receiverUid") String receiverUid, @Param("after") Instant after);
+
+    // 스트림 재연결 때 놓친 알람 (오래된 순)
+    @Query("SELECT a FROM Alarm a WHERE a.receiverUid = :receiverUid AND a.isAlive = true AND a.isRead = false " +
+            "AND a.createdAt >= :since ORDER BY a.createdAt ASC, a.id ASC")
+    List<Alarm> findUnreadSince(@Param("receiverUid") String receiverUid, @Param("since") Instant since, Pageable pageable);
+
+    // 캐시를 지울 받는 사람들 (그림 삭제, 탈퇴한 유저가 보낸 알람)
+    @Query("SELECT DISTINCT a.receiverUid FROM Alarm a WHERE a.pictureId IN :pictureIds AND a.isAlive = true")
+    List<String> findReceiverUidsByPictureIds(@Param("pictureIds") Collection<Long> pictureIds);
+
+    @Query("SELECT DISTINCT a.receiverUid FROM Alarm a WHERE a.senderUid = :senderUid AND a.isAlive = true")
+    List<String> findReceiverUidsBySenderUid(@Param("senderUid") String senderUid);
+
+    // 전부 읽음 (이미 읽은 행은 건드리지 않는다)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Alarm a SET a.isRead = true WHERE a.receiverUid = :receiverUid AND a.isRead = false")
+    int markAllRead(@Param("receiverUid") String receiverUid);
 
     Optional<Alarm> findBySenderUidAndReceiverUidAndPictureId(String senderUid,String receiverUid,Long pictureId);
-    List<Alarm> findByReceiverUidOrSenderUid(String receiverUid, String senderUid);
 
-    List<Alarm> findByPictureId(Long pictureId);
+    // 좋아요 알람 : 취소했거나 읽은 알람만 새 알람처럼 되살린다. (after : 읽음 기준 시각, 1 이면 되살림)
+    // 동시에 두 번 와도 행 lock 을 먼저 잡은 쪽만 1, 나머지는 되살아난 행을 보고 0
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE alarm SET sender_name = :#{#alarm.senderName}, sender_img_src = :#{#alarm.senderImgSrc}, " +
+            "picture_img_src = :#{#alarm.pictureImgSrc}, content = :#{#alarm.content}, type = :#{#alarm.type}, " +
+            "created_at = :#{#alarm.createdAt}, is_alive = true, is_read = false, is_sended = false " +
+            "WHERE sender_uid = :#{#alarm.senderUid} AND receiver_uid = :#{#alarm.receiverUid} AND picture_id = :#{#alarm.pictureId} " +
+            "AND (is_alive = false OR is_read = true OR created_at <= :after)", nativeQuery = true)
+    int reviveLike(@Param("alarm") Alarm alarm, @Param("after") Instant after);
+
+    // 좋아요 알람 : 없을 때만 만든다. (unique index 에 걸리면 0)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO alarm (sender_uid, receiver_uid, picture_id, sender_name, sender_img_src, picture_img_src, " +
+            "content, type, created_at, is_alive, is_read, is_sended) " +
+            "VALUES (:#{#alarm.senderUid}, :#{#alarm.receiverUid}, :#{#alarm.pictureId}, :#{#alarm.senderName}, " +
+            ":#{#alarm.senderImgSrc}, :#{#alarm.pictureImgSrc}, :#{#alarm.content}, :#{#alarm.type}, :#{#alarm.createdAt}, " +
+            "true, false, false)", nativeQuery = true)
+    int insertLikeIfAbsent(@Param("alarm") Alarm alarm);
+
+    // 안 읽은 채로 있는 같은 좋아요 알람 : 보이는 내용만 맞춘다. (순서, 안 읽은 수는 그대로)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE alarm SET sender_name = :#{#alarm.senderName}, sender_img_src = :#{#alarm.senderImgSrc}, " +
+            "picture_img_src = :#{#alarm.pictureImgSrc}, content = :#{#alarm.content} " +
+            "WHERE sender_uid = :#{#alarm.senderUid} AND receiver_uid = :#{#alarm.receiverUid} AND picture_id = :#{#alarm.pictureId}",
+            nativeQuery = true)
+    int refreshLike(@Param("alarm") Alarm alarm);
+
+    // 다시 누른 좋아요 (unique index 로 한 행만)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alarm a SET a.isAlive = true, a.isRead = false, a.isSended = false, a.createdAt = :createdAt " +
+            "WHERE a.senderUid = :senderUid AND a.receiverUid = :receiverUid AND a.pictureId = :pictureId")
+    int reactivate(@Param("senderUid") String senderUid, @Param("receiverUid") String receiverUid,
+                   @Param("pictureId") Long pictureId, @Param("createdAt") Instant createdAt);
+
+    // 좋아요 취소 (이미 취소된 행은 건드리지 않는다)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alarm a SET a.isAlive = false, a.isRead = false " +
+            "WHERE a.senderUid = :senderUid AND a.receiverUid = :receiverUid AND a.pictureId = :pictureId AND a.isAlive = true")
+    int deactivate(@Param("senderUid") String senderUid, @Param("receiverUid") String receiverUid,
+                   @Param("pictureId") Long pictureId);
+
+    // 삭제된 그림들의 알람 비활성화
+    @Transactional
+    @Modifying
+    @Query("UPDATE Alarm a SET a.isAlive = false, a.content = :content WHERE a.pictureId IN :pictureIds")
+    int removeByPictureIds(@Param("pictureIds") Collection<Long> pictureIds, @Param("content") String content);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Alarm a SET a.isAlive = false, a.content = :content " +
+            "WHERE a.receiverUid = :uid OR a.senderUid = :uid")
+    int removeByUserUid(@Param("uid") String uid, @Param("content") String content);
 
+    // push 전송 완료 표시 (요약 push 로 합쳐진 알람들은 한 번에)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Alarm a SET a.isSended = true WHERE a.id IN :ids")
+    int markSended(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+package D6B.D_discover_alarm.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 안이면 commit 된 뒤에, 밖이면 바로 실행한다.
+ * (commit 전에 push, 스트림, 캐시에 반영하면 rollback 된 알람이 나가거나 이전 값이 다시 캐시될 수 있음)
+ */
+public final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package D6B.D_discover_alarm.service;
 
 import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
 import D6B.D_discover_alarm.controller.dto.IsAliveDto;
 import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmReadMark;
+import D6B.D_discover_alarm.domain.AlarmReadMarkRepository;
 import D6B.D_discover_alarm.domain.AlarmRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import D6B.D_discover_alarm.service.cache.AlarmCacheStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
-import java.io.IOException;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,60 +30,126 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class AlarmService {
+    static final int MAX_PAGE_SIZE = 100;
+    private static final String REMOVED_CONTENT = "삭제된 알람입니다";
+
     private final AlarmRepository alarmRepository;
-    private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final AlarmReadMarkRepository alarmReadMarkRepository;
+    private final PushDispatcher pushDispatcher;
+    private final AlarmStreamHub alarmStreamHub;
+    private final AlarmCacheStore alarmCacheStore;
+    // true 면 행마다 is_read 를 바꾸지 않고 유저별 읽음 기준 시각으로 읽음을 판단한다.
+    private final boolean readWatermark;
 
-    public AlarmService(AlarmRepository alarmRepository, ObjectMapper objectMapper, FirebaseCloudMessageService firebaseCloudMessageService) {
+    public AlarmService(AlarmRepository alarmRepository,
+                        AlarmReadMarkRepository alarmReadMarkRepository,
+                        PushDispatcher pushDispatcher,
+                        AlarmStreamHub alarmStreamHub,
+                        AlarmCacheStore alarmCacheStore,
+                        @Value("${alarm.read-watermark.enabled:false}") boolean readWatermark) {
         this.alarmRepository = alarmRepository;
-        this.firebaseCloudMessageService = firebaseCloudMessageService;
+        this.alarmReadMarkRepository = alarmReadMarkRepository;
+        this.pushDispatcher = pushDispatcher;
+        this.alarmStreamHub = alarmStreamHub;
+        this.alarmCacheStore = alarmCacheStore;
+        this.readWatermark = readWatermark;
     }
 
     /**
-     * 해당 user의 모든 알림정보를 반환한다.
+     * 해당 user의 안 읽은 알림을 최신순으로 한 페이지 반환한다. (걸러내기와 자르기는 DB 에서, 첫 페이지는 캐시)
      * @param userUid ( 조회 하려는 유저)
+     * @param cursorCreatedAt, cursorId (이전 페이지의 nextCursor, 첫 페이지면 null)
+     * @param size (페이지 크기)
      * @return
      */
-    public List<AlarmDto> getAlarmList(String userUid) {
+    public AlarmPageResponseDto getAlarmList(String userUid, Instant cursorCreatedAt, Long cursorId, int size) {
         try {
-            List<Alarm> alarms = alarmRepository.findByReceiverUid(userUid);
-            log.info(alarms.toString());
-            return alarms.stream()
-                    .filter(alarm -> !alarm.getIsRead() && alarm.getIsAlive())
-                    .map(alarm -> AlarmDto.from(alarm))
-                    .collect(Collectors.toList());
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            boolean firstPage = cursorCreatedAt == null || cursorId == null;
+            long pageVersion = 0;
+            if (firstPage) {
+                Optional<AlarmPageResponseDto> cached = alarmCacheStore.getFirstPage(userUid, pageSize);
+                if (cached.isPresent()) {
+                    return cached.get();
+                }
+                // DB 를 읽는 사이 알람이 바뀌고 캐시가 지워지면 이 페이지는 저장하지 않는다.
+                pageVersion = alarmCacheStore.getPageVersion(userUid);
+            }
+            // 한 개 더 읽어서 다음 페이지가 있는지 확인
+            Pageable pageable = PageRequest.of(0, pageSize + 1);
+            Instant after = readAfter(userUid);
+            List<Alarm> alarms = firstPage
+                    ? alarmRepository.findUnread(userUid, after, pageable)
+                    : alarmRepository.findUnreadBefore(userUid, after, cursorCreatedAt, cursorId, pageable);
+            Alarm last = null;
+            if (alarms.size() > pageSize) {
+                alarms = alarms.subList(0, pageSize);
+                last = alarms.get(pageSize - 1);
+            }
+            AlarmPageResponseDto page = AlarmPageResponseDto.builder()
+                    .alarms(alarms.stream().map(AlarmDto::from).collect(Collectors.toList()))
+                    .nextCursorCreatedAt(last == null ? null : last.getCreatedAt())
+                    .nextCursorId(last == null ? null : last.getId())
+                    .build();
+            if (firstPage) {
+                alarmCacheStore.putFirstPage(userUid, pageSize, page, pageVersion);
+            }
+            return page;
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to get the alarm list");
         }
     }
 
+    // 안 읽은 알림 수 (캐시에 없으면 index 만으로 센다)
+    public long getUnreadCount(String userUid) {
+        Optional<Long> cached = alarmCacheStore.getUnreadCount(userUid);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long count = alarmRepository.countUnread(userUid, readAfter(userUid));
+        alarmCacheStore.putUnreadCount(userUid, count);
+        return count;
+    }
+
+    // 이 시각 이후에 생긴 알람만 안 읽은 알람 (읽음 기준 시각을 쓰지 않으면 전부)
+    Instant readAfter(String userUid) {
+        if (!readWatermark) {
+            return Instant.EPOCH;
+        }
+        return alarmReadMarkRepository.findById(userUid).map(AlarmReadMark::getLastReadAt).orElse(Instant.EPOCH);
+    }
+
     /**
      * 알림창 들어가면 알림 전부 읽음으로 표시되게
+     * 읽음 기준 시각을 쓰면 그 시각만 옮기고, 아니면 안 읽은 행들만 UPDATE 한 번으로
      * @param userUid
      */
     public void checked(String userUid) {
         try {
-            List<Alarm> alarms = alarmRepository.findByReceiverUid(userUid);
-            alarms.forEach(alarm -> alarm.setIsRead(true));
-            alarmRepository.saveAll(alarms);
+            if (readWatermark) {
+                alarmReadMarkRepository.upsert(userUid, Instant.now());
+            } else {
+                alarmRepository.markAllRead(userUid);
+            }
+            alarmCacheStore.evictPages(userUid);
+            alarmCacheStore.putUnreadCount(userUid, 0);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to check the alarms");
         }
     }
+    // 좋아요 취소 : unique index 로 찾는 UPDATE 한 번
     @Transactional
     public void isAlive(IsAliveDto isalivedto) {
         try {
-            Optional<Alarm> alarmOpt = alarmRepository.findBySenderUidAndReceiverUidAndPictureId(
+            int updated = alarmRepository.deactivate(
                     isalivedto.getSenderUid(),
                     isalivedto.getReceiverUid(),
                     isalivedto.getPictureId()
             );
-            if (alarmOpt.isPresent()) {
-                Alarm alarm = alarmOpt.get();
-                alarm.setIsAlive(false);
-                alarm.setIsRead(false);
-                alarmRepository.save(alarm);
+            if (updated > 0) {
+                evictAfterCommit(isalivedto.getReceiverUid());
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -83,7 +157,18 @@ public class AlarmService {
         }
     }
 
+    // 다시 누른 좋아요 : UPDATE 한 번으로 되살리고, push 내용을 위해 같은 index 로 한 행을 읽는다.
+    @Transactional
     public void marked(IsAliveDto isalivedto) {
+        int updated = alarmRepository.reactivate(
+                isalivedto.getSenderUid(),
+                isalivedto.getReceiverUid(),
+                isalivedto.getPictureId(),
+                ZonedDateTime.now(ZoneId.of("Asia/Seoul")).toInstant()
+        );
+        if (updated == 0) {
+            return;
+        }
         Optional<Alarm> alarmOpt = alarmRepository.findBySenderUidAndReceiverUidAndPictureId(
                 isalivedto.getSenderUid(),
                 isalivedto.getReceiverUid(),
@@ -91,35 +176,32 @@ public class AlarmService {
         );
         if (alarmOpt.isPresent()) {
             Alarm alarm = alarmOpt.get();
-            alarm.setIsAlive(true);
-            alarm.setIsRead(false);
-            alarm.setCreatedAt(ZonedDateTime.now(ZoneId.of("Asia/Seoul")).toInstant());
-            alarmRepository.save(alarm);
-//            String fcmToken = "fEvCxJFWSjWZyfsqiqMFJl:APA91bGr7IPRVsNnTgNTm9IE4UEUbIdGApDci77uTPYRrQpAfMGD6QyDeqQRf0aPHfenMYvd9dJOQwQiaHfmSDyO-05aqUOTPxxXSe1LSBy8f1cpdjVVE_ZfUPqrvFmyWBc8N5UqvT49";
-            try {
-                String fcmToken = firebaseCloudMessageService.getFCMTokenByUserId(alarm.getReceiverUid());
-                String SenderName = alarm.getSenderName();
-                String msg = SenderName + "님이 좋아요를 누르셨습니다.";
-                firebaseCloudMessageService.sendMessageTo(fcmToken, "Creaite", msg, alarm.getSenderImgSrc());
-            } catch (Exception e) {
-                e.printStackTrace();
-                // 여기에서 예외 처리를 수행하거나 필요에 따라 반환 타입을 변경하여 실패 응답을 처리할 수 있습니다.
-            }
+            pushDispatcher.dispatch(alarm);
+            alarmStreamHub.publish(alarm);
+            evictAfterCommit(alarm.getReceiverUid());
         }
     }
 
+    // 탈퇴한 유저가 보내거나 받은 알람을 UPDATE 한 번으로 비활성화
     public void remove(String userUid) {
-        List<Alarm> alarms = alarmRepository.findByReceiverUidOrSenderUid(userUid,userUid);
-        alarms.forEach(alarm -> {alarm.setIsAlive(false);
-                                alarm.setContent("삭제된 알람입니다");});
-        alarmRepository.saveAll(alarms);
+        LinkedHashSet<String> receiverUids = new LinkedHashSet<>(alarmRepository.findReceiverUidsBySenderUid(userUid));
+        receiverUids.add(userUid);
+        alarmRepository.removeByUserUid(userUid, REMOVED_CONTENT);
+        alarmCacheStore.evict(receiverUids);
     }
 
     public void picmove(Long picture_id) {
-        List<Alarm> alarms = alarmRepository.findByPictureId(picture_id);
-        alarms.forEach(alarm -> {alarm.setIsAlive(false);
-                                alarm.setContent("삭제된 알람입니다");});
-        alarmRepository.saveAll(alarms);
+        picmoveAll(Collections.singletonList(picture_id));
+    }
+
+    // 삭제된 그림들의 알람을 UPDATE 한 번으로 (picture 서버의 삭제 outbox 가 모아서 보냄)
+    public void picmoveAll(List<Long> pictureIds) {
+        if (pictureIds.isEmpty()) {
+            return;
+        }
+        List<String> receiverUids = alarmRepository.findReceiverUidsByPictureIds(pictureIds);
+        alarmRepository.removeByPictureIds(pictureIds, REMOVED_CONTENT);
+        alarmCacheStore.evict(receiverUids);
     }
 
     @Transactional
@@ -129,9 +211,15 @@ public class AlarmService {
             Alarm alarm = alarmOptional.get();
             alarm.setIsAlive(false);
             alarmRepository.save(alarm);
+            evictAfterCommit(alarm.getReceiverUid());
         }
     }
 
+    // 받는 사람의 수, 페이지가 바뀌었을 때 (commit 전에 지우면 다른 요청이 이전 값을 다시 캐시할 수 있음)
+    private void evictAfterCommit(String receiverUid) {
+        AfterCommit.run(() -> alarmCacheStore.evict(Collections.singletonList(receiverUid)));
+    }
+
     /**
      * user 이름 가져오기
      * @param userId
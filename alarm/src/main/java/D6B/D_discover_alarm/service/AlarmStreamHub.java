@@ -0,0 +1,185 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.stream.AlarmStreamRelay;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 알람 SSE 스트림 (클라이언트 polling 대신 서버가 밀어준다)
+ * - 받는 사람별 채널은 연결이 있을 때만 만들고, 마지막 연결이 끊기면 지운다. (연결 없는 유저는 비용 없음)
+ * - 채널은 구독자에게 바로 넘기기만 하고(buffer 없음), 연결마다 정해진 크기의 buffer 를 두어
+ *   느린 연결은 오래된 이벤트부터 버린다.
+ * - 이벤트 id 는 "생성시각(ms)-알람id". 다시 연결할 때 Last-Event-ID 를 보내면 그 뒤에 생긴 안 읽은 알람을 DB 에서 다시 보낸다.
+ *   (DB 시각 정밀도 차이로 빠지는 알람이 없도록 1초 앞에서부터 읽으므로, 같은 알람이 다시 올 수 있다. 클라이언트는 알람 id 로 합친다.)
+ * - 연결은 max-connection-seconds 가 지나면 끝나고, 클라이언트(EventSource)는 Last-Event-ID 로 다시 붙는다.
+ * 채널은 서버 메모리에 있으므로 새 알람은 AlarmStreamRelay 로 모든 서버에 보내고, 각 서버는 받은 알람을 자기 채널에 내보낸다.
+ */
+@Slf4j
+@Component
+public class AlarmStreamHub {
+    private static final String EVENT_NAME = "alarm";
+
+    private final AlarmRepository alarmRepository;
+    private final AlarmStreamRelay relay;
+    private final int bufferSize;
+    private final int resumeLimit;
+    private final Duration heartbeatInterval;
+    private final Duration maxConnection;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+
+    @Autowired
+    public AlarmStreamHub(AlarmRepository alarmRepository,
+                          AlarmStreamRelay relay,
+                          @Value("${alarm.stream.buffer-size:32}") int bufferSize,
+                          @Value("${alarm.stream.resume-limit:100}") int resumeLimit,
+                          @Value("${alarm.stream.heartbeat-seconds:30}") long heartbeatSeconds,
+                          @Value("${alarm.stream.max-connection-seconds:1800}") long maxConnectionSeconds) {
+        this.alarmRepository = alarmRepository;
+        this.relay = relay;
+        this.bufferSize = bufferSize;
+        this.resumeLimit = resumeLimit;
+        this.heartbeatInterval = Duration.ofSeconds(heartbeatSeconds);
+        this.maxConnection = Duration.ofSeconds(maxConnectionSeconds);
+        relay.subscribe(this::emit);
+    }
+
+    private static class Channel {
+        private final Sinks.Many<ServerSentEvent<AlarmDto>> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers = 0;
+    }
+
+    /**
+     * 받는 사람의 알람 스트림
+     * @param receiverUid 받는 사람
+     * @param lastEventId 다시 연결할 때 마지막으로 받은 이벤트 id, 처음이면 null
+     */
+    public Flux<ServerSentEvent<AlarmDto>> connect(String receiverUid, String lastEventId) {
+        // 채널에 먼저 붙고 나서 놓친 알람을 읽어야 그 사이에 생긴 알람이 빠지지 않는다.
+        Flux<ServerSentEvent<AlarmDto>> live = Flux.defer(() -> {
+                    Channel channel = acquire(receiverUid);
+                    return channel.sink.asFlux().doFinally(signal -> release(receiverUid, channel));
+                });
+        Flux<ServerSentEvent<AlarmDto>> missed = lastEventId == null
+                ? Flux.empty()
+                : Flux.defer(() -> Flux.fromIterable(findMissed(receiverUid, lastEventId)))
+                        .subscribeOn(Schedulers.boundedElastic());
+        // 프록시가 조용한 연결을 끊지 않도록 주기적으로 주석 한 줄
+        Flux<ServerSentEvent<AlarmDto>> heartbeat = Flux.interval(heartbeatInterval)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<AlarmDto>builder().comment("ping").build());
+        // 연결마다 buffer 는 하나만 (merge 가 미리 당겨가는 만큼 앞에 두면 크기가 지켜지지 않는다)
+        return Flux.merge(live, missed, heartbeat)
+                .onBackpressureBuffer(bufferSize, event -> dropped.incrementAndGet(), BufferOverflowStrategy.DROP_OLDEST)
+                .take(maxConnection);
+    }
+
+    // 알람 저장이 commit 된 뒤에 모든 서버로 보낸다.
+    public void publish(Alarm alarm) {
+        AfterCommit.run(() -> relay.send(AlarmDto.from(alarm)));
+    }
+
+    // relay 로 받은 알람을 이 서버에 붙은 연결들에게 보낸다.
+    private void emit(AlarmDto alarm) {
+        Channel channel = channels.get(alarm.getReceiverUid());
+        if (channel == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        ServerSentEvent<AlarmDto> event = toEvent(alarm);
+        // 여러 스레드에서 동시에 emit 하면 실패하므로 채널 단위로 순서대로
+        synchronized (channel) {
+            channel.sink.tryEmitNext(event);
+        }
+        published.incrementAndGet();
+    }
+
+    private Channel acquire(String receiverUid) {
+        connections.incrementAndGet();
+        return channels.compute(receiverUid, (uid, channel) -> {
+            Channel acquired = channel == null ? new Channel() : channel;
+            acquired.subscribers++;
+            return acquired;
+        });
+    }
+
+    private void release(String receiverUid, Channel channel) {
+        connections.decrementAndGet();
+        channels.computeIfPresent(receiverUid, (uid, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+
+    private List<ServerSentEvent<AlarmDto>> findMissed(String receiverUid, String lastEventId) {
+        Instant since = parseCreatedAt(lastEventId);
+        if (since == null) {
+            return Collections.emptyList();
+        }
+        List<Alarm> alarms = alarmRepository.findUnreadSince(receiverUid, since.minusSeconds(1), PageRequest.of(0, resumeLimit));
+        resumed.addAndGet(alarms.size());
+        return alarms.stream().map(alarm -> toEvent(AlarmDto.from(alarm))).collect(Collectors.toList());
+    }
+
+    static ServerSentEvent<AlarmDto> toEvent(AlarmDto alarm) {
+        return ServerSentEvent.<AlarmDto>builder()
+                .id(alarm.getCreatedAt().toEpochMilli() + "-" + alarm.getId())
+                .event(EVENT_NAME)
+                .data(alarm)
+                .build();
+    }
+
+    // "생성시각(ms)-알람id" 에서 생성시각, 형식이 다르면 null
+    static Instant parseCreatedAt(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(eventId.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            log.debug("잘못된 Last-Event-ID : {}", eventId);
+            return null;
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("users", (long) channels.size());
+        metrics.put("connections", connections.get());
+        metrics.put("published", published.get());
+        metrics.put("skipped", skipped.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("resumed", resumed.get());
+        metrics.putAll(relay.getMetrics());
+        return metrics;
+    }
+}
@@ -0,0 +1,38 @@
+package D6B.D_discover_alarm.service;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * FCM 호출용 OAuth access token
+ * 서비스 계정 키는 처음 한 번만 읽고, 토큰은 만료가 가까워졌을 때만 갱신한다.
+ * (GoogleCredentials.refreshIfExpired 는 만료 몇 분 전부터 갱신)
+ */
+@Component
+public class FcmAccessTokenProvider {
+    private static final String FIREBASE_CONFIG_PATH = "firebase/firebase_service_key.json";
+    private static final String MESSAGING_SCOPE = "https://www.googleapis.com/auth/cloud-platform";
+
+    private GoogleCredentials credentials;
+
+    public FcmAccessTokenProvider() {
+    }
+
+    FcmAccessTokenProvider(GoogleCredentials credentials) {
+        this.credentials = credentials;
+    }
+
+    public synchronized String getAccessToken() throws IOException {
+        if (credentials == null) {
+            credentials = GoogleCredentials
+                    .fromStream(new ClassPathResource(FIREBASE_CONFIG_PATH).getInputStream())
+                    .createScoped(Collections.singletonList(MESSAGING_SCOPE));
+        }
+        credentials.refreshIfExpired();
+        return credentials.getAccessToken().getTokenValue();
+    }
+}
@@ -0,0 +1,98 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.service.exceptions.FcmSendException;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FCM HTTP v1 전송
+ * - OkHttpClient 하나를 공유해서 connection pool 을 재사용한다.
+ * - HTTP/2 를 우선 사용하므로 동시에 보내는 push 들은 연결 하나에 multiplexing 된다.
+ * - 전송은 enqueue 로 비동기 처리하고 결과는 CompletableFuture 로 돌려준다.
+ * FCM 주소는 설정(FCMServer)으로 받아서 테스트에서는 로컬 stub 으로 바꿀 수 있다.
+ */
+@Slf4j
+@Component
+public class FcmPushClient {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final String fcmApiUrl;
+    private final FcmAccessTokenProvider accessTokenProvider;
+    private final OkHttpClient client;
+
+    @Autowired
+    public FcmPushClient(@Value("${FCMServer}") String fcmApiUrl,
+                         FcmAccessTokenProvider accessTokenProvider,
+                         @Value("${fcm.max-idle-connections:5}") int maxIdleConnections,
+                         @Value("${fcm.max-concurrent-requests:64}") int maxConcurrentRequests) {
+        this.fcmApiUrl = fcmApiUrl;
+        this.accessTokenProvider = accessTokenProvider;
+        Dispatcher dispatcher = new Dispatcher();
+        // FCM 은 호스트 하나라서 호스트당 동시 요청 수(기본 5)도 같이 올린다.
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, 5, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .callTimeout(15, TimeUnit.SECONDS)
+                .build();
+    }
+
+    // 연결 오류면 IOException, 2xx 가 아닌 응답이면 FcmSendException 으로 끝난다.
+    public CompletableFuture<Void> send(String message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Request request;
+        try {
+            request = new Request.Builder()
+                    .url(fcmApiUrl)
+                    .post(RequestBody.create(message, JSON))
+                    .addHeader("Authorization", "Bearer " + accessTokenProvider.getAccessToken())
+                    .build();
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                // body 를 닫아 연결을 pool 에 돌려준 뒤에 결과를 알린다.
+                String body;
+                try (ResponseBody responseBody = response.body()) {
+                    body = responseBody == null ? "" : responseBody.string();
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (response.isSuccessful()) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(new FcmSendException(response.code(), "FCM 전송 실패 : " + response.code() + " " + body));
+                }
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,105 @@
+package D6B.D_discover_alarm.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 받는 사람 uid -> FCM 토큰 캐시.
+ * push 마다 유저 서버에 토큰을 묻지 않도록 TTL 동안 로컬에서 응답한다.
+ * 유저의 토큰이 바뀌면(재로그인, 재가입) 유저 서버가 evict 를 보내주지만, k8s Service 를 거치므로 서버 한 대에만 닿는다.
+ * 나머지 서버는 TTL 이 지나거나 이전 토큰으로 보낸 push 가 404 로 실패할 때(PushDispatcher 가 evict 후 다시 보냄) 새 토큰을 받는다.
+ * 그래서 TTL 을 짧게 둔다. 이 캐시는 서버 메모리 저장소(alarm.cache.store=local)에서만 쓰고, 기본인 Redis 저장소는 모든 서버가 같은 토큰을 본다.
+ */
+@Component
+public class FcmTokenCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // accessOrder = true 인 LinkedHashMap 으로 LRU (접근은 모두 synchronized)
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // evict 가 일어날 때마다 증가. 조회 도중에 evict 가 있었으면 그 결과는 캐시에 넣지 않는다.
+    private final AtomicLong evictVersion = new AtomicLong();
+
+    @Autowired
+    public FcmTokenCache(@Value("${fcm.token-cache.max-size:10000}") int maxSize,
+                         @Value("${fcm.token-cache.ttl-seconds:600}") long ttlSeconds) {
+        this(maxSize, ttlSeconds, System::currentTimeMillis);
+    }
+
+    FcmTokenCache(int maxSize, long ttlSeconds, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FcmTokenCache.Entry> eldest) {
+                return size() > FcmTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    // 캐시에 없거나 만료됐으면 loader 로 가져온다. (토큰이 없는 유저는 캐시하지 않음)
+    public String get(String uid, Function<String, String> loader) {
+        long now = clock.getAsLong();
+        long version;
+        synchronized (entries) {
+            Entry entry = entries.get(uid);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.token;
+            }
+            version = evictVersion.get();
+        }
+        misses.incrementAndGet();
+        String token = loader.apply(uid);
+        if (token != null && !token.isBlank()) {
+            synchronized (entries) {
+                if (evictVersion.get() == version) {
+                    entries.put(uid, new Entry(token, now + ttlMillis));
+                }
+            }
+        }
+        return token;
+    }
+
+    // 토큰이 바뀐 유저 제거
+    public void evict(String uid) {
+        synchronized (entries) {
+            evictVersion.incrementAndGet();
+            if (entries.remove(uid) != null) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        synchronized (entries) {
+            metrics.put("size", (long) entries.size());
+        }
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("evictions", evictions.get());
+        return metrics;
+    }
+
+    private static class Entry {
+        private final String token;
+        private final long expiresAt;
+
+        private Entry(String token, long expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
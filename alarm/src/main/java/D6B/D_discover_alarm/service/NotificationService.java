@@ -3,20 +3,56 @@ package D6B.D_discover_alarm.service;
 import D6B.D_discover_alarm.controller.dto.NotificationDto;
 import D6B.D_discover_alarm.domain.Alarm;
 import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.cache.AlarmCacheStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class NotificationService {
 
     @Autowired
     private AlarmRepository alarmRepository;
 
+    @Autowired
+    private PushDispatcher pushDispatcher;
+
+    @Autowired
+    private AlarmStreamHub alarmStreamHub;
+
+    @Autowired
+    private AlarmCacheStore alarmCacheStore;
+
+    @Autowired
+    private AlarmService alarmService;
+
     @Transactional
     public NotificationDto createNotification(NotificationDto dto) {
+        // 좋아요 알람은 (보낸 사람, 받는 사람, 그림) 당 한 행 - 취소했거나 읽은 알람은 되살리고, 없으면 만든다.
         Alarm alarm = Alarm.createAlarm(dto);
-        Alarm created = alarmRepository.save(alarm);
+        boolean isNew = alarmRepository.reviveLike(alarm, alarmService.readAfter(alarm.getReceiverUid())) == 1
+                || alarmRepository.insertLikeIfAbsent(alarm) == 1;
+        if (!isNew) {
+            // 같은 알람이 안 읽은 채로 있음 (같은 요청이 두 번 온 경우) - 수를 늘리거나 다시 보내지 않는다.
+            alarmRepository.refreshLike(alarm);
+        }
+        Alarm created = alarmRepository.findBySenderUidAndReceiverUidAndPictureId(
+                        alarm.getSenderUid(), alarm.getReceiverUid(), alarm.getPictureId())
+                .orElseThrow(() -> new IllegalStateException("알람 저장 실패"));
+        if (isNew) {
+            // push 는 commit 후 전송 큐에서 보내고, 연결된 클라이언트에게는 스트림으로 바로 보낸다.
+            pushDispatcher.dispatch(created);
+            alarmStreamHub.publish(created);
+            AfterCommit.run(() -> {
+                alarmCacheStore.incrementUnreadCount(created.getReceiverUid());
+                alarmCacheStore.evictPages(created.getReceiverUid());
+            });
+        } else {
+            // 보이는 내용이 바뀌었을 수 있으니 수와 페이지를 지운다. (다음 조회 때 DB 에서)
+            AfterCommit.run(() -> alarmCacheStore.evict(List.of(created.getReceiverUid())));
+        }
         return NotificationDto.createNotificationDto(created);
     }
 }
@@ -0,0 +1,303 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.exceptions.Client4xxException;
+import D6B.D_discover_alarm.service.exceptions.FcmSendException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 알람 push 전송 큐
+ * 알람 저장(요청 처리)과 push 전송을 떼어 놓는다. 요청 스레드는 큐에 넣기만 하고,
+ * 정해진 수의 worker 가 FCM 토큰 조회 -> 전송 -> is_sended 표시를 한다.
+ * - 받는 사람별로 coalesce window 동안 모인 알람은 "OO님 외 N명" push 하나로 합친다. (알람 행은 그대로 따로)
+ *   window 마다 모인 받는 사람들을 한 묶음으로 큐에 넣고, worker 들이 공유 HTTP/2 연결로 동시에 보낸다.
+ * - 큐 크기는 정해져 있고, 가득 차면 기다리지 않고 dead letter 로 보낸다.
+ * - 연결 오류, 429, 5xx 는 backoff 후 다시 보내고, 횟수를 넘기거나 다시 보내도 안 되는 실패(토큰 만료 등)는 dead letter 로.
+ * - 토큰 만료(404)면 캐시된 토큰을 지우고 유저 서버에서 새로 받은 토큰으로 한 번만 바로 다시 보낸다.
+ *   (다른 서버가 받은 토큰 evict 는 이 서버 캐시에 닿지 않으므로, 바뀐 토큰을 여기서 알아챈다)
+ * - dead letter 는 최근 것만 메모리에 남기고, 다시 큐에 넣을 수 있다.
+ * 큐는 메모리에만 있으므로 서버가 내려가면 보내지 못한 push 는 사라진다. (알람 자체는 저장되어 있음)
+ */
+@Slf4j
+@Component
+public class PushDispatcher {
+    private static final String TITLE = "Creaite";
+    private static final int DEAD_LETTER_CAPACITY = 1000;
+
+    private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final AlarmRepository alarmRepository;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long coalesceWindowMillis;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler;
+
+    // window 동안 받는 사람별로 모인 알람 (접근은 pendingLock 으로)
+    private final Object pendingLock = new Object();
+    private Map<String, List<Alarm>> pending = new LinkedHashMap<>();
+
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong refreshedTokens = new AtomicLong();
+
+    @Autowired
+    public PushDispatcher(FirebaseCloudMessageService firebaseCloudMessageService,
+                          AlarmRepository alarmRepository,
+                          @Value("${push.workers:8}") int workerCount,
+                          @Value("${push.queue-capacity:10000}") int queueCapacity,
+                          @Value("${push.max-attempts:5}") int maxAttempts,
+                          @Value("${push.base-backoff-millis:1000}") long baseBackoffMillis,
+                          @Value("${push.max-backoff-millis:60000}") long maxBackoffMillis,
+                          @Value("${push.coalesce-window-millis:3000}") long coalesceWindowMillis) {
+        this.firebaseCloudMessageService = firebaseCloudMessageService;
+        this.alarmRepository = alarmRepository;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("push-worker"), new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("push-scheduler"));
+        // window 가 0 이면 합치지 않고 바로 보낸다.
+        if (coalesceWindowMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::flush, coalesceWindowMillis, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Getter
+    public static class DeadLetter {
+        private final List<Long> alarmIds;
+        private final String receiverUid;
+        private final int attempts;
+        private final String reason;
+        private final Instant failedAt;
+        // 다시 보낼 때 쓰는 원래 작업 (응답에는 포함하지 않음)
+        @Getter(lombok.AccessLevel.NONE)
+        private final PushTask task;
+
+        private DeadLetter(PushTask task, String reason) {
+            this.alarmIds = task.alarmIds;
+            this.receiverUid = task.receiverUid;
+            this.attempts = task.attempts;
+            this.reason = reason;
+            this.failedAt = Instant.now();
+            this.task = task;
+        }
+    }
+
+    static class PushTask {
+        private final List<Long> alarmIds;
+        private final String receiverUid;
+        private final String body;
+        private final String image;
+        private int attempts = 0;
+        private boolean tokenRefreshed = false;
+
+        private PushTask(List<Long> alarmIds, String receiverUid, String body, String image) {
+            this.alarmIds = alarmIds;
+            this.receiverUid = receiverUid;
+            this.body = body;
+            this.image = image;
+        }
+
+        // 한 받는 사람의 알람들 (오래된 순) -> 가장 최근 보낸 사람 기준 요약 push 하나
+        static PushTask from(List<Alarm> alarms) {
+            Alarm latest = alarms.get(alarms.size() - 1);
+            List<Long> alarmIds = new ArrayList<>();
+            Set<String> senders = new HashSet<>();
+            for (Alarm alarm : alarms) {
+                alarmIds.add(alarm.getId());
+                senders.add(alarm.getSenderUid());
+            }
+            String body = senders.size() > 1
+                    ? latest.getSenderName() + "님 외 " + (senders.size() - 1) + "명이 좋아요를 누르셨습니다."
+                    : latest.getSenderName() + "님이 좋아요를 누르셨습니다.";
+            return new PushTask(alarmIds, latest.getReceiverUid(), body, latest.getSenderImgSrc());
+        }
+    }
+
+    // 알람 저장이 commit 된 뒤에 큐에 넣는다. (commit 전에 보내면 is_sended 표시가 아직 없는 행을 건드릴 수 있음)
+    public void dispatch(Alarm alarm) {
+        enqueued.incrementAndGet();
+        AfterCommit.run(() -> collect(alarm));
+    }
+
+    private void collect(Alarm alarm) {
+        if (coalesceWindowMillis <= 0) {
+            submit(PushTask.from(Collections.singletonList(alarm)));
+            return;
+        }
+        synchronized (pendingLock) {
+            pending.computeIfAbsent(alarm.getReceiverUid(), receiverUid -> new ArrayList<>()).add(alarm);
+        }
+    }
+
+    // window 동안 모인 알람들을 받는 사람별 push 로 묶어 한꺼번에 큐에 넣는다.
+    void flush() {
+        Map<String, List<Alarm>> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        for (List<Alarm> alarms : batch.values()) {
+            coalesced.addAndGet(alarms.size() - 1);
+            submit(PushTask.from(alarms));
+        }
+    }
+
+    private void submit(PushTask task) {
+        try {
+            workers.execute(() -> deliver(task));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            deadLetter(task, "push 큐가 가득 찼습니다");
+        }
+    }
+
+    private void deliver(PushTask task) {
+        task.attempts++;
+        try {
+            String fcmToken = firebaseCloudMessageService.getFCMTokenByUserId(task.receiverUid);
+            if (fcmToken == null || fcmToken.isBlank()) {
+                deadLetter(task, "FCM 토큰이 없습니다");
+                return;
+            }
+            firebaseCloudMessageService.sendMessageTo(fcmToken, TITLE, task.body, task.image);
+        } catch (Exception e) {
+            boolean unregistered = e instanceof FcmSendException && ((FcmSendException) e).getStatusCode() == 404;
+            if (unregistered) {
+                // 토큰이 더 이상 유효하지 않으면 캐시에서도 지워서 다음에는 유저 서버에서 새로 받는다.
+                firebaseCloudMessageService.evictFCMToken(task.receiverUid);
+            }
+            if (isRetryable(e) && task.attempts < maxAttempts) {
+                retried.incrementAndGet();
+                scheduleRetry(task);
+            } else if (unregistered && !task.tokenRefreshed) {
+                task.tokenRefreshed = true;
+                refreshedTokens.incrementAndGet();
+                submit(task);
+            } else {
+                deadLetter(task, e.getMessage());
+            }
+            return;
+        }
+        sent.incrementAndGet();
+        // 이미 보냈으므로 표시에 실패해도 다시 보내지 않는다.
+        try {
+            alarmRepository.markSended(task.alarmIds);
+        } catch (Exception e) {
+            log.error("is_sended 표시 실패 : alarm {} - {}", task.alarmIds, e.getMessage());
+        }
+    }
+
+    private void scheduleRetry(PushTask task) {
+        try {
+            scheduler.schedule(() -> submit(task), backoff(task.attempts), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            deadLetter(task, "종료 중이라 다시 보내지 못했습니다");
+        }
+    }
+
+    // 연결 오류, 유저 서버 5xx 등은 다시 보낸다.
+    static boolean isRetryable(Exception e) {
+        if (e instanceof FcmSendException) {
+            return ((FcmSendException) e).isRetryable();
+        }
+        return !(e instanceof Client4xxException);
+    }
+
+    // base 부터 두 배씩, 최대 max
+    long backoff(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(baseBackoffMillis << shift, maxBackoffMillis);
+    }
+
+    private void deadLetter(PushTask task, String reason) {
+        deadLettered.incrementAndGet();
+        log.error("push dead letter : alarm {}, receiver {}, {}회 - {}", task.alarmIds, task.receiverUid, task.attempts, reason);
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= DEAD_LETTER_CAPACITY) {
+                deadLetters.pollFirst();
+            }
+            deadLetters.addLast(new DeadLetter(task, reason));
+        }
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    // dead letter 들을 횟수를 초기화해서 다시 큐에 넣는다.
+    public int redriveDeadLetters() {
+        List<DeadLetter> drained;
+        synchronized (deadLetters) {
+            drained = new ArrayList<>(deadLetters);
+            deadLetters.clear();
+        }
+        for (DeadLetter deadLetter : drained) {
+            deadLetter.task.attempts = 0;
+            submit(deadLetter.task);
+        }
+        return drained.size();
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        synchronized (pendingLock) {
+            metrics.put("pending", pending.values().stream().mapToLong(List::size).sum());
+        }
+        metrics.put("queued", (long) workers.getQueue().size());
+        metrics.put("active", (long) workers.getActiveCount());
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("sent", sent.get());
+        metrics.put("retried", retried.get());
+        metrics.put("deadLettered", deadLettered.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("refreshedTokens", refreshedTokens.get());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        scheduler.shutdownNow();
+        // 모아둔 알람은 내려가기 전에 보낸다.
+        flush();
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 받는 사람별 안 읽은 알람 수, 첫 페이지, FCM 토큰 캐시
+ * - alarm.cache.store=redis (기본) : 여러 서버가 같은 값을 보도록 Redis
+ * - alarm.cache.store=local : 서버 메모리 (서버 한 대일 때만, 로컬 개발용)
+ * 알람을 만들거나 바꾸는 쪽이 commit 뒤에 바로 반영(write-through)하고, TTL 은 반영이 빠졌을 때의 안전장치다.
+ * 캐시가 실패해도 요청은 실패하지 않는다. (조회는 없는 것으로, 쓰기는 건너뛰고 DB 에서 읽는다)
+ */
+public interface AlarmCacheStore {
+    Optional<Long> getUnreadCount(String receiverUid);
+
+    void putUnreadCount(String receiverUid, long count);
+
+    // 캐시된 수가 있을 때만 하나 늘린다. (없으면 다음 조회 때 DB 에서 센다)
+    void incrementUnreadCount(String receiverUid);
+
+    // cursor 없이 요청한 첫 페이지 (페이지 크기별로)
+    Optional<AlarmPageResponseDto> getFirstPage(String receiverUid, int size);
+
+    // 첫 페이지 버전 - DB 를 읽기 전에 받아 두고 putFirstPage 에 넘긴다. (evictPages, evict 마다 바뀜)
+    long getPageVersion(String receiverUid);
+
+    // 읽기 시작한 뒤로 버전이 바뀌었으면(그 사이 알람이 바뀌고 지워졌으면) 옛 페이지이므로 저장하지 않는다.
+    void putFirstPage(String receiverUid, int size, AlarmPageResponseDto page, long version);
+
+    void evictPages(String receiverUid);
+
+    // 받는 사람들의 수, 페이지 모두
+    void evict(Collection<String> receiverUids);
+
+    // 캐시에 없으면 loader 로 가져온다. (토큰이 없는 유저는 캐시하지 않음)
+    String getFcmToken(String uid, Function<String, String> loader);
+
+    void evictFcmToken(String uid);
+
+    Map<String, Long> getMetrics();
+}
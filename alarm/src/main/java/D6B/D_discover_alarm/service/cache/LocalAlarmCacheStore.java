@@ -0,0 +1,178 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import D6B.D_discover_alarm.service.FcmTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 서버 메모리 캐시 (alarm.cache.store=local) - 서버 한 대로 띄울 때만 쓴다.
+ * 수와 페이지는 받는 사람 uid 기준 LRU + TTL, FCM 토큰은 FcmTokenCache 에 맡긴다.
+ * 페이지 버전은 서버 전체에서 겹치지 않는 값이라, 항목이 지워졌다 다시 생겨도 옛 버전과 같아지지 않는다.
+ * 캐시를 지우는 쪽은 요청을 받은 서버뿐이라, 여러 대로 띄우면 다른 서버는 TTL 이 지날 때까지 옛 값을 보여준다.
+ */
+@Component
+@ConditionalOnProperty(name = "alarm.cache.store", havingValue = "local")
+public class LocalAlarmCacheStore implements AlarmCacheStore {
+    private final FcmTokenCache fcmTokenCache;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // accessOrder = true 인 LinkedHashMap 으로 LRU (접근은 모두 synchronized (entries))
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong pageVersions = new AtomicLong();
+
+    @Autowired
+    public LocalAlarmCacheStore(FcmTokenCache fcmTokenCache,
+                                @Value("${alarm.cache.max-size:10000}") int maxSize,
+                                @Value("${alarm.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(fcmTokenCache, maxSize, ttlSeconds, System::currentTimeMillis);
+    }
+
+    LocalAlarmCacheStore(FcmTokenCache fcmTokenCache, int maxSize, long ttlSeconds, LongSupplier clock) {
+        this.fcmTokenCache = fcmTokenCache;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalAlarmCacheStore.Entry> eldest) {
+                return size() > LocalAlarmCacheStore.this.maxSize;
+            }
+        };
+    }
+
+    // 받는 사람 한 명의 캐시 (수와 페이지는 따로 만료)
+    private static class Entry {
+        private Long unreadCount;
+        private long unreadCountExpiresAt;
+        private final Map<Integer, AlarmPageResponseDto> pages = new HashMap<>();
+        private long pagesExpiresAt;
+        private long pageVersion;
+    }
+
+    @Override
+    public Optional<Long> getUnreadCount(String receiverUid) {
+        synchronized (entries) {
+            Entry entry = entries.get(receiverUid);
+            if (entry != null && entry.unreadCount != null && entry.unreadCountExpiresAt > clock.getAsLong()) {
+                hits.incrementAndGet();
+                return Optional.of(entry.unreadCount);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    @Override
+    public void putUnreadCount(String receiverUid, long count) {
+        synchronized (entries) {
+            Entry entry = entries.computeIfAbsent(receiverUid, uid -> newEntry());
+            entry.unreadCount = count;
+            entry.unreadCountExpiresAt = clock.getAsLong() + ttlMillis;
+        }
+    }
+
+    @Override
+    public void incrementUnreadCount(String receiverUid) {
+        synchronized (entries) {
+            Entry entry = entries.get(receiverUid);
+            if (entry != null && entry.unreadCount != null) {
+                entry.unreadCount++;
+            }
+        }
+    }
+
+    @Override
+    public Optional<AlarmPageResponseDto> getFirstPage(String receiverUid, int size) {
+        synchronized (entries) {
+            Entry entry = entries.get(receiverUid);
+            if (entry != null && entry.pagesExpiresAt > clock.getAsLong() && entry.pages.containsKey(size)) {
+                hits.incrementAndGet();
+                return Optional.of(entry.pages.get(size));
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    // 항목이 없으면 새 버전으로 만들어 둔다. (그 사이 evict 로 항목이 지워지면 putFirstPage 가 건너뜀)
+    @Override
+    public long getPageVersion(String receiverUid) {
+        synchronized (entries) {
+            return entries.computeIfAbsent(receiverUid, uid -> newEntry()).pageVersion;
+        }
+    }
+
+    @Override
+    public void putFirstPage(String receiverUid, int size, AlarmPageResponseDto page, long version) {
+        synchronized (entries) {
+            Entry entry = entries.get(receiverUid);
+            if (entry == null || entry.pageVersion != version) {
+                return;
+            }
+            long now = clock.getAsLong();
+            if (entry.pagesExpiresAt <= now) {
+                entry.pages.clear();
+                entry.pagesExpiresAt = now + ttlMillis;
+            }
+            entry.pages.put(size, page);
+        }
+    }
+
+    @Override
+    public void evictPages(String receiverUid) {
+        synchronized (entries) {
+            Entry entry = entries.get(receiverUid);
+            if (entry != null) {
+                entry.pages.clear();
+                entry.pageVersion = pageVersions.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void evict(Collection<String> receiverUids) {
+        synchronized (entries) {
+            for (String receiverUid : receiverUids) {
+                entries.remove(receiverUid);
+            }
+        }
+    }
+
+    @Override
+    public String getFcmToken(String uid, Function<String, String> loader) {
+        return fcmTokenCache.get(uid, loader);
+    }
+
+    @Override
+    public void evictFcmToken(String uid) {
+        fcmTokenCache.evict(uid);
+    }
+
+    private Entry newEntry() {
+        Entry entry = new Entry();
+        entry.pageVersion = pageVersions.incrementAndGet();
+        return entry;
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        synchronized (entries) {
+            metrics.put("size", (long) entries.size());
+        }
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        return metrics;
+    }
+}
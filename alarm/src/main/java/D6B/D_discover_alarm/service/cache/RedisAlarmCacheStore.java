@@ -0,0 +1,196 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Redis 캐시 (alarm.cache.store 가 없거나 redis) - 알람 서버 여러 대가 같은 값을 본다.
+ * - alarm:unread:{uid}  안 읽은 수 (string)
+ * - alarm:page:{uid}    첫 페이지 JSON (hash, field 는 페이지 크기) - 한 번에 지울 수 있게 받는 사람별로 묶음
+ * - alarm:pagever:{uid} 첫 페이지 버전 (string) - 지울 때마다 INCR, 저장은 읽기 전 버전과 같을 때만 (script)
+ * - alarm:fcm:{uid}     FCM 토큰 (string)
+ * Redis 가 느리거나 죽어도 요청은 DB, 유저 서버로 처리된다. (실패는 errors 로만 센다)
+ * 빨리 포기하도록 spring.redis.timeout 을 짧게 잡는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alarm.cache.store", havingValue = "redis", matchIfMissing = true)
+public class RedisAlarmCacheStore implements AlarmCacheStore {
+    private static final String UNREAD_KEY = "alarm:unread:";
+    private static final String PAGE_KEY = "alarm:page:";
+    private static final String PAGE_VERSION_KEY = "alarm:pagever:";
+    private static final String FCM_TOKEN_KEY = "alarm:fcm:";
+    // 페이지를 읽는 동안 버전 key 가 만료되어 같은 값으로 다시 생기지 않도록 페이지 TTL 보다 훨씬 길게
+    private static final Duration PAGE_VERSION_TTL = Duration.ofDays(1);
+    // 캐시된 수가 있을 때만 +1 (INCR 은 TTL 을 그대로 둔다)
+    private static final RedisScript<Long> INCREMENT_IF_PRESENT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCR', KEYS[1]) end return nil", Long.class);
+    // KEYS = 버전, 페이지 / ARGV = 읽기 전 버전, 페이지 크기, JSON, TTL(ms) - 버전이 같을 때만 저장
+    private static final RedisScript<Long> PUT_PAGE_IF_VERSION = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end " +
+                    "redis.call('HSET', KEYS[2], ARGV[2], ARGV[3]) redis.call('PEXPIRE', KEYS[2], ARGV[4]) return 1", Long.class);
+    // KEYS = (페이지, 버전) 반복 / ARGV = 버전 TTL(ms) - 페이지를 지우고 버전을 올린다.
+    private static final RedisScript<Long> EVICT_PAGES = new DefaultRedisScript<>(
+            "for i = 1, #KEYS, 2 do redis.call('DEL', KEYS[i]) " +
+                    "redis.call('INCR', KEYS[i + 1]) redis.call('PEXPIRE', KEYS[i + 1], ARGV[1]) end return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration fcmTokenTtl;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    @Autowired
+    public RedisAlarmCacheStore(StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${alarm.cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${fcm.token-cache.ttl-seconds:600}") long fcmTokenTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.fcmTokenTtl = Duration.ofSeconds(fcmTokenTtlSeconds);
+    }
+
+    @Override
+    public Optional<Long> getUnreadCount(String receiverUid) {
+        return count(read("안 읽은 수 조회", () -> redisTemplate.opsForValue().get(UNREAD_KEY + receiverUid))
+                .map(Long::valueOf));
+    }
+
+    @Override
+    public void putUnreadCount(String receiverUid, long count) {
+        write("안 읽은 수 저장", () -> redisTemplate.opsForValue().set(UNREAD_KEY + receiverUid, String.valueOf(count), ttl));
+    }
+
+    @Override
+    public void incrementUnreadCount(String receiverUid) {
+        write("안 읽은 수 증가", () -> redisTemplate.execute(INCREMENT_IF_PRESENT, Collections.singletonList(UNREAD_KEY + receiverUid)));
+    }
+
+    @Override
+    public Optional<AlarmPageResponseDto> getFirstPage(String receiverUid, int size) {
+        return count(read("첫 페이지 조회", () -> {
+            Object json = redisTemplate.opsForHash().get(PAGE_KEY + receiverUid, String.valueOf(size));
+            return json == null ? null : objectMapper.readValue((String) json, AlarmPageResponseDto.class);
+        }));
+    }
+
+    // 버전을 읽지 못했으면 -1 (저장하지 않음)
+    @Override
+    public long getPageVersion(String receiverUid) {
+        return read("첫 페이지 버전 조회", () -> {
+            String version = redisTemplate.opsForValue().get(PAGE_VERSION_KEY + receiverUid);
+            return version == null ? 0L : Long.parseLong(version);
+        }).orElse(-1L);
+    }
+
+    @Override
+    public void putFirstPage(String receiverUid, int size, AlarmPageResponseDto page, long version) {
+        if (version < 0) {
+            return;
+        }
+        write("첫 페이지 저장", () -> redisTemplate.execute(PUT_PAGE_IF_VERSION,
+                List.of(PAGE_VERSION_KEY + receiverUid, PAGE_KEY + receiverUid),
+                String.valueOf(version), String.valueOf(size), objectMapper.writeValueAsString(page),
+                String.valueOf(ttl.toMillis())));
+    }
+
+    @Override
+    public void evictPages(String receiverUid) {
+        write("첫 페이지 삭제", () -> redisTemplate.execute(EVICT_PAGES,
+                List.of(PAGE_KEY + receiverUid, PAGE_VERSION_KEY + receiverUid),
+                String.valueOf(PAGE_VERSION_TTL.toMillis())));
+    }
+
+    @Override
+    public void evict(Collection<String> receiverUids) {
+        if (receiverUids.isEmpty()) {
+            return;
+        }
+        List<String> unreadKeys = new ArrayList<>();
+        List<String> pageKeys = new ArrayList<>();
+        for (String receiverUid : receiverUids) {
+            unreadKeys.add(UNREAD_KEY + receiverUid);
+            pageKeys.add(PAGE_KEY + receiverUid);
+            pageKeys.add(PAGE_VERSION_KEY + receiverUid);
+        }
+        write("안 읽은 수 삭제", () -> redisTemplate.delete(unreadKeys));
+        write("첫 페이지 삭제", () -> redisTemplate.execute(EVICT_PAGES, pageKeys, String.valueOf(PAGE_VERSION_TTL.toMillis())));
+    }
+
+    @Override
+    public String getFcmToken(String uid, Function<String, String> loader) {
+        Optional<String> cached = count(read("FCM 토큰 조회", () -> redisTemplate.opsForValue().get(FCM_TOKEN_KEY + uid)));
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String token = loader.apply(uid);
+        if (token != null && !token.isBlank()) {
+            write("FCM 토큰 저장", () -> redisTemplate.opsForValue().set(FCM_TOKEN_KEY + uid, token, fcmTokenTtl));
+        }
+        return token;
+    }
+
+    @Override
+    public void evictFcmToken(String uid) {
+        write("FCM 토큰 삭제", () -> redisTemplate.delete(FCM_TOKEN_KEY + uid));
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("errors", errors.get());
+        return metrics;
+    }
+
+    private <T> Optional<T> count(Optional<T> value) {
+        (value.isPresent() ? hits : misses).incrementAndGet();
+        return value;
+    }
+
+    private <T> Optional<T> read(String action, RedisCall<T> call) {
+        try {
+            return Optional.ofNullable(call.run());
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("Redis {} 실패 : {}", action, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void write(String action, RedisAction call) {
+        try {
+            call.run();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("Redis {} 실패 : {}", action, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RedisCall<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface RedisAction {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,22 @@
+package D6B.D_discover_alarm.service.exceptions;
+
+import java.io.IOException;
+
+// FCM 이 2xx 가 아닌 응답을 준 경우
+public class FcmSendException extends IOException {
+    private final int statusCode;
+
+    public FcmSendException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    // 429(요청 과다), 5xx 는 잠시 후 다시 보내면 된다. 나머지(토큰 만료 등)는 다시 보내도 실패한다.
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
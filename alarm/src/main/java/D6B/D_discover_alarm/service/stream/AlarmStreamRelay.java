@@ -0,0 +1,22 @@
+package D6B.D_discover_alarm.service.stream;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 새 알람을 모든 알람 서버의 SSE 채널에 전달한다.
+ * 연결은 서버마다 따로 붙어 있으므로, 알람을 만든 서버가 아닌 곳에 붙은 연결도 바로 받게 한다.
+ * - alarm.stream.relay=redis (기본) : Redis pub/sub 으로 모든 서버에
+ * - alarm.stream.relay=local : 이 서버에만 (서버 한 대일 때만, 로컬 개발용)
+ */
+public interface AlarmStreamRelay {
+    // commit 된 알람을 모든 서버에 보낸다.
+    void send(AlarmDto alarm);
+
+    // 이 서버가 받은 알람을 넘길 곳 (AlarmStreamHub 가 한 번 등록한다)
+    void subscribe(Consumer<AlarmDto> receiver);
+
+    Map<String, Long> getMetrics();
+}
@@ -0,0 +1,33 @@
+package D6B.D_discover_alarm.service.stream;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 이 서버의 채널에만 보낸다. (alarm.stream.relay=local) - 서버 한 대로 띄울 때만 쓴다.
+ */
+@Component
+@ConditionalOnProperty(name = "alarm.stream.relay", havingValue = "local")
+public class LocalAlarmStreamRelay implements AlarmStreamRelay {
+    private volatile Consumer<AlarmDto> receiver = alarm -> { };
+
+    @Override
+    public void send(AlarmDto alarm) {
+        receiver.accept(alarm);
+    }
+
+    @Override
+    public void subscribe(Consumer<AlarmDto> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        return new LinkedHashMap<>();
+    }
+}
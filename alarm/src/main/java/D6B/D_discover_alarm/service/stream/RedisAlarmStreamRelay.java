@@ -0,0 +1,128 @@
+package D6B.D_discover_alarm.service.stream;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.FixedBackOff;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub 으로 모든 알람 서버에 보낸다. (alarm.stream.relay 가 없거나 redis)
+ * 보낸 서버도 같은 채널을 구독하므로, 어느 서버든 받은 메시지를 자기 연결에만 내보낸다.
+ * Redis 로 보내지 못하면 이 서버의 연결에만 바로 보낸다. (다른 서버의 연결은 다시 붙을 때 Last-Event-ID 로 DB 에서 받는다)
+ * Redis 가 없어도 서버는 뜨고, 구독이 안 되어 있으면 resubscribe-millis 마다 다시 구독한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alarm.stream.relay", havingValue = "redis", matchIfMissing = true)
+public class RedisAlarmStreamRelay implements AlarmStreamRelay {
+    static final String CHANNEL = "alarm:stream";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer container;
+    private final ScheduledExecutorService scheduler;
+    private volatile Consumer<AlarmDto> receiver = alarm -> { };
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    @Autowired
+    public RedisAlarmStreamRelay(StringRedisTemplate redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${alarm.stream.resubscribe-millis:5000}") long resubscribeMillis) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        // 다시 구독하는 것은 아래 scheduler 가 맡는다. (container 안에서 재시도하면 start 가 멈춰 있는다)
+        container.setRecoveryBackoff(new FixedBackOff(0, 0));
+        container.addMessageListener((message, pattern) -> receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alarm-stream-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::listen, 0, resubscribeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 구독이 안 되어 있으면 다시 구독한다. (그 사이의 알람은 다시 연결할 때 DB 에서 받는다)
+    void listen() {
+        if (container.isRunning() && container.isListening()) {
+            return;
+        }
+        try {
+            container.stop();
+            container.start();
+        } catch (Exception e) {
+            log.warn("Redis 알람 스트림 구독 실패 : {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void send(AlarmDto alarm) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(alarm));
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            fallbacks.incrementAndGet();
+            log.warn("Redis 알람 스트림 전송 실패, 이 서버에만 보냄 : {}", e.getMessage());
+            receiver.accept(alarm);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<AlarmDto> receiver) {
+        this.receiver = receiver;
+    }
+
+    void receive(String json) {
+        AlarmDto alarm;
+        try {
+            alarm = objectMapper.readValue(json, AlarmDto.class);
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("알람 스트림 메시지 읽기 실패 : {}", e.getMessage());
+            return;
+        }
+        received.incrementAndGet();
+        receiver.accept(alarm);
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("relaySent", sent.get());
+        metrics.put("relayReceived", received.get());
+        metrics.put("relayFallbacks", fallbacks.get());
+        metrics.put("relayErrors", errors.get());
+        metrics.put("relaySubscribed", container.isListening() ? 1L : 0L);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        scheduler.shutdownNow();
+        container.destroy();
+    }
+}
@@ -0,0 +1,24 @@
+package D6B.D_discover_alarm.common.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizeServiceTest {
+
+    @Test
+    void 게이트웨이_헤더를_믿으면_path_의_uid_와_비교한다() throws Exception {
+        AuthorizeService authorizeService = new AuthorizeService(true);
+
+        assertThat(authorizeService.isOwner("me", null, "me")).isTrue();
+        assertThat(authorizeService.isOwner("other", null, "me")).isFalse();
+    }
+
+    @Test
+    void 게이트웨이_헤더를_믿지_않으면_토큰_없이는_거절한다() throws Exception {
+        AuthorizeService authorizeService = new AuthorizeService(false);
+
+        assertThat(authorizeService.isOwner("me", null, "me")).isFalse();
+        assertThat(authorizeService.isOwner(null, " ", "me")).isFalse();
+    }
+}
@@ -0,0 +1,151 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmReadMarkRepository;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.cache.AlarmCacheStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 안 읽은 알람 keyset 페이징 (created_at 이 같은 알람은 id 로 순서를 정한다), 전부 읽음, 그림 삭제
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:alarm_list;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AlarmService.class)
+class AlarmListQueryTest {
+
+    @Autowired
+    private AlarmService alarmService;
+
+    @Autowired
+    private AlarmRepository alarmRepository;
+
+    @Autowired
+    private AlarmReadMarkRepository alarmReadMarkRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @MockBean
+    private PushDispatcher pushDispatcher;
+
+    @MockBean
+    private AlarmStreamHub alarmStreamHub;
+
+    @MockBean
+    private AlarmCacheStore alarmCacheStore;
+
+    @Test
+    void 안_읽은_살아있는_알람만_최신순으로_빠짐없이_나눠서_준다() {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // 두 개씩 같은 시각
+            expected.add(alarmRepository.save(alarm("me", base.plusSeconds(i / 2), false, true)).getId());
+        }
+        alarmRepository.save(alarm("me", base.plusSeconds(10), true, true));
+        alarmRepository.save(alarm("me", base.plusSeconds(11), false, false));
+        alarmRepository.save(alarm("other", base.plusSeconds(12), false, true));
+
+        List<Long> received = new ArrayList<>();
+        AlarmPageResponseDto page = alarmService.getAlarmList("me", null, null, 2);
+        int pages = 1;
+        received.addAll(ids(page));
+        while (page.getNextCursorId() != null) {
+            page = alarmService.getAlarmList("me", page.getNextCursorCreatedAt(), page.getNextCursorId(), 2);
+            received.addAll(ids(page));
+            pages++;
+        }
+
+        // 최신순 : created_at 내림차순, 같으면 id 내림차순
+        List<Long> newestFirst = new ArrayList<>(expected);
+        Collections.reverse(newestFirst);
+        assertThat(received).containsExactlyElementsOf(newestFirst);
+        assertThat(pages).isEqualTo(3);
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(5L);
+    }
+
+    @Test
+    void 전부_읽음은_안_읽은_행만_한_번에_바꾼다() {
+        Instant now = Instant.now();
+        alarmRepository.save(alarm("me", now, false, true));
+        alarmRepository.save(alarm("me", now, false, false));
+        alarmRepository.save(alarm("me", now, true, true));
+        alarmRepository.save(alarm("other", now, false, true));
+
+        assertThat(alarmRepository.markAllRead("me")).isEqualTo(2);
+        assertThat(alarmService.getUnreadCount("me")).isZero();
+        assertThat(alarmService.getUnreadCount("other")).isEqualTo(1L);
+    }
+
+    @Test
+    void 삭제된_그림의_알람은_한_번에_비활성화한다() {
+        Instant now = Instant.now();
+        Alarm removed = alarmRepository.save(alarm("me", now, false, true));
+        Alarm kept = alarmRepository.save(alarm("me", now, false, true));
+        kept.setPictureId(2L);
+        alarmRepository.save(kept);
+
+        alarmService.picmoveAll(List.of(1L, 3L));
+        testEntityManager.clear();
+
+        assertThat(alarmRepository.findById(removed.getId()).orElseThrow().getIsAlive()).isFalse();
+        assertThat(alarmRepository.findById(removed.getId()).orElseThrow().getContent()).isEqualTo("삭제된 알람입니다");
+        assertThat(alarmRepository.findById(kept.getId()).orElseThrow().getIsAlive()).isTrue();
+    }
+
+    @Test
+    void 읽음_기준_시각을_쓰면_전부_읽음은_행을_바꾸지_않는다() {
+        AlarmService watermarkService = new AlarmService(alarmRepository, alarmReadMarkRepository, pushDispatcher, alarmStreamHub, alarmCacheStore, true);
+        Instant now = Instant.now();
+        Alarm old = alarmRepository.save(alarm("me", now.minusSeconds(60), false, true));
+
+        watermarkService.checked("me");
+        alarmRepository.save(alarm("me", now.plusSeconds(60), false, true));
+        // 시각은 뒤로 가지 않는다.
+        alarmReadMarkRepository.upsert("me", now.minusSeconds(3600));
+        testEntityManager.clear();
+
+        assertThat(watermarkService.getUnreadCount("me")).isEqualTo(1L);
+        assertThat(watermarkService.getAlarmList("me", null, null, 30).getAlarms()).hasSize(1);
+        assertThat(alarmRepository.findById(old.getId()).orElseThrow().getIsRead()).isFalse();
+    }
+
+    private List<Long> ids(AlarmPageResponseDto page) {
+        return page.getAlarms().stream().map(AlarmDto::getId).collect(Collectors.toList());
+    }
+
+    // (보낸 사람, 받는 사람, 그림) 은 unique 라 보낸 사람을 매번 다르게
+    private int senders = 0;
+
+    private Alarm alarm(String receiverUid, Instant createdAt, boolean isRead, boolean isAlive) {
+        return Alarm.builder()
+                .receiverUid(receiverUid)
+                .senderUid("sender" + (++senders))
+                .senderName("sender")
+                .pictureId(1L)
+                .content("좋아요를 클릭하였습니다")
+                .createdAt(createdAt)
+                .isRead(isRead)
+                .isAlive(isAlive)
+                .isSended(false)
+                .type(1)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import D6B.D_discover_alarm.controller.dto.IsAliveDto;
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmReadMarkRepository;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.cache.LocalAlarmCacheStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 안 읽은 수, 첫 페이지 캐시 (트랜잭션 밖이라 캐시 반영은 바로 일어난다)
+ */
+class AlarmServiceCacheTest {
+    private final AlarmRepository alarmRepository = mock(AlarmRepository.class);
+    private final LocalAlarmCacheStore alarmCacheStore = new LocalAlarmCacheStore(new FcmTokenCache(100, 60), 100, 60);
+    private final AlarmService alarmService = new AlarmService(alarmRepository, mock(AlarmReadMarkRepository.class),
+            mock(PushDispatcher.class), mock(AlarmStreamHub.class), alarmCacheStore, false);
+
+    @Test
+    void 안_읽은_수는_캐시하고_읽으면_0_으로_바꾸고_알람이_바뀌면_다시_센다() {
+        when(alarmRepository.countUnread("me", Instant.EPOCH)).thenReturn(3L);
+
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(3L);
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(3L);
+        verify(alarmRepository, times(1)).countUnread("me", Instant.EPOCH);
+
+        alarmCacheStore.incrementUnreadCount("me");
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(4L);
+
+        alarmService.checked("me");
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(0L);
+        verify(alarmRepository, times(1)).countUnread("me", Instant.EPOCH);
+
+        // 다시 누른 좋아요는 안 읽은 수가 얼마나 바뀌는지 모르니 지우고 다시 센다.
+        when(alarmRepository.reactivate(eq("you"), eq("me"), eq(10L), any())).thenReturn(1);
+        when(alarmRepository.findBySenderUidAndReceiverUidAndPictureId("you", "me", 10L))
+                .thenReturn(Optional.of(alarm(1L)));
+        alarmService.marked(IsAliveDto.builder().senderUid("you").receiverUid("me").pictureId(10L).build());
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(3L);
+        verify(alarmRepository, times(2)).countUnread("me", Instant.EPOCH);
+    }
+
+    @Test
+    void 첫_페이지만_캐시하고_그림이_지워지면_받는_사람의_캐시를_지운다() {
+        when(alarmRepository.findUnread(eq("me"), eq(Instant.EPOCH), any(Pageable.class))).thenReturn(List.of(alarm(1L)));
+        when(alarmRepository.findReceiverUidsByPictureIds(List.of(10L))).thenReturn(List.of("me"));
+
+        AlarmPageResponseDto first = alarmService.getAlarmList("me", null, null, 30);
+        assertThat(alarmService.getAlarmList("me", null, null, 30)).isSameAs(first);
+        verify(alarmRepository, times(1)).findUnread(eq("me"), eq(Instant.EPOCH), any(Pageable.class));
+
+        alarmService.getAlarmList("me", Instant.EPOCH.plusSeconds(5), 5L, 30);
+        alarmService.getAlarmList("me", Instant.EPOCH.plusSeconds(5), 5L, 30);
+        verify(alarmRepository, times(2)).findUnreadBefore(eq("me"), eq(Instant.EPOCH), any(), eq(5L), any(Pageable.class));
+
+        alarmService.picmoveAll(List.of(10L));
+        alarmService.getAlarmList("me", null, null, 30);
+        verify(alarmRepository, times(2)).findUnread(eq("me"), eq(Instant.EPOCH), any(Pageable.class));
+    }
+
+    private static Alarm alarm(Long id) {
+        return Alarm.builder()
+                .id(id)
+                .senderUid("you")
+                .receiverUid("me")
+                .pictureId(10L)
+                .createdAt(Instant.EPOCH.plusSeconds(id))
+                .isRead(false)
+                .isAlive(true)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.stream.LocalAlarmStreamRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AlarmStreamHubTest {
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AlarmRepository alarmRepository = mock(AlarmRepository.class);
+    private final LocalAlarmStreamRelay relay = new LocalAlarmStreamRelay();
+    private final AlarmStreamHub hub = new AlarmStreamHub(alarmRepository, relay, 2, 100, 3600, 3600);
+
+    @Test
+    void 연결된_유저에게만_보내고_끊기면_채널을_지운다() {
+        hub.publish(alarm(1L, "me"));
+        assertThat(hub.getMetrics()).containsEntry("skipped", 1L).containsEntry("users", 0L);
+
+        StepVerifier.create(hub.connect("me", null))
+                .then(() -> {
+                    hub.publish(alarm(2L, "me"));
+                    hub.publish(alarm(3L, "other"));
+                })
+                .assertNext(event -> {
+                    assertThat(event.id()).isEqualTo(BASE.plusSeconds(2).toEpochMilli() + "-2");
+                    assertThat(event.event()).isEqualTo("alarm");
+                    assertThat(event.data().getId()).isEqualTo(2L);
+                })
+                .then(() -> assertThat(hub.getMetrics()).containsEntry("users", 1L).containsEntry("connections", 1L))
+                .thenCancel()
+                .verify();
+
+        assertThat(hub.getMetrics()).containsEntry("users", 0L).containsEntry("connections", 0L);
+    }
+
+    @Test
+    void 다른_서버에서_만든_알람도_relay_로_받아_보낸다() {
+        StepVerifier.create(hub.connect("me", null))
+                .then(() -> relay.send(AlarmDto.from(alarm(7L, "me"))))
+                .assertNext(event -> {
+                    assertThat(event.id()).isEqualTo(BASE.plusSeconds(7).toEpochMilli() + "-7");
+                    assertThat(event.data().getId()).isEqualTo(7L);
+                })
+                .thenCancel()
+                .verify();
+
+        assertThat(hub.getMetrics()).containsEntry("published", 1L);
+    }
+
+    @Test
+    void 느린_연결은_오래된_이벤트부터_버린다() {
+        StepVerifier.create(hub.connect("me", null), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 4; id++) {
+                        hub.publish(alarm(id, "me"));
+                    }
+                })
+                .thenRequest(2)
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(3L))
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(4L))
+                .thenCancel()
+                .verify();
+
+        assertThat(hub.getMetrics()).containsEntry("dropped", 2L);
+    }
+
+    @Test
+    void 다시_연결하면_마지막_이벤트_뒤의_알람을_DB_에서_보낸다() {
+        when(alarmRepository.findUnreadSince(eq("me"), eq(BASE.plusSeconds(4)), any(Pageable.class)))
+                .thenReturn(List.of(alarm(5L, "me"), alarm(6L, "me")));
+
+        StepVerifier.create(hub.connect("me", BASE.plusSeconds(5).toEpochMilli() + "-5"))
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(5L))
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(6L))
+                .thenCancel()
+                .verify();
+
+        assertThat(hub.getMetrics()).containsEntry("resumed", 2L);
+    }
+
+    @Test
+    void 형식이_다른_Last_Event_ID_는_무시한다() {
+        StepVerifier.create(hub.connect("me", "abc"))
+                .then(() -> hub.publish(alarm(1L, "me")))
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(1L))
+                .thenCancel()
+                .verify();
+
+        verifyNoInteractions(alarmRepository);
+    }
+
+    private static Alarm alarm(Long id, String receiverUid) {
+        return Alarm.builder()
+                .id(id)
+                .senderUid("sender")
+                .senderName("sender")
+                .receiverUid(receiverUid)
+                .pictureId(10L)
+                .createdAt(BASE.plusSeconds(id))
+                .isRead(false)
+                .isAlive(true)
+                .build();
+    }
+}
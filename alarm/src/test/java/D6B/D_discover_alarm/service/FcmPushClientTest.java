@@ -0,0 +1,109 @@
+package D6B.D_discover_alarm.service;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * FCM 대신 로컬 MockWebServer 로 보내서 연결 재사용과 토큰 캐시를 확인한다.
+ */
+class FcmPushClientTest {
+    private MockWebServer server;
+    private CountingCredentials credentials;
+    private FcmPushClient fcmPushClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        credentials = new CountingCredentials();
+        fcmPushClient = new FcmPushClient(server.url("/v1/projects/test/messages:send").toString(),
+                new FcmAccessTokenProvider(credentials), 5, 64);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        fcmPushClient.close();
+        server.shutdown();
+    }
+
+    @Test
+    void 연결과_토큰을_재사용한다() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("{}"));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            fcmPushClient.send("{\"n\":" + i + "}").get(5, TimeUnit.SECONDS);
+        }
+
+        List<RecordedRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(server.takeRequest(5, TimeUnit.SECONDS));
+        }
+        assertThat(requests).allMatch(request -> "Bearer token-1".equals(request.getHeader("Authorization")));
+        assertThat(requests.get(2).getBody().readUtf8()).isEqualTo("{\"n\":2}");
+        // 같은 연결에서 0, 1, 2 번째 요청
+        assertThat(requests).extracting(RecordedRequest::getSequenceNumber).containsExactly(0, 1, 2);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(credentials.refreshes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void 동시에_여러_건을_보낸다() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            server.enqueue(new MockResponse().setBody("{}").setBodyDelay(100, TimeUnit.MILLISECONDS));
+        }
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            results.add(fcmPushClient.send("{}"));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+        // 하나씩 보냈다면 2초 이상
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1500);
+        assertThat(server.getRequestCount()).isEqualTo(20);
+    }
+
+    @Test
+    void 실패_응답은_예외로_끝난다() {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{\"error\":\"UNREGISTERED\"}"));
+
+        assertThatThrownBy(() -> fcmPushClient.send("{}").get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class)
+                .hasMessageContaining("404");
+    }
+
+    // 갱신할 때마다 새 토큰 (1시간짜리)
+    static class CountingCredentials extends GoogleCredentials {
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger refreshes = new AtomicInteger();
+
+        @Override
+        public AccessToken refreshAccessToken() {
+            int count = refreshes.incrementAndGet();
+            return new AccessToken("token-" + count, new Date(System.currentTimeMillis() + 3_600_000L));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package D6B.D_discover_alarm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FcmTokenCacheTest {
+    private final AtomicLong now = new AtomicLong(0);
+    private final List<String> loaded = new ArrayList<>();
+    private final FcmTokenCache fcmTokenCache = new FcmTokenCache(2, 60, now::get);
+
+    @Test
+    void TTL_동안은_유저_서버에_다시_묻지_않는다() {
+        assertThat(fcmTokenCache.get("a", this::load)).isEqualTo("token-a");
+        now.set(59_000);
+        assertThat(fcmTokenCache.get("a", this::load)).isEqualTo("token-a");
+        now.set(60_000);
+        fcmTokenCache.get("a", this::load);
+
+        assertThat(loaded).containsExactly("a", "a");
+        assertThat(fcmTokenCache.getMetrics()).containsEntry("hits", 1L).containsEntry("misses", 2L);
+    }
+
+    @Test
+    void evict_하면_다음에_새_토큰을_받는다() {
+        fcmTokenCache.get("a", this::load);
+        fcmTokenCache.evict("a");
+        fcmTokenCache.get("a", this::load);
+
+        assertThat(loaded).containsExactly("a", "a");
+        assertThat(fcmTokenCache.getMetrics()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void 조회_도중에_evict_되면_이전_토큰은_캐시하지_않는다() {
+        fcmTokenCache.get("a", uid -> {
+            fcmTokenCache.evict(uid);
+            return "old-token";
+        });
+        fcmTokenCache.get("a", this::load);
+
+        assertThat(loaded).containsExactly("a");
+    }
+
+    @Test
+    void 토큰이_없는_유저는_캐시하지_않고_크기는_제한된다() {
+        fcmTokenCache.get("none", uid -> null);
+        fcmTokenCache.get("a", this::load);
+        fcmTokenCache.get("b", this::load);
+        fcmTokenCache.get("c", this::load);
+        fcmTokenCache.get("a", this::load);
+
+        assertThat(loaded).containsExactly("a", "b", "c", "a");
+        assertThat(fcmTokenCache.getMetrics()).containsEntry("size", 2L);
+    }
+
+    private String load(String uid) {
+        loaded.add(uid);
+        return "token-" + uid;
+    }
+}
@@ -0,0 +1,114 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.controller.dto.IsAliveDto;
+import D6B.D_discover_alarm.controller.dto.NotificationDto;
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.cache.AlarmCacheStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 좋아요 알람은 (보낸 사람, 받는 사람, 그림) 당 한 행 - 만들기는 upsert, 되살리기와 취소는 UPDATE 한 번
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:like_alarm;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AlarmService.class, NotificationService.class})
+class LikeAlarmUpsertTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private AlarmService alarmService;
+
+    @Autowired
+    private AlarmRepository alarmRepository;
+
+    @MockBean
+    private PushDispatcher pushDispatcher;
+
+    @MockBean
+    private AlarmStreamHub alarmStreamHub;
+
+    @MockBean
+    private AlarmCacheStore alarmCacheStore;
+
+    @Test
+    void 같은_좋아요_알람을_두_번_만들어도_한_행이다() {
+        notificationService.createNotification(notification("old-name"));
+        notificationService.createNotification(notification("new-name"));
+
+        assertThat(alarmRepository.count()).isEqualTo(1L);
+        Alarm alarm = alarmRepository.findBySenderUidAndReceiverUidAndPictureId("you", "me", 10L).orElseThrow();
+        assertThat(alarm.getSenderName()).isEqualTo("new-name");
+        assertThat(alarm.getIsAlive()).isTrue();
+    }
+
+    @Test
+    void 같은_요청이_두_번_와도_알람은_한_번만_보내고_한_번만_센다() {
+        notificationService.createNotification(notification("you"));
+        notificationService.createNotification(notification("you"));
+
+        assertThat(alarmRepository.count()).isEqualTo(1L);
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(1L);
+        verify(pushDispatcher, times(1)).dispatch(any(Alarm.class));
+        verify(alarmStreamHub, times(1)).publish(any(Alarm.class));
+    }
+
+    @Test
+    void 읽은_뒤에_다시_오면_새_알람으로_보낸다() {
+        notificationService.createNotification(notification("you"));
+        alarmService.checked("me");
+
+        notificationService.createNotification(notification("you"));
+
+        assertThat(alarmRepository.count()).isEqualTo(1L);
+        assertThat(alarmService.getUnreadCount("me")).isEqualTo(1L);
+        verify(pushDispatcher, times(2)).dispatch(any(Alarm.class));
+    }
+
+    @Test
+    void 취소하고_다시_누르면_같은_행을_되살린다() {
+        notificationService.createNotification(notification("you"));
+        IsAliveDto like = IsAliveDto.builder().senderUid("you").receiverUid("me").pictureId(10L).build();
+
+        alarmService.isAlive(like);
+        assertThat(alarmRepository.findBySenderUidAndReceiverUidAndPictureId("you", "me", 10L).orElseThrow().getIsAlive()).isFalse();
+        assertThat(alarmService.getUnreadCount("me")).isZero();
+
+        alarmService.checked("me");
+        alarmService.marked(like);
+        Alarm alarm = alarmRepository.findBySenderUidAndReceiverUidAndPictureId("you", "me", 10L).orElseThrow();
+        assertThat(alarm.getIsAlive()).isTrue();
+        assertThat(alarm.getIsRead()).isFalse();
+        assertThat(alarmRepository.count()).isEqualTo(1L);
+    }
+
+    @Test
+    void 같은_키로_따로_저장하면_unique_index_가_막는다() {
+        notificationService.createNotification(notification("you"));
+
+        assertThatThrownBy(() -> alarmRepository.saveAndFlush(Alarm.createAlarm(notification("you"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static NotificationDto notification(String senderName) {
+        return NotificationDto.builder()
+                .senderUid("you")
+                .receiverUid("me")
+                .pictureId(10L)
+                .senderName(senderName)
+                .build();
+    }
+}
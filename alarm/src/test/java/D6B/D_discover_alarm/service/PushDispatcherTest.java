@@ -0,0 +1,169 @@
+package D6B.D_discover_alarm.service;
+
+import D6B.D_discover_alarm.domain.Alarm;
+import D6B.D_discover_alarm.domain.AlarmRepository;
+import D6B.D_discover_alarm.service.exceptions.FcmSendException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PushDispatcherTest {
+    private final FirebaseCloudMessageService firebaseCloudMessageService = mock(FirebaseCloudMessageService.class);
+    private final AlarmRepository alarmRepository = mock(AlarmRepository.class);
+    private PushDispatcher pushDispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pushDispatcher.close();
+    }
+
+    @Test
+    void 보내면_is_sended_를_표시한다() throws Exception {
+        pushDispatcher = dispatcher(2, 10);
+        when(firebaseCloudMessageService.getFCMTokenByUserId("receiver")).thenReturn("token");
+
+        pushDispatcher.dispatch(alarm(1L));
+
+        verify(alarmRepository, timeout(2000)).markSended(List.of(1L));
+        verify(firebaseCloudMessageService).sendMessageTo(eq("token"), eq("Creaite"), eq("sender님이 좋아요를 누르셨습니다."), eq("img"));
+        assertThat(pushDispatcher.getMetrics()).containsEntry("sent", 1L);
+    }
+
+    @Test
+    void 일시적인_실패는_backoff_후_다시_보낸다() throws Exception {
+        pushDispatcher = dispatcher(2, 10);
+        when(firebaseCloudMessageService.getFCMTokenByUserId("receiver")).thenReturn("token");
+        doThrow(new FcmSendException(503, "unavailable"))
+                .doThrow(new FcmSendException(429, "quota"))
+                .doNothing()
+                .when(firebaseCloudMessageService).sendMessageTo(anyString(), anyString(), anyString(), any());
+
+        pushDispatcher.dispatch(alarm(2L));
+
+        verify(alarmRepository, timeout(2000)).markSended(List.of(2L));
+        assertThat(pushDispatcher.getMetrics()).containsEntry("retried", 2L).containsEntry("deadLettered", 0L);
+    }
+
+    @Test
+    void 다시_보내도_안_되는_실패는_dead_letter_로_보내고_다시_넣을_수_있다() throws Exception {
+        pushDispatcher = dispatcher(2, 10);
+        when(firebaseCloudMessageService.getFCMTokenByUserId("receiver")).thenReturn("token");
+        // 새로 받은 토큰도 만료면 dead letter
+        doThrow(new FcmSendException(404, "UNREGISTERED"))
+                .doThrow(new FcmSendException(404, "UNREGISTERED"))
+                .doNothing()
+                .when(firebaseCloudMessageService).sendMessageTo(anyString(), anyString(), anyString(), any());
+
+        pushDispatcher.dispatch(alarm(3L));
+
+        verify(firebaseCloudMessageService, timeout(2000).times(2)).sendMessageTo(anyString(), anyString(), anyString(), any());
+        waitUntil(() -> pushDispatcher.getDeadLetters().size() == 1);
+        assertThat(pushDispatcher.getDeadLetters().get(0).getAlarmIds()).containsExactly(3L);
+        assertThat(pushDispatcher.getMetrics()).containsEntry("retried", 0L).containsEntry("refreshedTokens", 1L);
+        verify(alarmRepository, never()).markSended(any());
+        // 만료된 토큰은 캐시에서 지운다.
+        verify(firebaseCloudMessageService, times(2)).evictFCMToken("receiver");
+
+        assertThat(pushDispatcher.redriveDeadLetters()).isEqualTo(1);
+        verify(alarmRepository, timeout(2000)).markSended(List.of(3L));
+        assertThat(pushDispatcher.getDeadLetters()).isEmpty();
+    }
+
+    @Test
+    void 다른_서버에서_바뀐_토큰은_404_를_받으면_새로_받아서_한_번_더_보낸다() throws Exception {
+        pushDispatcher = dispatcher(2, 10);
+        when(firebaseCloudMessageService.getFCMTokenByUserId("receiver")).thenReturn("old-token", "new-token");
+        doThrow(new FcmSendException(404, "UNREGISTERED"))
+                .when(firebaseCloudMessageService).sendMessageTo(eq("old-token"), anyString(), anyString(), any());
+
+        pushDispatcher.dispatch(alarm(4L));
+
+        verify(alarmRepository, timeout(2000)).markSended(List.of(4L));
+        verify(firebaseCloudMessageService).evictFCMToken("receiver");
+        verify(firebaseCloudMessageService).sendMessageTo(eq("new-token"), anyString(), anyString(), any());
+        assertThat(pushDispatcher.getDeadLetters()).isEmpty();
+        assertThat(pushDispatcher.getMetrics()).containsEntry("refreshedTokens", 1L);
+    }
+
+    @Test
+    void 큐가_가득_차면_기다리지_않고_dead_letter_로_보낸다() throws Exception {
+        pushDispatcher = dispatcher(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(firebaseCloudMessageService.getFCMTokenByUserId("receiver")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "token";
+        });
+
+        pushDispatcher.dispatch(alarm(1L));
+        started.await(5, TimeUnit.SECONDS);
+        pushDispatcher.dispatch(alarm(2L));     // 큐에서 대기
+        pushDispatcher.dispatch(alarm(3L));     // 큐가 가득 참
+        release.countDown();
+
+        assertThat(pushDispatcher.getMetrics()).containsEntry("rejected", 1L);
+        assertThat(pushDispatcher.getDeadLetters()).flatExtracting(PushDispatcher.DeadLetter::getAlarmIds).containsExactly(3L);
+        verify(alarmRepository, timeout(2000)).markSended(List.of(2L));
+    }
+
+    @Test
+    void window_동안_모인_알람은_받는_사람별_push_하나로_합친다() throws Exception {
+        pushDispatcher = new PushDispatcher(firebaseCloudMessageService, alarmRepository, 2, 10, 5, 10, 100, 200);
+        when(firebaseCloudMessageService.getFCMTokenByUserId(anyString())).thenReturn("token");
+
+        pushDispatcher.dispatch(alarm(1L, "receiver", "a"));
+        pushDispatcher.dispatch(alarm(2L, "receiver", "b"));
+        pushDispatcher.dispatch(alarm(3L, "receiver", "a"));
+        pushDispatcher.dispatch(alarm(4L, "other", "c"));
+
+        verify(alarmRepository, timeout(2000)).markSended(List.of(1L, 2L, 3L));
+        verify(alarmRepository, timeout(2000)).markSended(List.of(4L));
+        // 같은 사람이 여러 번 누른 것은 한 명으로
+        verify(firebaseCloudMessageService).sendMessageTo("token", "Creaite", "a님 외 1명이 좋아요를 누르셨습니다.", "img-a");
+        verify(firebaseCloudMessageService).sendMessageTo("token", "Creaite", "c님이 좋아요를 누르셨습니다.", "img-c");
+        verify(firebaseCloudMessageService, times(1)).getFCMTokenByUserId("receiver");
+        assertThat(pushDispatcher.getMetrics()).containsEntry("enqueued", 4L).containsEntry("coalesced", 2L).containsEntry("sent", 2L);
+    }
+
+    // coalesce window 0 : 바로 보낸다.
+    private PushDispatcher dispatcher(int workers, int queueCapacity) {
+        return new PushDispatcher(firebaseCloudMessageService, alarmRepository, workers, queueCapacity, 5, 10, 100, 0);
+    }
+
+    private Alarm alarm(Long id) {
+        return Alarm.builder()
+                .id(id)
+                .receiverUid("receiver")
+                .senderUid("sender")
+                .senderName("sender")
+                .senderImgSrc("img")
+                .build();
+    }
+
+    private Alarm alarm(Long id, String receiverUid, String senderUid) {
+        return Alarm.builder()
+                .id(id)
+                .receiverUid(receiverUid)
+                .senderUid(senderUid)
+                .senderName(senderUid)
+                .senderImgSrc("img-" + senderUid)
+                .build();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.service.FcmTokenCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 알람 서버는 여러 대로 뜨므로 설정이 없으면 Redis 저장소를 쓴다.
+ */
+class AlarmCacheStoreSelectionTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(StringRedisTemplate.class, () -> mock(StringRedisTemplate.class))
+            .withBean(ObjectMapper.class)
+            .withBean(FcmTokenCache.class, () -> new FcmTokenCache(100, 60))
+            .withUserConfiguration(LocalAlarmCacheStore.class, RedisAlarmCacheStore.class);
+
+    @Test
+    void 설정이_없으면_Redis_저장소를_쓴다() {
+        contextRunner.run(context -> assertThat(context).getBean(AlarmCacheStore.class).isInstanceOf(RedisAlarmCacheStore.class));
+    }
+
+    @Test
+    void local_은_명시했을_때만_쓴다() {
+        contextRunner.withPropertyValues("alarm.cache.store=local")
+                .run(context -> assertThat(context).getBean(AlarmCacheStore.class).isInstanceOf(LocalAlarmCacheStore.class));
+    }
+}
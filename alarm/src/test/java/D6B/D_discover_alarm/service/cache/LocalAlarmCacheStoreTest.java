@@ -0,0 +1,46 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import D6B.D_discover_alarm.service.FcmTokenCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LocalAlarmCacheStoreTest {
+    private final LocalAlarmCacheStore store = new LocalAlarmCacheStore(mock(FcmTokenCache.class), 100, 60, () -> 0L);
+    private final AlarmPageResponseDto page = AlarmPageResponseDto.builder().alarms(List.of()).build();
+
+    @Test
+    void 버전이_그대로면_첫_페이지를_저장한다() {
+        long version = store.getPageVersion("me");
+
+        store.putFirstPage("me", 30, page, version);
+
+        assertThat(store.getFirstPage("me", 30)).contains(page);
+    }
+
+    @Test
+    void 읽는_사이에_페이지가_지워졌으면_옛_페이지를_저장하지_않는다() {
+        long version = store.getPageVersion("me");
+        // DB 를 읽는 사이 새 알람이 commit 되고 페이지가 지워짐
+        store.evictPages("me");
+
+        store.putFirstPage("me", 30, page, version);
+
+        assertThat(store.getFirstPage("me", 30)).isEmpty();
+    }
+
+    @Test
+    void 항목이_통째로_지워졌다_다시_생겨도_옛_버전으로는_저장하지_않는다() {
+        long version = store.getPageVersion("me");
+        store.evict(List.of("me"));
+        store.getPageVersion("me");
+
+        store.putFirstPage("me", 30, page, version);
+
+        assertThat(store.getFirstPage("me", 30)).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package D6B.D_discover_alarm.service.cache;
+
+import D6B.D_discover_alarm.controller.dto.AlarmPageResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis 에 붙을 수 없어도 캐시 없이 동작한다. (fail-open)
+ */
+class RedisAlarmCacheStoreTest {
+    private LettuceConnectionFactory connectionFactory;
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void Redis_가_없으면_조회는_없는_것으로_쓰기는_건너뛴다() throws IOException {
+        RedisAlarmCacheStore store = new RedisAlarmCacheStore(unreachableRedis(), new ObjectMapper(), 60, 60);
+
+        store.putUnreadCount("me", 3);
+        store.incrementUnreadCount("me");
+        store.putFirstPage("me", 30, AlarmPageResponseDto.builder().alarms(List.of()).build(), store.getPageVersion("me"));
+        store.evict(List.of("me"));
+
+        assertThat(store.getUnreadCount("me")).isEmpty();
+        assertThat(store.getFirstPage("me", 30)).isEmpty();
+        assertThat(store.getFcmToken("me", uid -> "token-" + uid)).isEqualTo("token-me");
+        assertThat(store.getMetrics()).containsEntry("hits", 0L).containsEntry("misses", 3L);
+        assertThat(store.getMetrics().get("errors")).isGreaterThanOrEqualTo(7L);
+    }
+
+    // 비어 있는 port 로 연결 (바로 connection refused)
+    private StringRedisTemplate unreachableRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connectionFactory.afterPropertiesSet();
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
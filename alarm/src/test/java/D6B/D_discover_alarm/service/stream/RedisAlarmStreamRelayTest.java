@@ -0,0 +1,89 @@
+package D6B.D_discover_alarm.service.stream;
+
+import D6B.D_discover_alarm.controller.dto.AlarmDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisAlarmStreamRelayTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<AlarmDto> received = new ArrayList<>();
+    private LettuceConnectionFactory connectionFactory;
+    private RedisAlarmStreamRelay relay;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        relay.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void Redis_로_보내지_못하면_이_서버의_연결에만_보낸다() throws IOException {
+        relay = new RedisAlarmStreamRelay(unreachableRedis(), objectMapper, 60000);
+        relay.subscribe(received::add);
+
+        relay.send(alarm(1L));
+
+        assertThat(received).extracting(AlarmDto::getId).containsExactly(1L);
+        assertThat(relay.getMetrics()).containsEntry("relaySent", 0L).containsEntry("relayFallbacks", 1L);
+    }
+
+    @Test
+    void Redis_가_없어도_뜨고_구독은_나중에_다시_시도한다() throws IOException {
+        relay = new RedisAlarmStreamRelay(unreachableRedis(), objectMapper, 60000);
+
+        relay.listen();
+
+        assertThat(relay.getMetrics()).containsEntry("relaySubscribed", 0L);
+    }
+
+    @Test
+    void 받은_메시지는_알람으로_읽어_넘기고_읽지_못하면_버린다() throws IOException {
+        relay = new RedisAlarmStreamRelay(unreachableRedis(), objectMapper, 60000);
+        relay.subscribe(received::add);
+
+        relay.receive(objectMapper.writeValueAsString(alarm(2L)));
+        relay.receive("not json");
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getReceiverUid()).isEqualTo("me");
+        assertThat(received.get(0).getCreatedAt()).isEqualTo(Instant.parse("2026-01-01T00:00:02Z"));
+        assertThat(relay.getMetrics()).containsEntry("relayReceived", 1L).containsEntry("relayErrors", 1L);
+    }
+
+    private static AlarmDto alarm(Long id) {
+        return AlarmDto.builder()
+                .id(id)
+                .receiverUid("me")
+                .senderUid("sender")
+                .pictureId(10L)
+                .createdAt(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(id))
+                .isRead(false)
+                .build();
+    }
+
+    // 비어 있는 port 로 연결 (바로 connection refused)
+    private StringRedisTemplate unreachableRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connectionFactory.afterPropertiesSet();
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ssafy.creaite.auth;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 밖에서 들어온 X-Authenticated-Uid 헤더를 항상 지운다.
+ * 토큰 검증(FirebaseAuthFilter)이 꺼져 있어도 서비스가 위조된 uid 를 받지 않도록 검증보다 먼저 돈다.
+ */
+@Component
+public class AuthenticatedUidHeaderFilter implements GlobalFilter, Ordered {
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (!exchange.getRequest().getHeaders().containsKey(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER)) {
+			return chain.filter(exchange);
+		}
+		ServerHttpRequest request = exchange.getRequest().mutate()
+				.headers(headers -> headers.remove(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER))
+				.build();
+		return chain.filter(exchange.mutate().request(request).build());
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
@@ -0,0 +1,22 @@
+package com.ssafy.creaite.auth;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FileSigningKeySource implements SigningKeySource {
+
+	private final Path jwksFile;
+
+	public FileSigningKeySource(Path jwksFile) {
+		this.jwksFile = jwksFile;
+	}
+
+	@Override
+	public Mono<String> fetchJwks() {
+		return Mono.fromCallable(() -> Files.readString(jwksFile))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+}
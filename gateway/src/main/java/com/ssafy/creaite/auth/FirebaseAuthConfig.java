@@ -0,0 +1,48 @@
+package com.ssafy.creaite.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * gateway.auth.project-id 가 설정되어 있을 때만 게이트웨이 토큰 검증을 켠다.
+ * gateway.auth.jwks-file 을 주면 URL 대신 로컬 파일에서 키를 읽는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "gateway.auth", name = "project-id")
+public class FirebaseAuthConfig {
+
+	@Bean
+	public SigningKeySource signingKeySource(
+			@Value("${gateway.auth.jwks-url:https://www.googleapis.com/service_accounts/v1/jwk/securetoken@system.gserviceaccount.com}") String jwksUrl,
+			@Value("${gateway.auth.jwks-file:}") String jwksFile) {
+		if (StringUtils.hasText(jwksFile)) {
+			return new FileSigningKeySource(Paths.get(jwksFile));
+		}
+		return new HttpSigningKeySource(WebClient.create(), jwksUrl);
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	public SigningKeyStore signingKeyStore(SigningKeySource signingKeySource,
+			@Value("${gateway.auth.jwks-refresh-minutes:60}") long refreshMinutes) {
+		return new SigningKeyStore(signingKeySource, Duration.ofMinutes(refreshMinutes));
+	}
+
+	@Bean
+	public FirebaseTokenVerifier firebaseTokenVerifier(SigningKeyStore signingKeyStore,
+			@Value("${gateway.auth.project-id}") String projectId) {
+		return new FirebaseTokenVerifier(signingKeyStore, projectId, Clock.systemUTC());
+	}
+
+	@Bean
+	public FirebaseAuthFilter firebaseAuthFilter(FirebaseTokenVerifier firebaseTokenVerifier) {
+		return new FirebaseAuthFilter(firebaseTokenVerifier);
+	}
+}
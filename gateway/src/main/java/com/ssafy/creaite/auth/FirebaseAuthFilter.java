@@ -0,0 +1,66 @@
+package com.ssafy.creaite.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Authorization 헤더의 Firebase ID 토큰을 게이트웨이에서 한 번만 검증하고,
+ * 검증된 uid 를 X-Authenticated-Uid 헤더로 각 서비스에 넘긴다.
+ * 밖에서 들어온 X-Authenticated-Uid 는 항상 지운다.
+ */
+public class FirebaseAuthFilter implements GlobalFilter, Ordered {
+
+	public static final String AUTHENTICATED_UID_HEADER = "X-Authenticated-Uid";
+
+	private static final Logger log = LoggerFactory.getLogger(FirebaseAuthFilter.class);
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	private final FirebaseTokenVerifier verifier;
+
+	public FirebaseAuthFilter(FirebaseTokenVerifier verifier) {
+		this.verifier = verifier;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		String idToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if (idToken == null || idToken.isBlank()) {
+			return chain.filter(withUid(exchange, null));
+		}
+		if (idToken.startsWith(BEARER_PREFIX)) {
+			idToken = idToken.substring(BEARER_PREFIX.length());
+		}
+		return verifier.verify(idToken.trim())
+				.flatMap(uid -> chain.filter(withUid(exchange, uid)))
+				.onErrorResume(InvalidTokenException.class, e -> {
+					log.info("토큰 검증 실패 {} : {}", exchange.getRequest().getPath(), e.getMessage());
+					exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+					return exchange.getResponse().setComplete();
+				});
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 100;
+	}
+
+	private ServerWebExchange withUid(ServerWebExchange exchange, String uid) {
+		ServerHttpRequest request = exchange.getRequest().mutate()
+				.headers(headers -> {
+					headers.remove(AUTHENTICATED_UID_HEADER);
+					if (uid != null) {
+						headers.set(AUTHENTICATED_UID_HEADER, uid);
+					}
+				})
+				.build();
+		return exchange.mutate().request(request).build();
+	}
+}
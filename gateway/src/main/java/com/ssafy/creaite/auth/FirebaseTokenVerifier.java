@@ -0,0 +1,96 @@
+package com.ssafy.creaite.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Firebase ID 토큰(RS256 JWT)을 로컬에서 검증하고 uid(sub)를 돌려준다.
+ * 검사 항목은 Firebase Admin SDK 의 verifyIdToken 과 같다 : 서명, alg, iss, aud, exp, iat, sub.
+ */
+public class FirebaseTokenVerifier {
+
+	// Admin SDK 와 같은 5분 허용 오차
+	private static final long CLOCK_SKEW_SECONDS = 300;
+
+	private final SigningKeyStore signingKeyStore;
+	private final String projectId;
+	private final String issuer;
+	private final Clock clock;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	public FirebaseTokenVerifier(SigningKeyStore signingKeyStore, String projectId, Clock clock) {
+		this.signingKeyStore = signingKeyStore;
+		this.projectId = projectId;
+		this.issuer = "https://securetoken.google.com/" + projectId;
+		this.clock = clock;
+	}
+
+	public Mono<String> verify(String idToken) {
+		String[] parts = idToken.split("\\.");
+		if (parts.length != 3) {
+			return Mono.error(new InvalidTokenException("JWT 형식이 아닙니다."));
+		}
+		JsonNode header;
+		JsonNode payload;
+		try {
+			header = decode(parts[0]);
+			payload = decode(parts[1]);
+		} catch (Exception e) {
+			return Mono.error(new InvalidTokenException("JWT 디코드 실패"));
+		}
+		if (!"RS256".equals(header.path("alg").asText())) {
+			return Mono.error(new InvalidTokenException("RS256 토큰이 아닙니다."));
+		}
+		try {
+			checkClaims(payload);
+		} catch (InvalidTokenException e) {
+			return Mono.error(e);
+		}
+		return signingKeyStore.getKey(header.path("kid").asText())
+				.flatMap(key -> verifySignature(key, parts)
+						? Mono.just(payload.path("sub").asText())
+						: Mono.error(new InvalidTokenException("서명이 올바르지 않습니다.")));
+	}
+
+	private void checkClaims(JsonNode payload) {
+		long now = clock.millis() / 1000;
+		if (!projectId.equals(payload.path("aud").asText())) {
+			throw new InvalidTokenException("aud 가 올바르지 않습니다.");
+		}
+		if (!issuer.equals(payload.path("iss").asText())) {
+			throw new InvalidTokenException("iss 가 올바르지 않습니다.");
+		}
+		if (!payload.path("exp").canConvertToLong() || payload.path("exp").asLong() + CLOCK_SKEW_SECONDS <= now) {
+			throw new InvalidTokenException("만료된 토큰입니다.");
+		}
+		if (!payload.path("iat").canConvertToLong() || payload.path("iat").asLong() - CLOCK_SKEW_SECONDS > now) {
+			throw new InvalidTokenException("iat 가 올바르지 않습니다.");
+		}
+		String sub = payload.path("sub").asText();
+		if (sub.isEmpty() || sub.length() > 128) {
+			throw new InvalidTokenException("sub 가 올바르지 않습니다.");
+		}
+	}
+
+	private boolean verifySignature(PublicKey key, String[] parts) {
+		try {
+			Signature signature = Signature.getInstance("SHA256withRSA");
+			signature.initVerify(key);
+			signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+			return signature.verify(Base64.getUrlDecoder().decode(parts[2]));
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private JsonNode decode(String part) throws Exception {
+		return objectMapper.readTree(Base64.getUrlDecoder().decode(part));
+	}
+}
@@ -0,0 +1,26 @@
+package com.ssafy.creaite.auth;
+
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class HttpSigningKeySource implements SigningKeySource {
+
+	private final WebClient webClient;
+	private final String jwksUrl;
+
+	public HttpSigningKeySource(WebClient webClient, String jwksUrl) {
+		this.webClient = webClient;
+		this.jwksUrl = jwksUrl;
+	}
+
+	@Override
+	public Mono<String> fetchJwks() {
+		return webClient.get()
+				.uri(jwksUrl)
+				.retrieve()
+				.bodyToMono(String.class)
+				.timeout(Duration.ofSeconds(5));
+	}
+}
@@ -0,0 +1,8 @@
+package com.ssafy.creaite.auth;
+
+public class InvalidTokenException extends RuntimeException {
+
+	public InvalidTokenException(String message) {
+		super(message);
+	}
+}
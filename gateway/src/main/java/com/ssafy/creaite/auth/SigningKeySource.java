@@ -0,0 +1,12 @@
+package com.ssafy.creaite.auth;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Firebase ID 토큰 서명 키(JWKS JSON)를 가져오는 곳.
+ * 운영에서는 구글 공개 키 URL, 테스트에서는 로컬 파일을 쓴다.
+ */
+public interface SigningKeySource {
+
+	Mono<String> fetchJwks();
+}
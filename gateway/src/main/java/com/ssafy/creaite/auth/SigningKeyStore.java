@@ -0,0 +1,107 @@
+package com.ssafy.creaite.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * kid -> RSA 공개 키 캐시. 주기적으로 다시 받아오고, 모르는 kid 가 오면 (너무 잦지 않게) 바로 다시 받아온다.
+ * 새로 받아오기에 실패하면 가지고 있던 키를 계속 쓴다.
+ */
+public class SigningKeyStore {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningKeyStore.class);
+	private static final Duration MIN_REFRESH_GAP = Duration.ofSeconds(30);
+
+	private final SigningKeySource source;
+	private final Duration refreshInterval;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicReference<Map<String, PublicKey>> keys = new AtomicReference<>(Collections.emptyMap());
+	private final AtomicLong lastRefreshAt = new AtomicLong();
+	private Disposable periodicRefresh;
+
+	public SigningKeyStore(SigningKeySource source, Duration refreshInterval) {
+		this.source = source;
+		this.refreshInterval = refreshInterval;
+	}
+
+	public void start() {
+		periodicRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+				.concatMap(tick -> refresh().onErrorResume(e -> Mono.empty()))
+				.subscribe();
+	}
+
+	public void stop() {
+		if (periodicRefresh != null) {
+			periodicRefresh.dispose();
+		}
+	}
+
+	public Mono<PublicKey> getKey(String kid) {
+		PublicKey key = keys.get().get(kid);
+		if (key != null) {
+			return Mono.just(key);
+		}
+		long now = System.currentTimeMillis();
+		long last = lastRefreshAt.get();
+		if (now - last < MIN_REFRESH_GAP.toMillis() || !lastRefreshAt.compareAndSet(last, now)) {
+			return Mono.error(new InvalidTokenException("알 수 없는 서명 키"));
+		}
+		return refresh()
+				.onErrorResume(e -> Mono.empty())
+				.then(Mono.defer(() -> Mono.justOrEmpty(keys.get().get(kid))))
+				.switchIfEmpty(Mono.error(new InvalidTokenException("알 수 없는 서명 키")));
+	}
+
+	public Mono<Void> refresh() {
+		return source.fetchJwks()
+				.map(this::parse)
+				.doOnNext(parsed -> {
+					keys.set(parsed);
+					lastRefreshAt.set(System.currentTimeMillis());
+					log.info("서명 키 {}개 갱신", parsed.size());
+				})
+				.doOnError(e -> log.error("서명 키 갱신 실패 : {}", e.getMessage()))
+				.then();
+	}
+
+	// JWKS({"keys":[{"kid","kty":"RSA","n","e"}...]}) -> kid : 공개 키
+	Map<String, PublicKey> parse(String jwks) {
+		try {
+			Map<String, PublicKey> parsed = new HashMap<>();
+			KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+			for (JsonNode jwk : objectMapper.readTree(jwks).path("keys")) {
+				if (!"RSA".equals(jwk.path("kty").asText())) {
+					continue;
+				}
+				BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+				BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+				parsed.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+			}
+			if (parsed.isEmpty()) {
+				throw new IllegalStateException("JWKS 에 RSA 키가 없습니다.");
+			}
+			return Collections.unmodifiableMap(parsed);
+		} catch (IllegalStateException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException("JWKS 파싱 실패", e);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.ssafy.creaite.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticatedUidHeaderFilterTest {
+
+	private final AuthenticatedUidHeaderFilter filter = new AuthenticatedUidHeaderFilter();
+
+	@Test
+	void 토큰_검증이_꺼져_있어도_밖에서_온_uid_헤더는_지운다() {
+		AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/picture/detail/1/uid-1")
+				.header(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER, "spoofed-uid"));
+
+		filter.filter(exchange, forwardedExchange -> {
+			forwarded.set(forwardedExchange);
+			return Mono.empty();
+		}).block();
+
+		assertThat(forwarded.get().getRequest().getHeaders().containsKey(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER)).isFalse();
+	}
+
+	@Test
+	void 토큰_검증이_붙이는_uid_헤더보다_먼저_돈다() {
+		assertThat(filter.getOrder()).isLessThan(new FirebaseAuthFilter(null).getOrder());
+	}
+}
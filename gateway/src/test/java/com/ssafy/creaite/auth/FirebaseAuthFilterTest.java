@@ -0,0 +1,180 @@
+package com.ssafy.creaite.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FirebaseAuthFilterTest {
+
+	private static final String PROJECT_ID = "creaite-test";
+	private static final Instant NOW = Instant.parse("2023-05-01T00:00:00Z");
+
+	@TempDir
+	Path tempDir;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+	private KeyPair keyPair;
+	private Path jwksFile;
+	private FirebaseAuthFilter filter;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		keyPair = newKeyPair();
+		jwksFile = tempDir.resolve("jwks.json");
+		writeJwks(Map.of("kid-1", keyPair));
+		SigningKeyStore signingKeyStore = new SigningKeyStore(new FileSigningKeySource(jwksFile), Duration.ofHours(1));
+		FirebaseTokenVerifier verifier = new FirebaseTokenVerifier(signingKeyStore, PROJECT_ID, Clock.fixed(NOW, ZoneOffset.UTC));
+		filter = new FirebaseAuthFilter(verifier);
+	}
+
+	@Test
+	void 올바른_토큰이면_uid_헤더를_붙이고_밖에서_온_uid_헤더는_지운다() throws Exception {
+		MockServerWebExchange exchange = exchange(sign("kid-1", keyPair, claims("uid-1")), "spoofed-uid");
+
+		filter.filter(exchange, this::capture).block();
+
+		assertThat(forwarded.get().getRequest().getHeaders().get(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER))
+				.containsExactly("uid-1");
+	}
+
+	@Test
+	void 토큰이_없으면_그대로_넘기지만_uid_헤더는_지운다() {
+		MockServerWebExchange exchange = exchange(null, "spoofed-uid");
+
+		filter.filter(exchange, this::capture).block();
+
+		assertThat(forwarded.get().getRequest().getHeaders().containsKey(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER)).isFalse();
+	}
+
+	@Test
+	void 다른_키로_서명한_토큰은_401() throws Exception {
+		assertUnauthorized(sign("kid-1", newKeyPair(), claims("uid-1")));
+	}
+
+	@Test
+	void 만료되었거나_다른_프로젝트_토큰은_401() throws Exception {
+		Map<String, Object> expired = claims("uid-1");
+		expired.put("exp", NOW.minusSeconds(3600).getEpochSecond());
+		assertUnauthorized(sign("kid-1", keyPair, expired));
+
+		Map<String, Object> otherProject = claims("uid-1");
+		otherProject.put("aud", "other-project");
+		assertUnauthorized(sign("kid-1", keyPair, otherProject));
+	}
+
+	@Test
+	void 모르는_kid_면_키를_다시_읽어온다() throws Exception {
+		KeyPair rotated = newKeyPair();
+		writeJwks(Map.of("kid-1", keyPair, "kid-2", rotated));
+
+		filter.filter(exchange(sign("kid-2", rotated, claims("uid-2")), null), this::capture).block();
+
+		assertThat(forwarded.get().getRequest().getHeaders().getFirst(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER))
+				.isEqualTo("uid-2");
+	}
+
+	private void assertUnauthorized(String token) {
+		forwarded.set(null);
+		MockServerWebExchange exchange = exchange(token, null);
+
+		filter.filter(exchange, this::capture).block();
+
+		assertThat(forwarded.get()).isNull();
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+	}
+
+	private Mono<Void> capture(ServerWebExchange exchange) {
+		forwarded.set(exchange);
+		return Mono.empty();
+	}
+
+	private MockServerWebExchange exchange(String token, String spoofedUid) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/picture/detail/1/uid-1");
+		if (token != null) {
+			request.header(HttpHeaders.AUTHORIZATION, token);
+		}
+		if (spoofedUid != null) {
+			request.header(FirebaseAuthFilter.AUTHENTICATED_UID_HEADER, spoofedUid);
+		}
+		return MockServerWebExchange.from(request);
+	}
+
+	private Map<String, Object> claims(String uid) {
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("iss", "https://securetoken.google.com/" + PROJECT_ID);
+		claims.put("aud", PROJECT_ID);
+		claims.put("sub", uid);
+		claims.put("iat", NOW.minusSeconds(60).getEpochSecond());
+		claims.put("exp", NOW.plusSeconds(3000).getEpochSecond());
+		return claims;
+	}
+
+	private String sign(String kid, KeyPair signer, Map<String, Object> claims) throws Exception {
+		String header = encode(objectMapper.writeValueAsBytes(Map.of("alg", "RS256", "kid", kid, "typ", "JWT")));
+		String payload = encode(objectMapper.writeValueAsBytes(claims));
+		Signature signature = Signature.getInstance("SHA256withRSA");
+		signature.initSign(signer.getPrivate());
+		signature.update((header + "." + payload).getBytes(StandardCharsets.US_ASCII));
+		return header + "." + payload + "." + encode(signature.sign());
+	}
+
+	private void writeJwks(Map<String, KeyPair> keyPairs) throws Exception {
+		List<Map<String, String>> keys = new ArrayList<>();
+		keyPairs.forEach((kid, pair) -> {
+			RSAPublicKey publicKey = (RSAPublicKey) pair.getPublic();
+			keys.add(Map.of("kid", kid, "kty", "RSA", "alg", "RS256",
+					"n", encode(unsigned(publicKey.getModulus())),
+					"e", encode(unsigned(publicKey.getPublicExponent()))));
+		});
+		Files.writeString(jwksFile, objectMapper.writeValueAsString(Map.of("keys", keys)));
+	}
+
+	private byte[] unsigned(BigInteger value) {
+		byte[] bytes = value.toByteArray();
+		if (bytes[0] == 0 && bytes.length > 1) {
+			byte[] trimmed = new byte[bytes.length - 1];
+			System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+			return trimmed;
+		}
+		return bytes;
+	}
+
+	private String encode(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private KeyPair newKeyPair() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+}
@@ -0,0 +1,38 @@
+package com.ssafy.creaite.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class InternalRouteTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void 알람_서버의_운영용_API_는_게이트웨이에서_막는다() {
+		webTestClient.get().uri("/alarm/metrics/push").exchange().expectStatus().isNotFound();
+		webTestClient.get().uri("/alarm/push/dead_letters").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/alarm/push/dead_letters/redrive").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/alarm/fcm_token/evict/uid-1").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void 그림_유저_서버의_서비스_사이_API_는_게이트웨이에서_막는다() {
+		webTestClient.get().uri("/picture/metrics/love_count").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/picture/maker_name/evict/uid-1").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/picture/delete/user/uid-1/pictures").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/picture/delete/count").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/user/like/delete").exchange().expectStatus().isNotFound();
+		webTestClient.post().uri("/user/find_maker_name_map").exchange().expectStatus().isNotFound();
+		webTestClient.get().uri("/user/deletion_job/running/uid-1").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void 나머지_알람_API_는_알람_서버로_넘긴다() {
+		// 테스트에는 알람 서버가 없으므로 연결 실패(5xx)가 나면 알람 서버로 넘긴 것
+		webTestClient.get().uri("/alarm/unread_count/uid-1").exchange().expectStatus().is5xxServerError();
+	}
+}
@@ -0,0 +1,34 @@
+package D6B.D_discover_picture.common;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 서비스 사이에서만 쓰는 API (metrics, 제작자 이름 캐시 evict, 유저 탈퇴 job 이 부르는 삭제/좋아요 수 내리기)
+ * 게이트웨이 route 에서 막고, 혹시 게이트웨이를 거쳐 들어오면(X-Forwarded-For / Forwarded 헤더가 붙음) 여기서도 403 으로 거절한다.
+ */
+@Configuration
+public class InternalApiConfig implements WebMvcConfigurer {
+    static final String[] INTERNAL_PATHS = {"/picture/metrics/**", "/picture/maker_name/**", "/picture/delete/user/**", "/picture/delete/count"};
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new InternalOnlyInterceptor()).addPathPatterns(INTERNAL_PATHS);
+    }
+
+    static class InternalOnlyInterceptor implements HandlerInterceptor {
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (request.getHeader("X-Forwarded-For") != null || request.getHeader("Forwarded") != null) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -7,7 +7,11 @@ import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -15,16 +19,36 @@ import java.util.Objects;
 
 @Service
 public class AuthorizeService {
+    // 게이트웨이가 검증한 uid 를 넣어주는 헤더
+    public static final String AUTHENTICATED_UID_HEADER = "X-Authenticated-Uid";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean trustGatewayHeader;
+    private volatile boolean firebaseInitialized = false;
+
+    @Autowired
+    public AuthorizeService(VerifiedTokenCache verifiedTokenCache,
+                            @Value("${auth.trust-gateway-header:false}") boolean trustGatewayHeader) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.trustGatewayHeader = trustGatewayHeader;
+    }
+
     public AuthResponse isAuthorized(String idToken, String uid) throws IOException, FirebaseAuthException {
-        if(FirebaseApp.getApps().isEmpty()) {
-            FileInputStream serviceAccount = new FileInputStream("creaite-app-firebase-adminsdk.json");
-            FirebaseOptions options = new FirebaseOptions.Builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+        // 게이트웨이를 통해서만 들어오는 환경이면 게이트웨이가 검증한 uid 만 비교 (decodedToken 은 없음)
+        String gatewayUid = trustGatewayHeader ? getGatewayUid() : null;
+        if (gatewayUid != null) {
+            return AuthResponse.builder()
+                    .isUser(Objects.equals(gatewayUid, uid))
+                    .decodedToken(null)
                     .build();
-            FirebaseApp.initializeApp(options);
         }
 
-        FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+        FirebaseToken decodedToken = verifiedTokenCache.get(idToken);
+        if (decodedToken == null) {
+            initFirebase();
+            decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+            verifiedTokenCache.put(idToken, decodedToken);
+        }
         String decodedTokenUid = decodedToken.getUid();
         if (Objects.equals(decodedTokenUid, uid)) {
             return AuthResponse.builder()
@@ -38,4 +62,29 @@ public class AuthorizeService {
                     .build();
         }
     }
+
+    private String getGatewayUid() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest().getHeader(AUTHENTICATED_UID_HEADER);
+        }
+        return null;
+    }
+
+    // Firebase 초기화는 한 번만
+    private void initFirebase() throws IOException {
+        if (firebaseInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (FirebaseApp.getApps().isEmpty()) {
+                try (FileInputStream serviceAccount = new FileInputStream("creaite-app-firebase-adminsdk.json")) {
+                    FirebaseOptions options = new FirebaseOptions.Builder()
+                            .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                            .build();
+                    FirebaseApp.initializeApp(options);
+                }
+            }
+            firebaseInitialized = true;
+        }
+    }
 }
@@ -2,9 +2,14 @@ package D6B.D_discover_picture.picture.controller;
 
 import D6B.D_discover_picture.common.dto.AuthResponse;
 import D6B.D_discover_picture.common.service.AuthorizeService;
+import D6B.D_discover_picture.common.service.VerifiedTokenCache;
 import D6B.D_discover_picture.picture.controller.dto.*;
 import D6B.D_discover_picture.picture.domain.*;
+import D6B.D_discover_picture.picture.service.DeletionOutbox;
+import D6B.D_discover_picture.picture.service.LoveCountAccumulator;
+import D6B.D_discover_picture.picture.service.MakerNameCache;
 import D6B.D_discover_picture.picture.service.PictureService;
+import D6B.D_discover_picture.picture.service.TagSearchIndex;
 import D6B.D_discover_picture.picture.service.UserPictureService;
 import D6B.D_discover_picture.picture.service.exceptions.DeletePictureFailException;
 import D6B.D_discover_picture.picture.service.exceptions.PictureNotSavedException;
@@ -29,17 +34,27 @@ public class PictureController {
     private final PictureService pictureService;
     private final UserPictureService userPictureService;
     private final AuthorizeService authorizeService;
+    private final LoveCountAccumulator loveCountAccumulator;
+    private final MakerNameCache makerNameCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final DeletionOutbox deletionOutbox;
 
     @Autowired
     public PictureController(PictureRepository pictureRepository, PictureTagRepository pictureTagRepository,
                              TagRepository tagRepository, PictureService pictureService,
-                             UserPictureService userPictureService, AuthorizeService authorizeService) {
+                             UserPictureService userPictureService, AuthorizeService authorizeService,
+                             LoveCountAccumulator loveCountAccumulator, MakerNameCache makerNameCache,
+                             VerifiedTokenCache verifiedTokenCache, DeletionOutbox deletionOutbox) {
         this.pictureRepository = pictureRepository;
         this.pictureTagRepository = pictureTagRepository;
         this.tagRepository = tagRepository;
         this.pictureService = pictureService;
         this.userPictureService = userPictureService;
         this.authorizeService = authorizeService;
+        this.loveCountAccumulator = loveCountAccumulator;
+        this.makerNameCache = makerNameCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.deletionOutbox = deletionOutbox;
     }
 
     /*
@@ -147,13 +162,15 @@ public class PictureController {
     @GetMapping("/made/user/{uid}/{isMe}")
     public ResponseEntity<List<PictureDetailResponse>> getMadePicWithLogin(
             @PathVariable String uid,
-            @PathVariable String isMe) {
+            @PathVariable String isMe,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "30") int size) {
         try {
             List<PictureDetailResponse> list;
             if (isMe.equals("1")) {
-                list = userPictureService.getPicMadeByMe(uid);
+                list = userPictureService.getPicMadeByMe(uid, cursor, size);
             } else {
-                list = userPictureService.getPicMadeByOther(uid);
+                list = userPictureService.getPicMadeByOther(uid, cursor, size);
             }
             return ResponseEntity.ok(list);
         } catch (Exception e) {
@@ -165,9 +182,11 @@ public class PictureController {
     // 다른 유저가 만든 이미지들 조회 (로그인 안했을때)
     @GetMapping("/made/no_user/{uid}")
     public ResponseEntity<List<PictureDetailResponse>> getMadePicWithoutLogin(
-            @PathVariable String uid) {
+            @PathVariable String uid,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "30") int size) {
         try {
-            List<PictureDetailResponse> list = userPictureService.getPicMadeByOther(uid);
+            List<PictureDetailResponse> list = userPictureService.getPicMadeByOther(uid, cursor, size);
             return ResponseEntity.ok(list);
         } catch (Exception e) {
             log.error(e.getMessage());
@@ -201,16 +220,65 @@ public class PictureController {
         }
     }
 
-    // 유저 탈퇴 시
-    @PostMapping("/delete/user")
-    public ResponseEntity<Object> deleteUser(
-            @RequestBody DeleteUserRequest deleteUserRequest) {
+    // 좋아요 수 write-behind 상태 (쌓여있는 이미지 수, flush 횟수 등)
+    @GetMapping("/metrics/love_count")
+    public ResponseEntity<Map<String, Long>> getLoveCountMetrics() {
+        return ResponseEntity.ok(loveCountAccumulator.getMetrics());
+    }
+
+    // 유저가 닉네임을 바꾸면 유저 서버가 호출 - 캐시된 제작자 닉네임 제거
+    @PostMapping("/maker_name/evict/{uid}")
+    public ResponseEntity<Object> evictMakerName(@PathVariable String uid) {
+        makerNameCache.evict(uid);
+        return ResponseEntity.ok().build();
+    }
+
+    // 제작자 닉네임 캐시 상태
+    @GetMapping("/metrics/maker_name")
+    public ResponseEntity<Map<String, Long>> getMakerNameMetrics() {
+        return ResponseEntity.ok(makerNameCache.getMetrics());
+    }
+
+    // 이미지 삭제 outbox 상태 (대상별 밀린 행 수, 가장 오래 기다린 시간 등)
+    @GetMapping("/metrics/deletion_outbox")
+    public ResponseEntity<Map<String, Long>> getDeletionOutboxMetrics() {
+        return ResponseEntity.ok(deletionOutbox.getMetrics());
+    }
+
+    // 검증된 ID 토큰 캐시 상태
+    @GetMapping("/metrics/auth_token")
+    public ResponseEntity<Map<String, Long>> getAuthTokenMetrics() {
+        return ResponseEntity.ok(verifiedTokenCache.getMetrics());
+    }
+
+    // 유저 탈퇴 job - 유저가 만든 이미지 size 개씩 삭제, 삭제한 수 반환 (0 이면 끝)
+    // 유저 서버에 진행 중인 탈퇴 job 이 없는 유저면 지우지 않는다.
+    @PostMapping("/delete/user/{uid}/pictures")
+    public ResponseEntity<Integer> deleteUserPictures(
+            @PathVariable String uid,
+            @RequestParam(defaultValue = "500") int size) {
         try {
-            userPictureService.deleteUser(deleteUserRequest);
+            if (!userPictureService.isBeingDeleted(uid)) {
+                log.warn("진행 중인 탈퇴 job 이 없는 유저의 이미지 삭제 요청 : {}", uid);
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.ok(userPictureService.deleteUserPictures(uid, size));
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // 유저 탈퇴 job - 탈퇴한 유저가 좋아요 눌렀던 이미지들 좋아요 카운트 내리기
+    @PostMapping("/delete/count")
+    public ResponseEntity<Object> minusLoveCounts(
+            @RequestBody List<Long> pictureIds) {
+        try {
+            userPictureService.minusCounts(pictureIds);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             log.error(e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
@@ -247,6 +315,57 @@ public class PictureController {
         }
     }
 
+    // 여러 검색어로 태그 검색 (cursor 페이지)
+    // op : and(모든 검색어) / or(하나라도), match : exact / prefix / contains
+    // 로그인 한 사용자
+    @GetMapping("/search_page/user/{uid}")
+    public ResponseEntity<PictureSearchPageResponse> getSearchPageWithLogin(
+            @RequestHeader("Authorization") String idToken,
+            @PathVariable String uid,
+            @RequestParam List<String> keywords,
+            @RequestParam(defaultValue = "and") String op,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "30") int size) throws IOException, FirebaseAuthException {
+        AuthResponse authResponse = authorizeService.isAuthorized(idToken, uid);
+        if (authResponse.getIsUser()) {
+            try {
+                TagSearchIndex.MatchMode matchMode = TagSearchIndex.MatchMode.valueOf(match.toUpperCase());
+                PictureSearchPageResponse page = pictureService.getSearchPageWithLogin(uid, keywords, !"or".equalsIgnoreCase(op), matchMode, cursor, size);
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                log.error(e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            } catch (Exception e) {
+                log.error(e.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    // 로그인 안 한 사용자
+    @GetMapping("/search_page/no_user")
+    public ResponseEntity<PictureSearchPageResponse> getSearchPageWithoutLogin(
+            @RequestParam List<String> keywords,
+            @RequestParam(defaultValue = "and") String op,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "30") int size) {
+        try {
+            TagSearchIndex.MatchMode matchMode = TagSearchIndex.MatchMode.valueOf(match.toUpperCase());
+            PictureSearchPageResponse page = pictureService.getSearchPageWithoutLogin(keywords, !"or".equalsIgnoreCase(op), matchMode, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // weeklyTop 목록 보내주기(로그인한 유저)
     @GetMapping("/weekly_top_list/user/{uid}")
     public ResponseEntity<List<PictureAllDetailResponse>> getWeeklyTopListWithLogin(
@@ -308,6 +427,38 @@ public class PictureController {
         }
     }
 
+    // 이번 주 실시간 인기 이미지 (로그인 한 유저)
+    @GetMapping("/trending_list/user/{uid}")
+    public ResponseEntity<List<PictureAllDetailResponse>> getTrendingListWithLogin(
+            @RequestHeader("Authorization") String idToken,
+            @PathVariable String uid,
+            @RequestParam(defaultValue = "50") int size) throws IOException, FirebaseAuthException {
+        AuthResponse authResponse = authorizeService.isAuthorized(idToken, uid);
+        if (authResponse.getIsUser()) {
+            try {
+                List<PictureAllDetailResponse> list = pictureService.getTrendingListWithLogin(uid, size);
+                return ResponseEntity.ok(list);
+            } catch (Exception e) {
+                log.error(e.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @GetMapping("/trending_list/no_user")
+    public ResponseEntity<List<PictureAllDetailResponse>> getTrendingListWithoutLogin(
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            List<PictureAllDetailResponse> list = pictureService.getTrendingListWithoutLogin(size);
+            return ResponseEntity.ok(list);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/get_tags")
     public ResponseEntity<List<String>> getTags() {
         try {
@@ -399,9 +550,11 @@ public class PictureController {
     // 테스트 함수
     @GetMapping("/test/test/{uid}")
     public ResponseEntity<List<PictureDetailResponse>> getTest(
-            @PathVariable String uid) {
+            @PathVariable String uid,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "30") int size) {
         try {
-            List<PictureDetailResponse> list = userPictureService.getPicMadeByMe(uid);
+            List<PictureDetailResponse> list = userPictureService.getPicMadeByMe(uid, cursor, size);
             return ResponseEntity.ok(list);
         } catch (Exception e) {
             log.error(e.getMessage());
@@ -37,4 +37,19 @@ public class PictureAllDetailResponse {
                 .isPublic(picture.getIsPublic())
                 .build();
     }
+
+    // 좋아요 여부만 바꾼 복사본 (캐시된 응답은 그대로 둔다)
+    public PictureAllDetailResponse withLoveCheck(Boolean isLoved) {
+        return PictureAllDetailResponse.builder()
+                .pictureId(pictureId)
+                .pictureUrl(pictureUrl)
+                .makerUid(makerUid)
+                .makerName(makerName)
+                .loveCount(loveCount)
+                .createdAt(createdAt)
+                .pictureTags(pictureTags)
+                .loveCheck(isLoved)
+                .isPublic(isPublic)
+                .build();
+    }
 }
@@ -9,9 +9,10 @@ import java.util.List;
 
 @Data
 @Builder
-@NoArgsConstructor
 @AllArgsConstructor
-public class DeleteUserRequest {
-    public String uid;
-    public List<Long> pictureIdxs;
+@NoArgsConstructor
+public class PictureSearchPageResponse {
+    public List<PictureAllDetailResponse> pictures;
+    // 다음 페이지 요청 시 cursor 로 보낼 값 (마지막 페이지면 null)
+    public Long nextCursor;
 }
@@ -15,7 +15,9 @@ import java.util.Set;
 @Setter
 @ToString
 @Entity
-@Table(name = "picture")
+@Table(name = "picture", indexes = {
+        @Index(name = "idx_picture_maker_alive_id", columnList = "maker_uid, is_alive, id"),
+        @Index(name = "idx_picture_updated_at", columnList = "updated_at")})
 public class Picture {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,12 +46,17 @@ public class Picture {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    // 공개 여부, 삭제 여부가 마지막으로 바뀐 시각 (검색 색인이 바뀐 이미지만 다시 읽는 데 씀, 좋아요 수 변경은 제외)
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "picture")
     @ToString.Exclude
     @Builder.Default
     private Set<PictureTag> pictureTags = new LinkedHashSet<>();
 
     public static Picture from(PictureSaveRequest pictureSaveRequest) {
+        Instant now = Instant.now();
         return Picture.builder()
                 .imgUrl(pictureSaveRequest.getImgUrl())
                 .makerUid(pictureSaveRequest.getUid())
@@ -57,7 +64,8 @@ public class Picture {
                 .loveCount(0L)
                 .isAlive(Boolean.TRUE)
                 .isCreated(pictureSaveRequest.getIsCreated())
-                .createdAt(Instant.now())
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
     }
 }
@@ -0,0 +1,51 @@
+package D6B.D_discover_picture.picture.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// 삭제된 이미지를 다른 서버에 알려야 하는 일 (이미지 삭제와 같은 트랜잭션에서 기록)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "picture_deletion_outbox",
+        indexes = @Index(name = "idx_outbox_target_next_attempt", columnList = "target, next_attempt_at"))
+public class PictureDeletionOutbox {
+    public enum Target { USER_LOVE, ALARM }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "picture_id", nullable = false)
+    private Long pictureId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target", nullable = false, length = 20)
+    private Target target;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // 이 시각까지는 locked_by 서버가 보내는 중 (다른 서버는 건너뜀)
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "locked_by", length = 36)
+    private String lockedBy;
+}
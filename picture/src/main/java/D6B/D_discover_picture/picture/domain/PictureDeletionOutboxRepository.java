@@ -0,0 +1,34 @@
+package D6B.D_discover_picture.picture.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PictureDeletionOutboxRepository extends JpaRepository<PictureDeletionOutbox, Long> {
+    // 보낼 때가 되었고 아무도 잡고 있지 않은 행 id
+    @Query("SELECT o.id FROM PictureDeletionOutbox o WHERE o.target = :target AND o.nextAttemptAt <= :now " +
+            "AND (o.lockedUntil IS NULL OR o.lockedUntil < :now) ORDER BY o.id")
+    List<Long> findDueIds(@Param("target") PictureDeletionOutbox.Target target, @Param("now") Instant now, Pageable pageable);
+
+    // 아무도 잡고 있지 않은 행만 잡는다. (다른 서버와 겹친 행은 빠짐, 잡은 행은 lockedBy 로 다시 읽는다)
+    @Transactional
+    @Modifying
+    @Query("UPDATE PictureDeletionOutbox o SET o.lockedUntil = :lockedUntil, o.lockedBy = :lockedBy " +
+            "WHERE o.id IN :ids AND (o.lockedUntil IS NULL OR o.lockedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("now") Instant now,
+              @Param("lockedUntil") Instant lockedUntil, @Param("lockedBy") String lockedBy);
+
+    List<PictureDeletionOutbox> findByIdInAndLockedByOrderByIdAsc(Collection<Long> ids, String lockedBy);
+
+    long countByTarget(PictureDeletionOutbox.Target target);
+
+    @Query("SELECT MIN(o.createdAt) FROM PictureDeletionOutbox o WHERE o.target = :target")
+    Instant findOldestCreatedAt(@Param("target") PictureDeletionOutbox.Target target);
+}
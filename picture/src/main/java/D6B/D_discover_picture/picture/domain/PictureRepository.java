@@ -1,26 +1,61 @@
 package D6B.D_discover_picture.picture.domain;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PictureRepository extends JpaRepository<Picture, Long> {
-    List<Picture> findAllByMakerUidOrderByIdDesc(String makerUid);
     List<Picture> findAllByMakerUidAndIsAlive(String makerUid, Boolean isAlive);
-    List<Picture> findAllByMakerUidAndIsPublicAndIsAliveOrderByIdDesc(String makerUid, Boolean isPublic, Boolean isAlive);
 
-//    @Query(value = "SELECT * FROM picture " +
-//            "WHERE is_public = true " +
-//            "AND is_alive = true " +
-//            "ORDER BY RAND() " +
-//            "LIMIT 50", nativeQuery = true)
-//    List<Picture> findRandPictures();
+    // 유저 탈퇴 시 나눠서 삭제할 살아있는 이미지 id
+    @Query("SELECT p.id FROM Picture p WHERE p.makerUid = :makerUid AND p.isAlive = true ORDER BY p.id")
+    List<Long> findAliveIdsByMakerUid(@Param("makerUid") String makerUid, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Picture p SET p.isAlive = false, p.updatedAt = :updatedAt WHERE p.id IN :pictureIds AND p.isAlive = true")
+    int deactivateByIds(@Param("pictureIds") Collection<Long> pictureIds, @Param("updatedAt") Instant updatedAt);
+
+    // 공개 여부만 바꾼다. (엔티티를 save 하면 love_count 도 메모리 값으로 덮어써서 그 사이에 반영된 좋아요가 사라진다)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Picture p SET p.isPublic = :isPublic, p.updatedAt = :updatedAt WHERE p.id = :pictureId")
+    int updateIsPublic(@Param("pictureId") Long pictureId, @Param("isPublic") Boolean isPublic, @Param("updatedAt") Instant updatedAt);
+
+    // 제작자의 이미지들을 cursor(이미지 id) 이전부터 최신순으로
+    List<Picture> findByMakerUidAndIsAliveAndIdLessThanOrderByIdDesc(String makerUid, Boolean isAlive, Long cursor, Pageable pageable);
+    List<Picture> findByMakerUidAndIsPublicAndIsAliveAndIdLessThanOrderByIdDesc(String makerUid, Boolean isPublic, Boolean isAlive, Long cursor, Pageable pageable);
 
     List<Picture> findTop50ByIsPublicAndIsAliveOrderByIdDesc(boolean isPublic, boolean isAlive);
 
-    List<Picture> findTop50ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(Boolean isPublic, Boolean isAlive, Instant start, Instant end);
+    // 오늘의 픽 샘플링용 (공개된 살아있는 이미지 id)
+    @Query("SELECT MIN(p.id) FROM Picture p WHERE p.isPublic = true AND p.isAlive = true")
+    Long findMinPublicAliveId();
+
+    @Query("SELECT MAX(p.id) FROM Picture p WHERE p.isPublic = true AND p.isAlive = true")
+    Long findMaxPublicAliveId();
+
+    @Query("SELECT p.id FROM Picture p WHERE p.id IN :ids AND p.isPublic = true AND p.isAlive = true")
+    List<Long> findPublicAliveIdsIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Picture p WHERE p.id >= :id AND p.isPublic = true AND p.isAlive = true ORDER BY p.id")
+    List<Long> findPublicAliveIdsFrom(@Param("id") Long id, Pageable pageable);
+
+    // 살아있는 이미지들의 공개 여부, 제작자 (검색 색인용)
+    @Query("SELECT p.id AS id, p.isPublic AS isPublic, p.isAlive AS isAlive, p.makerUid AS makerUid FROM Picture p WHERE p.isAlive = true")
+    List<PictureVisibility> findAliveVisibilities();
+
+    // since 이후에 공개 여부, 삭제 여부가 바뀌었거나 새로 저장된 이미지들 (검색 색인 갱신용, 삭제된 이미지 포함)
+    @Query("SELECT p.id AS id, p.isPublic AS isPublic, p.isAlive AS isAlive, p.makerUid AS makerUid FROM Picture p WHERE p.updatedAt > :since")
+    List<PictureVisibility> findVisibilitiesUpdatedAfter(@Param("since") Instant since);
+
+    List<Picture> findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(Boolean isPublic, Boolean isAlive, Instant start, Instant end);
 }
@@ -0,0 +1,7 @@
+package D6B.D_discover_picture.picture.domain;
+
+// 이미지에 달린 태그의 id와 단어만 조회하기 위한 projection
+public interface PictureTagId {
+    Long getTagId();
+    String getWord();
+}
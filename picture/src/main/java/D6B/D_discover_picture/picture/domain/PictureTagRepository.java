@@ -1,6 +1,28 @@
 package D6B.D_discover_picture.picture.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PictureTagRepository extends JpaRepository<PictureTag, Long> {
+    // 여러 이미지의 태그 단어들을 한 번의 쿼리로 조회
+    @Query("SELECT pt.picture.id AS pictureId, t.word AS word " +
+            "FROM PictureTag pt JOIN pt.tag t " +
+            "WHERE pt.picture.id IN :pictureIds")
+    List<PictureTagWord> findTagWordsByPictureIdIn(@Param("pictureIds") Collection<Long> pictureIds);
+
+    // 살아있는 이미지들의 태그 단어 전부 (검색 색인용)
+    @Query("SELECT pt.picture.id AS pictureId, t.word AS word " +
+            "FROM PictureTag pt JOIN pt.tag t " +
+            "WHERE pt.picture.isAlive = true")
+    List<PictureTagWord> findAliveTagWords();
+
+    // 여러 이미지에 달린 태그 id 들 (이미지마다 한 행, 태그 수 일괄 감소용)
+    @Query("SELECT t.id AS tagId, t.word AS word " +
+            "FROM PictureTag pt JOIN pt.tag t " +
+            "WHERE pt.picture.id IN :pictureIds")
+    List<PictureTagId> findTagIdsByPictureIdIn(@Param("pictureIds") Collection<Long> pictureIds);
 }
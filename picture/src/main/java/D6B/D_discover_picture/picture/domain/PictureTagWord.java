@@ -0,0 +1,7 @@
+package D6B.D_discover_picture.picture.domain;
+
+// 이미지 id와 태그 단어만 조회하기 위한 projection
+public interface PictureTagWord {
+    Long getPictureId();
+    String getWord();
+}
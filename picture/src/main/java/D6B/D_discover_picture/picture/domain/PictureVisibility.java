@@ -0,0 +1,9 @@
+package D6B.D_discover_picture.picture.domain;
+
+// 검색 색인을 만들 때 이미지의 공개 여부, 삭제 여부와 제작자만 조회하기 위한 projection
+public interface PictureVisibility {
+    Long getId();
+    Boolean getIsPublic();
+    Boolean getIsAlive();
+    String getMakerUid();
+}
@@ -13,7 +13,7 @@ import java.util.Set;
 @Setter
 @ToString
 @Entity
-@Table(name = "tag")
+@Table(name = "tag", indexes = @Index(name = "uk_tag_word", columnList = "word", unique = true))
 public class Tag {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
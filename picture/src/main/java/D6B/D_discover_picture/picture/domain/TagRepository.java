@@ -1,12 +1,30 @@
 package D6B.D_discover_picture.picture.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByWord(String word);
     List<Tag> findByTagCountGreaterThanEqual(Long count);
+    List<Tag> findByWordIn(Collection<String> words);
+
+    // 태그 수 줄이기 (0 밑으로는 내려가지 않음)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tag t SET t.tagCount = t.tagCount - 1 WHERE t.id IN :tagIds AND t.tagCount > 0")
+    int decreaseTagCount(@Param("tagIds") Collection<Long> tagIds);
+
+    // 태그 수를 amount 만큼 줄이기 (0 밑으로는 내려가지 않음)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE tag SET tag_count = GREATEST(tag_count - :amount, 0) WHERE id IN :tagIds", nativeQuery = true)
+    int decreaseTagCountBy(@Param("amount") Long amount, @Param("tagIds") Collection<Long> tagIds);
 
 }
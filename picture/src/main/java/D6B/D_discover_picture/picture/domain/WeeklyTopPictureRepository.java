@@ -1,9 +1,18 @@
 package D6B.D_discover_picture.picture.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface WeeklyTopPictureRepository extends JpaRepository<WeeklyTopPicture, Long> {
     Optional<WeeklyTopPicture> findByPictureId(Long id);
+
+    // 여러 서버가 동시에 기록해도 한 벌만 남도록 지우고 넣기를 한 트랜잭션으로
+    @Transactional
+    default void replaceAll(List<WeeklyTopPicture> topPictures) {
+        deleteAllInBatch();
+        saveAll(topPictures);
+    }
 }
@@ -0,0 +1,178 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutbox;
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutbox.Target;
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 이미지 삭제 후속 처리 (좋아요 비활성화, 좋아요 알림 삭제) outbox
+ * - 이미지를 죽이는 트랜잭션 안에서 (이미지 id, 대상 서버) 행을 JDBC batch 로 기록한다.
+ * - dispatcher 가 대상별로 밀린 행들을 모아 이미지 id 목록 하나로 bulk 요청을 보내고, 성공하면 행을 지운다.
+ * - 보내기 전에 행들을 lock-millis 동안 잡아서(locked_until 조건부 UPDATE) 여러 서버가 같은 행을 동시에 보내지 않게 한다.
+ * - 실패하면 행마다 attempts 를 올리고 지수 backoff 뒤에 다시 보낸다. (받는 쪽 처리는 여러 번 받아도 결과가 같음)
+ */
+@Slf4j
+@Component
+public class DeletionOutbox {
+    private static final String INSERT_SQL =
+            "INSERT INTO picture_deletion_outbox (picture_id, target, attempts, created_at, next_attempt_at) VALUES (?, ?, 0, ?, ?)";
+    private static final String RETRY_SQL =
+            "UPDATE picture_deletion_outbox SET attempts = ?, next_attempt_at = ?, last_error = ?, locked_until = NULL, locked_by = NULL WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PictureDeletionOutboxRepository outboxRepository;
+    private final MsaService msaService;
+    private final int batchSize;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long lockMillis;
+
+    private final AtomicLong sentRows = new AtomicLong();
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    @Autowired
+    public DeletionOutbox(JdbcTemplate jdbcTemplate,
+                          PictureDeletionOutboxRepository outboxRepository,
+                          MsaService msaService,
+                          @Value("${deletion-outbox.batch-size:500}") int batchSize,
+                          @Value("${deletion-outbox.base-backoff-millis:1000}") long baseBackoffMillis,
+                          @Value("${deletion-outbox.max-backoff-millis:600000}") long maxBackoffMillis,
+                          @Value("${deletion-outbox.lock-millis:60000}") long lockMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxRepository = outboxRepository;
+        this.msaService = msaService;
+        this.batchSize = batchSize;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        // 다른 서버 응답을 기다리는 시간(msa.timeout-millis)보다 길어야 한다.
+        this.lockMillis = lockMillis;
+    }
+
+    // 호출한 쪽 트랜잭션에 같이 묶인다. (이미지 삭제가 롤백되면 outbox 기록도 롤백)
+    @Transactional
+    public void enqueue(Collection<Long> pictureIds) {
+        if (pictureIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>();
+        for (Long pictureId : pictureIds) {
+            for (Target target : Target.values()) {
+                args.add(new Object[]{pictureId, target.name(), now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    @Scheduled(fixedDelayString = "${deletion-outbox.dispatch-delay-millis:1000}")
+    public void dispatch() {
+        for (Target target : Target.values()) {
+            try {
+                // 한 번에 batchSize 만큼, 밀려 있으면 이어서 보낸다.
+                int sent;
+                do {
+                    sent = dispatchBatch(target);
+                } while (sent == batchSize);
+            } catch (Exception e) {
+                log.error("삭제 outbox 처리 실패 target={} : {}", target, e.getMessage());
+            }
+        }
+    }
+
+    // 보낸 행 수 반환 (실패했거나 다른 서버가 모두 잡아갔으면 0)
+    int dispatchBatch(Target target) {
+        Instant now = Instant.now();
+        List<Long> dueIds = outboxRepository.findDueIds(target, now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        String lockedBy = UUID.randomUUID().toString();
+        if (outboxRepository.claim(dueIds, now, now.plusMillis(lockMillis), lockedBy) == 0) {
+            return 0;
+        }
+        List<PictureDeletionOutbox> rows = outboxRepository.findByIdInAndLockedByOrderByIdAsc(dueIds, lockedBy);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Set<Long> pictureIds = new LinkedHashSet<>();
+        for (PictureDeletionOutbox row : rows) {
+            pictureIds.add(row.getPictureId());
+        }
+        try {
+            msaService.await(send(target, new ArrayList<>(pictureIds)));
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            log.warn("삭제 outbox 전송 실패 target={}, {}개 : {}", target, rows.size(), e.getMessage());
+            // 잡은 행들만 attempts, next_attempt_at 을 고치고 놓아준다.
+            String lastError = truncate(e.getMessage());
+            List<Object[]> args = new ArrayList<>();
+            for (PictureDeletionOutbox row : rows) {
+                int attempts = row.getAttempts() + 1;
+                args.add(new Object[]{attempts, Timestamp.from(now.plus(backoff(attempts))), lastError, row.getId()});
+            }
+            jdbcTemplate.batchUpdate(RETRY_SQL, args);
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (PictureDeletionOutbox row : rows) {
+            ids.add(row.getId());
+        }
+        outboxRepository.deleteAllByIdInBatch(ids);
+        sentRows.addAndGet(rows.size());
+        sentBatches.incrementAndGet();
+        return rows.size();
+    }
+
+    private Mono<Void> send(Target target, List<Long> pictureIds) {
+        if (target == Target.USER_LOVE) {
+            return msaService.deleteLikes(pictureIds);
+        }
+        return msaService.deleteLikeAlarms(pictureIds);
+    }
+
+    // base * 2^(attempts - 1), 최대 maxBackoff
+    Duration backoff(int attempts) {
+        long millis = baseBackoffMillis << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(Math.min(millis <= 0 ? maxBackoffMillis : millis, maxBackoffMillis));
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        for (Target target : Target.values()) {
+            Instant oldest = outboxRepository.findOldestCreatedAt(target);
+            String prefix = target.name().toLowerCase(Locale.ROOT);
+            metrics.put(prefix + ".pending", outboxRepository.countByTarget(target));
+            // 가장 오래 기다린 행이 기록된 지 얼마나 지났는지 (밀려 있지 않으면 0)
+            metrics.put(prefix + ".lagMillis", oldest == null ? 0L : Duration.between(oldest, now).toMillis());
+        }
+        metrics.put("sentRows", sentRows.get());
+        metrics.put("sentBatches", sentBatches.get());
+        metrics.put("failedBatches", failedBatches.get());
+        return metrics;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
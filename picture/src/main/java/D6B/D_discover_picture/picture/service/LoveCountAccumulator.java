@@ -0,0 +1,195 @@
+package D6B.D_discover_picture.picture.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 좋아요 수 변경을 메모리에 모아두었다가 주기적으로 한 번에 DB 에 반영 (write-behind)
+ * - 이미지별 증감분은 ConcurrentHashMap 에 누적한다. (이미지마다 다른 bin lock 을 쓰므로 서로 경합하지 않음)
+ * - flush 는 UPDATE picture SET love_count = love_count + ? 를 JDBC batch 로 보낸다.
+ *   batch 하나는 한 트랜잭션이라, 실패하면 하나도 반영되지 않은 것이므로 전부 다시 쌓아도 두 번 더해지지 않는다.
+ * - 아직 반영되지 않은 증감분은 조회 시 DB 값에 더해서 보여준다.
+ * - 쌓인 이미지가 max-pending-pictures 를 넘으면 요청 스레드는 꺼낸 묶음을 flusher 스레드의 큐에 넘기기만 한다.
+ *   큐가 가득 차 있으면 handoff-timeout-millis 까지 기다리고(backpressure), 그래도 안 되면 다시 쌓아두고 주기적 flush 에 맡긴다.
+ */
+@Slf4j
+@Component
+public class LoveCountAccumulator {
+    private static final String UPDATE_LOVE_COUNT_SQL =
+            "UPDATE picture SET love_count = GREATEST(love_count + ?, 0) WHERE id = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPendingPictures;
+    private final long handoffTimeoutMillis;
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> inFlight = new ConcurrentHashMap<>();
+    // 요청 스레드가 꺼낸 증감분 묶음 -> flusher 스레드
+    private final BlockingQueue<Map<Long, Long>> handoff;
+    private final Thread flusher;
+
+    private final AtomicLong acceptedDeltas = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong forcedFlushes = new AtomicLong();
+    private final AtomicLong rejectedHandoffs = new AtomicLong();
+
+    @Autowired
+    public LoveCountAccumulator(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${love-count.max-pending-pictures:10000}") int maxPendingPictures,
+                                @Value("${love-count.handoff-capacity:4}") int handoffCapacity,
+                                @Value("${love-count.handoff-timeout-millis:50}") long handoffTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPendingPictures = maxPendingPictures;
+        this.handoffTimeoutMillis = handoffTimeoutMillis;
+        this.handoff = new ArrayBlockingQueue<>(handoffCapacity);
+        this.flusher = new Thread(this::runFlusher, "love-count-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void add(Long pictureId, long delta) {
+        pending.merge(pictureId, delta, Long::sum);
+        acceptedDeltas.incrementAndGet();
+        if (pending.size() >= maxPendingPictures) {
+            handOff();
+        }
+    }
+
+    // DB 값 + 아직 반영되지 않은 증감분
+    public Long currentLoveCount(Long pictureId, Long savedLoveCount) {
+        long count = (savedLoveCount == null ? 0L : savedLoveCount)
+                + inFlight.getOrDefault(pictureId, 0L)
+                + pending.getOrDefault(pictureId, 0L);
+        return Math.max(count, 0L);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flush() {
+        write(drain());
+    }
+
+    private void handOff() {
+        Map<Long, Long> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (handoff.offer(batch, handoffTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                forcedFlushes.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // flusher 가 밀려 있으면 다시 쌓아두고 주기적 flush 에 맡긴다.
+        rejectedHandoffs.incrementAndGet();
+        for (Map.Entry<Long, Long> entry : batch.entrySet()) {
+            settle(entry.getKey(), entry.getValue());
+            pending.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+    }
+
+    private void runFlusher() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                write(handoff.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 쌓인 증감분을 꺼내 inFlight 로 옮긴다. (꺼내는 순간 옮겨서 조회 값이 비지 않게 한다.)
+    private Map<Long, Long> drain() {
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Long pictureId : pending.keySet()) {
+            pending.computeIfPresent(pictureId, (id, delta) -> {
+                if (delta != 0) {
+                    inFlight.merge(id, delta, Long::sum);
+                    batch.put(id, delta);
+                }
+                return null;
+            });
+        }
+        return batch;
+    }
+
+    private void write(Map<Long, Long> batch) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(batch.entrySet());
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            writeBatch(entries.subList(from, Math.min(from + BATCH_SIZE, entries.size())));
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<Long, Long>> entries) {
+        List<Object[]> args = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : entries) {
+            args.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_LOVE_COUNT_SQL, args));
+            flushedRows.addAndGet(args.size());
+            flushedBatches.incrementAndGet();
+            for (Map.Entry<Long, Long> entry : entries) {
+                settle(entry.getKey(), entry.getValue());
+            }
+        } catch (Exception e) {
+            // 실패한 증감분은 다시 쌓아두고 다음 flush 때 재시도
+            failedBatches.incrementAndGet();
+            log.error("좋아요 수 반영 실패 ({}개) : {}", entries.size(), e.getMessage());
+            for (Map.Entry<Long, Long> entry : entries) {
+                settle(entry.getKey(), entry.getValue());
+                pending.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+    }
+
+    // 묶음 하나의 증감분만 inFlight 에서 뺀다. (flusher 와 주기적 flush 가 같은 이미지를 동시에 들고 있을 수 있음)
+    private void settle(Long pictureId, long delta) {
+        inFlight.computeIfPresent(pictureId, (id, current) -> current - delta == 0 ? null : current - delta);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() throws InterruptedException {
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        List<Map<Long, Long>> queued = new ArrayList<>();
+        handoff.drainTo(queued);
+        for (Map<Long, Long> batch : queued) {
+            write(batch);
+        }
+        flush();
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("pendingPictures", (long) pending.size());
+        metrics.put("queuedBatches", (long) handoff.size());
+        metrics.put("acceptedDeltas", acceptedDeltas.get());
+        metrics.put("flushedRows", flushedRows.get());
+        metrics.put("flushedBatches", flushedBatches.get());
+        metrics.put("failedBatches", failedBatches.get());
+        metrics.put("forcedFlushes", forcedFlushes.get());
+        metrics.put("rejectedHandoffs", rejectedHandoffs.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,138 @@
+package D6B.D_discover_picture.picture.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * makerUid -> 제작자 닉네임 캐시.
+ * 닉네임은 거의 바뀌지 않으니 TTL 동안 로컬에서 응답하고, 없는 uid 들만 모아서 유저 서버에 한 번 요청한다.
+ * 닉네임이 바뀌면 유저 서버가 evict 를 보내주지만, k8s Service 를 거치므로 서버 한 대에만 닿는다.
+ * 나머지 서버는 TTL 이 지나야 새 닉네임을 받으므로 TTL 을 짧게 둔다.
+ */
+@Slf4j
+@Component
+public class MakerNameCache {
+    private final MsaService msaService;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // accessOrder = true 인 LinkedHashMap 으로 LRU (접근은 모두 synchronized)
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // evict 가 일어날 때마다 증가. 요청 도중에 evict 가 있었으면 그 응답은 캐시에 넣지 않는다.
+    private final AtomicLong evictVersion = new AtomicLong();
+
+    @Autowired
+    public MakerNameCache(MsaService msaService,
+                          @Value("${maker-name.cache.max-size:10000}") int maxSize,
+                          @Value("${maker-name.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(msaService, maxSize, ttlSeconds, System::currentTimeMillis);
+    }
+
+    MakerNameCache(MsaService msaService, int maxSize, long ttlSeconds, LongSupplier clock) {
+        this.msaService = msaService;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MakerNameCache.Entry> eldest) {
+                return size() > MakerNameCache.this.maxSize;
+            }
+        };
+    }
+
+    // 입력 순서 그대로 닉네임 목록 반환 (유저 서버에 없는 uid 는 null)
+    public Mono<List<String>> getMakerNames(List<String> makerUids) {
+        Map<String, String> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        long now = clock.getAsLong();
+        long version = evictVersion.get();
+        synchronized (entries) {
+            for (String makerUid : makerUids) {
+                if (found.containsKey(makerUid) || missing.contains(makerUid)) {
+                    continue;
+                }
+                Entry entry = entries.get(makerUid);
+                if (entry != null && entry.expiresAt > now) {
+                    found.put(makerUid, entry.name);
+                } else {
+                    missing.add(makerUid);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        misses.addAndGet(missing.size());
+        if (missing.isEmpty()) {
+            return Mono.just(arrange(makerUids, found));
+        }
+        List<String> missingUids = new ArrayList<>(missing);
+        Collections.sort(missingUids);
+        return msaService.findMakerNames(missingUids)
+                .map(fetched -> {
+                    putAll(fetched, now, version);
+                    found.putAll(fetched);
+                    return arrange(makerUids, found);
+                });
+    }
+
+    // 닉네임이 바뀐 유저 제거
+    public void evict(String makerUid) {
+        synchronized (entries) {
+            evictVersion.incrementAndGet();
+            if (entries.remove(makerUid) != null) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        synchronized (entries) {
+            metrics.put("size", (long) entries.size());
+        }
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("evictions", evictions.get());
+        return metrics;
+    }
+
+    // 만료시간은 요청을 보내기 전 시각 기준
+    private void putAll(Map<String, String> fetched, long requestedAt, long version) {
+        synchronized (entries) {
+            if (evictVersion.get() != version) {
+                return;
+            }
+            for (Map.Entry<String, String> e : fetched.entrySet()) {
+                entries.put(e.getKey(), new Entry(e.getValue(), requestedAt + ttlMillis));
+            }
+        }
+    }
+
+    private List<String> arrange(List<String> makerUids, Map<String, String> names) {
+        List<String> result = new ArrayList<>(makerUids.size());
+        for (String makerUid : makerUids) {
+            result.add(names.get(makerUid));
+        }
+        return result;
+    }
+
+    private static class Entry {
+        private final String name;
+        private final long expiresAt;
+
+        private Entry(String name, long expiresAt) {
+            this.name = name;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,88 +1,148 @@
 package D6B.D_discover_picture.picture.service;
 
+import D6B.D_discover_picture.common.ConstValues;
 import D6B.D_discover_picture.picture.service.dto.LoveCheckAndMakerResponse;
 import D6B.D_discover_picture.picture.service.dto.PictureLoveCheckRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static D6B.D_discover_picture.common.ConstValues.*;
 
 @Slf4j
 @Service
 public class MsaService {
+    private final WebClient userServerClient;
+    private final WebClient alarmServerClient;
+    private final Duration timeout;
+    // 같은 제작자 목록으로 동시에 들어온 닉네임 조회는 하나의 요청을 같이 기다린다.
+    private final Map<List<String>, Mono<Map<String, String>>> inFlightMakerNames = new ConcurrentHashMap<>();
+
+    // ConstValues 를 주입받아 static WebClient 들이 먼저 만들어지도록 보장
+    @Autowired
+    public MsaService(ConstValues constValues,
+                      @Value("${msa.timeout-millis:2000}") long timeoutMillis) {
+        this(USER_SERVER_CLIENT, ALARM_SERVER_CLIENT, Duration.ofMillis(timeoutMillis));
+    }
+
+    MsaService(WebClient userServerClient, WebClient alarmServerClient, Duration timeout) {
+        this.userServerClient = userServerClient;
+        this.alarmServerClient = alarmServerClient;
+        this.timeout = timeout;
+    }
 
     /** 여기는 Picture -> User **/
 
     // 좋아요 여부와 제작자 닉네임 받아오는 요청
-    public static List<LoveCheckAndMakerResponse> checkLoveAndGetName(List<PictureLoveCheckRequest> list) {
-        try {
-            return USER_SERVER_CLIENT.post()
-                    .uri("/find_love_check_maker_name")
-                    .body(BodyInserters.fromValue(list))
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
-                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
-                    .bodyToMono(new ParameterizedTypeReference<List<LoveCheckAndMakerResponse>>() {
-                    })
-                    .block();
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
-        return null;
+    public Mono<List<LoveCheckAndMakerResponse>> checkLoveAndGetName(List<PictureLoveCheckRequest> list) {
+        return userServerClient.post()
+                .uri("/find_love_check_maker_name")
+                .body(BodyInserters.fromValue(list))
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(
+                        new IllegalStateException("좋아요 여부 조회 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(new ParameterizedTypeReference<List<LoveCheckAndMakerResponse>>() {})
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new IllegalStateException("유저 서버 응답 시간 초과"));
     }
 
-    // 제작자 닉네임 받아오는 요청
-    public static List<String> checkMakerName(List<String> list) {
-        try {
-            return USER_SERVER_CLIENT.post()
-                    .uri("/find_maker_name")
-                    .body(BodyInserters.fromValue(list))
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
-                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
-                    .bodyToMono(new ParameterizedTypeReference<List<String>>() {})
-                    .block();
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
-        return null;
+    // 제작자 uid -> 닉네임 받아오는 요청 (진행 중인 같은 요청이 있으면 그 결과를 공유)
+    public Mono<Map<String, String>> findMakerNames(List<String> makerUids) {
+        List<String> key = Collections.unmodifiableList(new ArrayList<>(makerUids));
+        return inFlightMakerNames.computeIfAbsent(key, k -> requestMakerNames(k)
+                .doOnTerminate(() -> inFlightMakerNames.remove(k))
+                .cache());
     }
 
-    // 특정 그림에 달린 좋아요 삭제 요청
-    public static void deleteLikeRequest(Long pictureId) {
-        try {
-            USER_SERVER_CLIENT.post()
-                    .uri("/like/delete/" + pictureId)
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
-                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
-                    .bodyToMono(Void.class)
-                    .block();
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
+    private Mono<Map<String, String>> requestMakerNames(List<String> makerUids) {
+        return userServerClient.post()
+                .uri("/find_maker_name_map")
+                .body(BodyInserters.fromValue(makerUids))
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(
+                        new IllegalStateException("제작자 닉네임 조회 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(new ParameterizedTypeReference<Map<String, String>>() {})
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new IllegalStateException("유저 서버 응답 시간 초과"));
+    }
+
+    // 삭제된 그림들에 달린 좋아요 비활성화 요청 (DeletionOutbox 가 모아서 보냄)
+    public Mono<Void> deleteLikes(List<Long> pictureIds) {
+        return userServerClient.post()
+                .uri("/like/delete")
+                .body(BodyInserters.fromValue(pictureIds))
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(
+                        new IllegalStateException("좋아요 삭제 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Void.class)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new IllegalStateException("유저 서버 응답 시간 초과"));
+    }
+
+    // 진행 중인 탈퇴 job 이 있는 유저인지 (탈퇴 job 이 아닌 곳에서 유저 그림 삭제를 부르지 못하게)
+    public Mono<Boolean> hasRunningDeletionJob(String uid) {
+        return userServerClient.get()
+                .uri("/deletion_job/running/{uid}", uid)
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(
+                        new IllegalStateException("탈퇴 job 조회 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Boolean.class)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new IllegalStateException("유저 서버 응답 시간 초과"));
     }
 
     /** 여기는 Picture -> Alarm **/
 
-    // 특정 그림의 좋아요 알림 삭제 요청
-    public static void deleteLikeAlarmRequest(Long pictureId) {
+    // 삭제된 그림들의 좋아요 알림 삭제 요청 (DeletionOutbox 가 모아서 보냄)
+    public Mono<Void> deleteLikeAlarms(List<Long> pictureIds) {
+        return alarmServerClient.put()
+                .uri("/picmove")
+                .body(BodyInserters.fromValue(pictureIds))
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(
+                        new IllegalStateException("좋아요 알림 삭제 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Void.class)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new IllegalStateException("알림 서버 응답 시간 초과"));
+    }
+
+    // 서블릿 스레드에서 결과가 필요할 때 - 요청 timeout 보다 조금 더 기다리고 포기
+    public <T> T await(CompletableFuture<T> future) {
         try {
-            ALARM_SERVER_CLIENT.put()
-                    .uri("/picmove/" + pictureId)    /// uri 협의 필요
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
-                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
-                    .bodyToMono(Void.class)
-                    .block();
-        } catch (Exception e) {
-            log.error(e.getMessage());
+            return future.get(timeout.toMillis() + 500, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("다른 서버 응답 대기 중 인터럽트");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IllegalStateException("다른 서버 응답 시간 초과");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
         }
     }
+
+    public <T> T await(Mono<T> mono) {
+        return await(mono.toFuture());
+    }
 }
@@ -1,9 +1,9 @@
 package D6B.D_discover_picture.picture.service;
 
-import D6B.D_discover_picture.picture.controller.dto.DeleteUserRequest;
 import D6B.D_discover_picture.picture.controller.dto.PictureAllDetailResponse;
 import D6B.D_discover_picture.picture.controller.dto.PictureDetailResponse;
 import D6B.D_discover_picture.picture.controller.dto.PictureSaveRequest;
+import D6B.D_discover_picture.picture.controller.dto.PictureSearchPageResponse;
 import D6B.D_discover_picture.picture.domain.*;
 import D6B.D_discover_picture.picture.service.dto.LoveCheckAndMakerResponse;
 import D6B.D_discover_picture.picture.service.dto.PictureLoveCheckRequest;
@@ -13,71 +13,100 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Mono;
 
-import java.time.*;
-import java.time.temporal.TemporalAdjusters;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static D6B.D_discover_picture.common.ConstValues.*;
 
 @Slf4j
 @Service
 public class PictureService {
+    static final int MAX_PAGE_SIZE = 100;
+
     private final PictureRepository pictureRepository;
     private final PictureTagRepository pictureTagRepository;
     private final TagRepository tagRepository;
     private final WeeklyTopPictureRepository weeklyTopPictureRepository;
     private final MonthlyTopPictureRepository monthlyTopPictureRepository;
+    private final TopListSnapshotCache topListSnapshotCache;
+    private final TopPictureRanking topPictureRanking;
+    private final LoveCountAccumulator loveCountAccumulator;
+    private final MsaService msaService;
+    private final MakerNameCache makerNameCache;
+    private final TagIngestService tagIngestService;
+    private final TagSearchIndex tagSearchIndex;
+    private final TodayPickSampler todayPickSampler;
+    private final RandomTagSampler randomTagSampler;
+    private final DeletionOutbox deletionOutbox;
 
     @Autowired
     public PictureService(PictureRepository pictureRepository,
                           PictureTagRepository pictureTagRepository,
                           TagRepository tagRepository,
                           WeeklyTopPictureRepository weeklyTopPictureRepository,
-                          MonthlyTopPictureRepository monthlyTopPictureRepository) {
+                          MonthlyTopPictureRepository monthlyTopPictureRepository,
+                          TopListSnapshotCache topListSnapshotCache,
+                          TopPictureRanking topPictureRanking,
+                          LoveCountAccumulator loveCountAccumulator,
+                          MsaService msaService,
+                          MakerNameCache makerNameCache,
+                          TagIngestService tagIngestService,
+                          TagSearchIndex tagSearchIndex,
+                          TodayPickSampler todayPickSampler,
+                          RandomTagSampler randomTagSampler,
+                          DeletionOutbox deletionOutbox) {
         this.pictureRepository = pictureRepository;
         this.pictureTagRepository = pictureTagRepository;
         this.tagRepository = tagRepository;
         this.weeklyTopPictureRepository = weeklyTopPictureRepository;
         this.monthlyTopPictureRepository = monthlyTopPictureRepository;
+        this.topListSnapshotCache = topListSnapshotCache;
+        this.topPictureRanking = topPictureRanking;
+        this.loveCountAccumulator = loveCountAccumulator;
+        this.msaService = msaService;
+        this.makerNameCache = makerNameCache;
+        this.tagIngestService = tagIngestService;
+        this.tagSearchIndex = tagSearchIndex;
+        this.todayPickSampler = todayPickSampler;
+        this.randomTagSampler = randomTagSampler;
+        this.deletionOutbox = deletionOutbox;
     }
 
+    // 이미지와 태그들을 한 트랜잭션으로 저장
+    @Transactional
     public void savePicture(PictureSaveRequest pictureSaveRequest) {
         // 이미지 저장
         Picture picture = Picture.from(pictureSaveRequest);
         Picture newPicture = pictureRepository.save(picture);
-        // 이미지에 달린 태그들.
-        List<String> image_tags = pictureSaveRequest.getImageTags();
-        for (String tag: image_tags) {
-            Optional<Tag> opTag = tagRepository.findByWord(tag);
-            Tag itag;
-            if (opTag.isPresent()) {
-                // 태그가 이미 존재한다면 그냥 들고오기
-                itag = opTag.get();
-                itag.setTagCount(itag.getTagCount() + 1);
-            } else {
-                // 없으면 새로 저장하고 가져오기
-                Tag ntag = new Tag();
-                ntag.setWord(tag);
-                ntag.setTagCount(1L);
-                itag = tagRepository.save(ntag);
-            }
-
-            pictureTagRepository.save(PictureTag
-                    .builder()
-                    .tag(itag)
-                    .picture(newPicture)
-                    .build()
-            );
+        // 이미지에 달린 태그들 - upsert, 조회, picture_tag 저장을 각각 한 번에
+        List<Tag> tags = tagIngestService.attachTags(newPicture.getId(), pictureSaveRequest.getImageTags());
+        topPictureRanking.update(newPicture, newPicture.getLoveCount());
+        randomTagSampler.update(tags);
+        List<String> words = new ArrayList<>();
+        for (Tag tag : tags) {
+            words.add(tag.getWord());
         }
+        tagSearchIndex.add(newPicture.getId(), newPicture.getIsPublic() == Boolean.TRUE, newPicture.getMakerUid(), words);
     }
 
-    // 이미지 삭제
+    // 이미지 삭제 (다른 서버에 알리는 일은 같은 트랜잭션에서 outbox 에 기록)
+    @Transactional
     public void deletePicture(Long pictureId, String uid) {
         Picture picture = findPictureById(pictureId);
         if (picture.getMakerUid().equals(uid)) {
+            // is_alive 만 바꾼다. (save 하면 그 사이에 반영된 love_count 를 메모리 값으로 덮어쓴다)
+            pictureRepository.deactivateByIds(List.of(pictureId), Instant.now());
+            // 이미지의 태그들 TagCount 낮추기
+            minusTagCount(picture);
+            // 순위에 있던 이미지라면 랭킹에서 빼고 순위 테이블 다시 기록 (snapshot 도 무효화)
+            topPictureRanking.remove(pictureId);
+            tagSearchIndex.remove(pictureId, picture.getMakerUid());
+            topListSnapshotCache.invalidateIfContains(pictureId);
             Optional<WeeklyTopPicture> wtPicture = weeklyTopPictureRepository.findByPictureId(picture.getId());
             Optional<MonthlyTopPicture> mtPicture = monthlyTopPictureRepository.findByPictureId(picture.getId());
             if (wtPicture.isPresent()) {
@@ -86,13 +115,8 @@ public class PictureService {
             if (mtPicture.isPresent()) {
                 updateMonthlyTop();
             }
-            picture.setIsAlive(Boolean.FALSE);
-            // 이미지의 태그들 TagCount 낮추기
-            minusTagCount(picture);
-            pictureRepository.save(picture);
-            // 해당 이미지의 좋아요 삭제 요청, 알림 삭제 요청 보내야함
-            MsaService.deleteLikeRequest(pictureId);
-            MsaService.deleteLikeAlarmRequest(pictureId);
+            // 해당 이미지의 좋아요 삭제, 알림 삭제는 DeletionOutbox 가 모아서 요청
+            deletionOutbox.enqueue(List.of(pictureId));
         } else {
             throw new IllegalStateException("이미지를 올린 사람이 아닙니다.");
         }
@@ -102,8 +126,13 @@ public class PictureService {
     public void toggleIsPublic(String uid, Long pictureId) {
         Picture picture = findPictureById(pictureId);
         if (picture.getMakerUid().equals(uid)) {
-            picture.setIsPublic(!picture.getIsPublic());
-            pictureRepository.save(picture);
+            Boolean isPublic = !picture.getIsPublic();
+            pictureRepository.updateIsPublic(pictureId, isPublic, Instant.now());
+            // 랭킹, 색인에 넘길 값만 맞춘다. (update 가 영속성 컨텍스트를 비웠으므로 DB 에 다시 쓰이지 않는다)
+            picture.setIsPublic(isPublic);
+            topPictureRanking.update(picture, getLoveCount(picture));
+            tagSearchIndex.updateVisibility(pictureId, picture.getIsPublic(), picture.getMakerUid());
+            topListSnapshotCache.invalidateIfContains(pictureId);
         } else {
             throw new IllegalStateException("본인이 만든 이미지가 아닙니다.");
         }
@@ -111,21 +140,7 @@ public class PictureService {
 
     // 랜덤한 태그들 반환
     public List<String> getRandomTags() {
-        List<Tag> tags = tagRepository.findByTagCountGreaterThanEqual(10L);
-        Collections.shuffle(tags);
-        List<String> wordsList = new ArrayList<>();
-        if (tags.size() >= 3) {
-            for (int i = 0; i < 3; i++) {
-                Tag tag = tags.get(i);
-                wordsList.add(tag.getWord());
-            }
-        } else {
-            for (int i = 0; i < tags.size(); i++) {
-                Tag tag = tags.get(i);
-                wordsList.add(tag.getWord());
-            }
-        }
-        return wordsList;
+        return randomTagSampler.draw(3);
     }
 
     // 하나의 Picture detail
@@ -135,8 +150,8 @@ public class PictureService {
         List<PictureLoveCheckRequest> checkList = new ArrayList<>();
         PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
         checkList.add(pictureLoveCheckRequest);
-        List<LoveCheckAndMakerResponse> checkedList = MsaService.checkLoveAndGetName(checkList);
-        PictureAllDetailResponse pADR = PictureAllDetailResponse.from(picture, tagWords, checkedList.get(0).getLoveCheck(), checkedList.get(0).getMakerName());
+        List<LoveCheckAndMakerResponse> checkedList = msaService.await(msaService.checkLoveAndGetName(checkList));
+        PictureAllDetailResponse pADR = makeDetailResponse(picture, tagWords, checkedList.get(0).getLoveCheck(), checkedList.get(0).getMakerName());
         return pADR;
     }
 
@@ -145,236 +160,276 @@ public class PictureService {
         List<String> tagWords = getTagWords(picture);
         List<String> checkList = new ArrayList<>();
         checkList.add(picture.getMakerUid());
-        List<String> checkedList = MsaService.checkMakerName(checkList);
-        PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(picture, tagWords, false, checkedList.get(0));
+        List<String> checkedList = msaService.await(makerNameCache.getMakerNames(checkList));
+        PictureAllDetailResponse pictureAllDetailResponse = makeDetailResponse(picture, tagWords, false, checkedList.get(0));
         return pictureAllDetailResponse;
     }
 
-    // 검색한 이미지들 또는 태그별 이미지들 찾기(로그인 한 사용자)
+    // 검색한 이미지들 또는 태그별 이미지들 찾기(로그인 한 사용자) - 태그가 정확히 같은 이미지 전부, 최신순
     public List<PictureAllDetailResponse> getSearchListWithLogin(String uid, String keyword) {
-        Optional<Tag> opTag = tagRepository.findByWord(keyword);
-        List<PictureAllDetailResponse> detailList = new ArrayList<>();
-        if (opTag.isPresent()) {
-            Tag tag = opTag.get();
-            Set<PictureTag> pictureTags = tag.getPictureTags();
-            List<PictureLoveCheckRequest> checkList = new ArrayList<>();
-            for (PictureTag pTag: pictureTags) {
-                Picture picture = pTag.getPicture();
-                if (picture.getIsAlive() == Boolean.TRUE) {
-                    if (picture.getIsPublic() == Boolean.TRUE) {
-                        PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
-                        checkList.add(pictureLoveCheckRequest);
-                    } else {
-                        if (picture.getMakerUid().equals(uid)) {
-                            PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
-                            checkList.add(pictureLoveCheckRequest);
-                        }
-                    }
-                }
-            }
-            List<LoveCheckAndMakerResponse> checkedList = MsaService.checkLoveAndGetName(checkList);
-            for (int i = 0; i < checkList.size(); i++) {
-                Picture picture = findPictureById(checkList.get(i).getPictureId());
-                List<String> tagWords = getTagWords(picture);
-                PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(picture, tagWords, checkedList.get(i).getLoveCheck(), checkedList.get(i).getMakerName());
-                detailList.add(pictureAllDetailResponse);
-            }
-        }
-        return detailList;
+        TagSearchIndex.Page page = tagSearchIndex.search(List.of(keyword), true, TagSearchIndex.MatchMode.EXACT, uid, null, Integer.MAX_VALUE);
+        return makeDetailListWithLogin(findPicturesByIds(page.getPictureIds()), uid);
     }
 
     public List<PictureAllDetailResponse> getSearchListWithoutLogin(String keyword) {
-        Optional<Tag> opTag = tagRepository.findByWord(keyword);
-        List<PictureAllDetailResponse> detailList = new ArrayList<>();
-        if (opTag.isPresent()) {
-            Tag tag = opTag.get();
-            Set<PictureTag> pictureTags = tag.getPictureTags();
-            List<String> checkList = new ArrayList<>();
-            List<Picture> picList = new ArrayList<>();
-            for (PictureTag pTag : pictureTags) {
-                Picture picture = pTag.getPicture();
-                if (picture.getIsAlive() == Boolean.TRUE && picture.getIsPublic() == Boolean.TRUE) {
-                    checkList.add(picture.getMakerUid());
-                    picList.add(picture);
-                }
-            }
-            List<String> checkedList = MsaService.checkMakerName(checkList);
+        TagSearchIndex.Page page = tagSearchIndex.search(List.of(keyword), true, TagSearchIndex.MatchMode.EXACT, null, null, Integer.MAX_VALUE);
+        return makeDetailListWithoutLogin(findPicturesByIds(page.getPictureIds()));
+    }
 
-            for (int i = 0; i < checkedList.size(); i++) {
-                Picture picture = picList.get(i);
-                List<String> tagWords = getTagWords(picture);
-                PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(picture, tagWords, false, checkedList.get(i));
-                detailList.add(pictureAllDetailResponse);
-            }
-        }
-        return detailList;
+    // 여러 검색어(AND/OR, 일치/접두어/포함)로 검색한 이미지들을 cursor 페이지로 (로그인 한 사용자)
+    public PictureSearchPageResponse getSearchPageWithLogin(String uid, List<String> keywords, boolean matchAll,
+                                                            TagSearchIndex.MatchMode matchMode, Long cursor, int size) {
+        TagSearchIndex.Page page = tagSearchIndex.search(keywords, matchAll, matchMode, uid, cursor, limitPageSize(size));
+        return PictureSearchPageResponse.builder()
+                .pictures(makeDetailListWithLogin(findPicturesByIds(page.getPictureIds()), uid))
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
+    public PictureSearchPageResponse getSearchPageWithoutLogin(List<String> keywords, boolean matchAll,
+                                                               TagSearchIndex.MatchMode matchMode, Long cursor, int size) {
+        TagSearchIndex.Page page = tagSearchIndex.search(keywords, matchAll, matchMode, null, cursor, limitPageSize(size));
+        return PictureSearchPageResponse.builder()
+                .pictures(makeDetailListWithoutLogin(findPicturesByIds(page.getPictureIds())))
+                .nextCursor(page.getNextCursor())
+                .build();
     }
 
+    static int limitPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // 오늘의 픽 (하루 동안 고정된 무작위 샘플)
     public List<PictureAllDetailResponse> getTodayPickWithLogin(String uid) {
-        List<PictureAllDetailResponse> list = new ArrayList<>();
-//        List<Picture> picList = pictureRepository.findRandPictures();
-        List<Picture> picList = pictureRepository.findTop50ByIsPublicAndIsAliveOrderByIdDesc(true, true);
-        List<PictureLoveCheckRequest> checkList = new ArrayList<>();
-        for (Picture picture : picList) {
-            PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
-            checkList.add(pictureLoveCheckRequest);
-        }
-        List<LoveCheckAndMakerResponse> checkedList = MsaService.checkLoveAndGetName(checkList);
-        for (int i = 0; i < picList.size(); i++) {
-            Picture picture = picList.get(i);
-            LoveCheckAndMakerResponse checking = checkedList.get(i);
-            List<String> tagWords = getTagWords(picture);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(picture, tagWords, checking.getLoveCheck(), checking.getMakerName());
-            list.add(pictureAllDetailResponse);
-        }
-        return list;
+        return makeDetailListWithLogin(findTodayPickPictures(), uid);
     }
 
     public List<PictureAllDetailResponse> getTodayPickWithoutLogin() {
-        List<PictureAllDetailResponse> list = new ArrayList<>();
-//        List<Picture> picList = pictureRepository.findRandPictures();
-        List<Picture> picList = pictureRepository.findTop50ByIsPublicAndIsAliveOrderByIdDesc(true, true);
-        System.out.println(picList);
-        List<String> checkList = new ArrayList<>();
-        for (Picture picture : picList) {
-            checkList.add(picture.getMakerUid());
-        }
-        List<String> checkedList = MsaService.checkMakerName(checkList);
-        for (int i = 0; i < picList.size(); i++) {
-            Picture picture = picList.get(i);
-            List<String> tagWords = getTagWords(picture);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(picture, tagWords, false, checkedList.get(i));
-            list.add(pictureAllDetailResponse);
+        return makeDetailListWithoutLogin(findTodayPickPictures());
+    }
+
+    // 샘플을 뽑은 뒤 삭제되거나 비공개로 바뀐 이미지는 뺀다.
+    private List<Picture> findTodayPickPictures() {
+        List<Picture> picList = new ArrayList<>();
+        for (Picture picture : findPicturesByIds(todayPickSampler.getPictureIds())) {
+            if (picture.getIsAlive() == Boolean.TRUE && picture.getIsPublic() == Boolean.TRUE) {
+                picList.add(picture);
+            }
         }
-        return list;
+        return picList;
     }
 
+    // 로그인 한 사용자는 snapshot 에 좋아요 여부만 덧씌운다.
     public List<PictureAllDetailResponse> getWeeklyTopListWithLogin(String uid) {
-        List<WeeklyTopPicture> weeklyList = weeklyTopPictureRepository.findAll();
-        List<PictureLoveCheckRequest> checkList = new ArrayList<>();
-        for (WeeklyTopPicture weeklyTopPicture : weeklyList) {
-            Picture picture = findPictureById(weeklyTopPicture.getPictureId());
-            PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
-            checkList.add(pictureLoveCheckRequest);
+        return overlayLoveCheck(getWeeklyTopListWithoutLogin(), uid);
+    }
+
+    public List<PictureAllDetailResponse> getWeeklyTopListWithoutLogin() {
+        return topListSnapshotCache.getWeekly(this::makeWeeklyTopList);
+    }
+
+    public List<PictureAllDetailResponse> getMonthlyTopListWithLogin(String uid) {
+        return overlayLoveCheck(getMonthlyTopListWithoutLogin(), uid);
+    }
+
+    public List<PictureAllDetailResponse> getMonthlyTopListWithoutLogin() {
+        return topListSnapshotCache.getMonthly(this::makeMonthlyTopList);
+    }
+
+    // 이번 주 실시간 인기 이미지 (랭킹 엔진에서 바로 조회)
+    public List<PictureAllDetailResponse> getTrendingListWithLogin(String uid, int size) {
+        List<Long> pictureIds = topPictureRanking.getCurrentTop(TopPictureRanking.Period.WEEKLY, limitTopSize(size));
+        return makeDetailListWithLogin(findPicturesByIds(pictureIds), uid);
+    }
+
+    public List<PictureAllDetailResponse> getTrendingListWithoutLogin(int size) {
+        List<Long> pictureIds = topPictureRanking.getCurrentTop(TopPictureRanking.Period.WEEKLY, limitTopSize(size));
+        return makeDetailListWithoutLogin(findPicturesByIds(pictureIds));
+    }
+
+    private int limitTopSize(int size) {
+        return Math.max(1, Math.min(size, TopPictureRanking.TOP_SIZE));
+    }
+
+    private List<PictureAllDetailResponse> makeWeeklyTopList() {
+        List<Long> pictureIds = new ArrayList<>();
+        for (WeeklyTopPicture weeklyTopPicture : weeklyTopPictureRepository.findAll()) {
+            pictureIds.add(weeklyTopPicture.getPictureId());
         }
-        List<LoveCheckAndMakerResponse> checkedList = MsaService.checkLoveAndGetName(checkList);
-        List<PictureAllDetailResponse> detailList = new ArrayList<>();
-        for (int i = 0; i < checkedList.size(); i++) {
-            WeeklyTopPicture wtPicture = weeklyList.get(i);
-            Picture wPic = findPictureById(wtPicture.getPictureId());
-            List<String> tagWords = getTagWords(wPic);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(wPic, tagWords, checkedList.get(i).getLoveCheck(), checkedList.get(i).getMakerName());
-            detailList.add(pictureAllDetailResponse);
+        return makeDetailListWithoutLogin(findPicturesByIds(pictureIds));
+    }
+
+    private List<PictureAllDetailResponse> makeMonthlyTopList() {
+        List<Long> pictureIds = new ArrayList<>();
+        for (MonthlyTopPicture monthlyTopPicture : monthlyTopPictureRepository.findAll()) {
+            pictureIds.add(monthlyTopPicture.getPictureId());
         }
-        return detailList;
+        return makeDetailListWithoutLogin(findPicturesByIds(pictureIds));
     }
 
-    public List<PictureAllDetailResponse> getWeeklyTopListWithoutLogin() {
-        List<WeeklyTopPicture> weeklyList = weeklyTopPictureRepository.findAll();
-        List<String> checkList = new ArrayList<>();
-        for (WeeklyTopPicture weeklyTopPicture : weeklyList) {
-            Picture picture = findPictureById(weeklyTopPicture.getPictureId());
-            checkList.add(picture.getMakerUid());
+    // 미리 만들어둔 응답 목록에 로그인 사용자의 좋아요 여부를 덧씌운 복사본 반환
+    private List<PictureAllDetailResponse> overlayLoveCheck(List<PictureAllDetailResponse> snapshot, String uid) {
+        List<PictureLoveCheckRequest> checkList = new ArrayList<>();
+        for (PictureAllDetailResponse response : snapshot) {
+            checkList.add(PictureLoveCheckRequest.builder()
+                    .uid(uid)
+                    .pictureId(response.getPictureId())
+                    .makerUid(response.getMakerUid())
+                    .build());
         }
-        List<String> checkedList = MsaService.checkMakerName(checkList);
+        List<LoveCheckAndMakerResponse> checkedList = msaService.await(msaService.checkLoveAndGetName(checkList));
         List<PictureAllDetailResponse> detailList = new ArrayList<>();
         for (int i = 0; i < checkedList.size(); i++) {
-            WeeklyTopPicture wtPicture = weeklyList.get(i);
-            Picture wPic = findPictureById(wtPicture.getPictureId());
-            List<String> tagWords = getTagWords(wPic);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(wPic, tagWords, false, checkedList.get(i));
-            detailList.add(pictureAllDetailResponse);
+            detailList.add(snapshot.get(i).withLoveCheck(checkedList.get(i).getLoveCheck()));
         }
         return detailList;
     }
 
-    public List<PictureAllDetailResponse> getMonthlyTopListWithLogin(String uid) {
-        List<MonthlyTopPicture> monthlyList = monthlyTopPictureRepository.findAll();
+    // 이미지 목록으로 응답 만들기 (로그인 한 사용자) - 유저 서버 요청과 태그 조회를 동시에
+    private List<PictureAllDetailResponse> makeDetailListWithLogin(List<Picture> picList, String uid) {
+        if (picList.isEmpty()) {
+            return new ArrayList<>();
+        }
         List<PictureLoveCheckRequest> checkList = new ArrayList<>();
-        for (MonthlyTopPicture monthlyTopPicture : monthlyList) {
-            Picture picture = findPictureById(monthlyTopPicture.getPictureId());
-            PictureLoveCheckRequest pictureLoveCheckRequest = PictureLoveCheckRequest.from(picture, uid);
-            checkList.add(pictureLoveCheckRequest);
+        for (Picture picture : picList) {
+            checkList.add(PictureLoveCheckRequest.from(picture, uid));
         }
-        List<LoveCheckAndMakerResponse> checkedList = MsaService.checkLoveAndGetName(checkList);
+        CompletableFuture<List<LoveCheckAndMakerResponse>> loveChecks = msaService.checkLoveAndGetName(checkList).toFuture();
+        Map<Long, List<String>> tagWordsMap = getTagWordsMap(picList);
+        List<LoveCheckAndMakerResponse> checkedList = msaService.await(loveChecks);
         List<PictureAllDetailResponse> detailList = new ArrayList<>();
         for (int i = 0; i < checkedList.size(); i++) {
-            MonthlyTopPicture mtPicture = monthlyList.get(i);
-            Picture mPic = findPictureById(mtPicture.getPictureId());
-            List<String> tagWords = getTagWords(mPic);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(mPic, tagWords, checkedList.get(i).getLoveCheck(), checkedList.get(i).getMakerName());
-            detailList.add(pictureAllDetailResponse);
+            Picture picture = picList.get(i);
+            LoveCheckAndMakerResponse checking = checkedList.get(i);
+            List<String> tagWords = tagWordsMap.getOrDefault(picture.getId(), new ArrayList<>());
+            detailList.add(makeDetailResponse(picture, tagWords, checking.getLoveCheck(), checking.getMakerName()));
         }
         return detailList;
     }
 
-    public List<PictureAllDetailResponse> getMonthlyTopListWithoutLogin() {
-        List<MonthlyTopPicture> monthlyList = monthlyTopPictureRepository.findAll();
+    // 이미지 목록으로 응답 만들기 (로그인 안 한 사용자) - 유저 서버 요청과 태그 조회를 동시에
+    private List<PictureAllDetailResponse> makeDetailListWithoutLogin(List<Picture> picList) {
+        if (picList.isEmpty()) {
+            return new ArrayList<>();
+        }
         List<String> checkList = new ArrayList<>();
-        for (MonthlyTopPicture monthlyTopPicture : monthlyList) {
-            Picture picture = findPictureById(monthlyTopPicture.getPictureId());
+        for (Picture picture : picList) {
             checkList.add(picture.getMakerUid());
         }
-        List<String> checkedList = MsaService.checkMakerName(checkList);
+        CompletableFuture<List<String>> makerNames = makerNameCache.getMakerNames(checkList).toFuture();
+        Map<Long, List<String>> tagWordsMap = getTagWordsMap(picList);
+        List<String> checkedList = msaService.await(makerNames);
         List<PictureAllDetailResponse> detailList = new ArrayList<>();
         for (int i = 0; i < checkedList.size(); i++) {
-            MonthlyTopPicture mtPicture = monthlyList.get(i);
-            Picture mPic = findPictureById(mtPicture.getPictureId());
-            List<String> tagWords = getTagWords(mPic);
-            PictureAllDetailResponse pictureAllDetailResponse = PictureAllDetailResponse.from(mPic, tagWords, false, checkedList.get(i));
-            detailList.add(pictureAllDetailResponse);
+            Picture picture = picList.get(i);
+            List<String> tagWords = tagWordsMap.getOrDefault(picture.getId(), new ArrayList<>());
+            detailList.add(makeDetailResponse(picture, tagWords, false, checkedList.get(i)));
         }
         return detailList;
     }
 
-    // Weekly Top 업데이트
+    // Weekly Top 업데이트 (DB 에서 다시 계산한 지난 주 순위를 테이블에 기록, 같은 결과면 건너뛴다)
     @Scheduled(cron = "5 0 0 * * 2", zone = "Asia/Seoul")
     public void updateWeeklyTop() {
-        weeklyTopPictureRepository.deleteAllInBatch();
-        // 일주일 전 월요일 KST 기준 시간
-        LocalDate oneWeekAgoMonday = LocalDate.now().minusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-        Instant mondayOneWeekAgoKST = oneWeekAgoMonday.atStartOfDay(ZoneId.of("Asia/Seoul")).toInstant();
-
-        // 일주일 전 일요일 KST 기준 시간
-        LocalDate oneWeekAgoSunday = LocalDate.now().minusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
-        Instant sundayOneWeekAgoKST = oneWeekAgoSunday.atStartOfDay(ZoneId.of("Asia/Seoul")).toInstant().plus(Duration.ofDays(1)).minusSeconds(1);
-
-        List<Picture> picList = pictureRepository.findTop50ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(true, true,
-                mondayOneWeekAgoKST, sundayOneWeekAgoKST);
-
-        System.out.println("위클리 업데이트");
-        System.out.println(picList);
-
-        for (Picture picture : picList) {
-            WeeklyTopPicture weeklyTopPicture = new WeeklyTopPicture();
-            weeklyTopPicture.setPictureId(picture.getId());
-            weeklyTopPictureRepository.save(weeklyTopPicture);
+        topPictureRanking.evictExpired();
+        List<Long> pictureIds = topPictureRanking.getPreviousTop(TopPictureRanking.Period.WEEKLY);
+        List<Long> savedIds = new ArrayList<>();
+        for (WeeklyTopPicture weeklyTopPicture : weeklyTopPictureRepository.findAll()) {
+            savedIds.add(weeklyTopPicture.getPictureId());
+        }
+        if (pictureIds.equals(savedIds)) {
+            return;
+        }
+        log.info("Weekly Top 업데이트 : {}", pictureIds);
+        List<WeeklyTopPicture> weeklyTopPictures = new ArrayList<>();
+        for (Long pictureId : pictureIds) {
+            weeklyTopPictures.add(WeeklyTopPicture.builder().pictureId(pictureId).build());
+        }
+        weeklyTopPictureRepository.replaceAll(weeklyTopPictures);
+        topListSnapshotCache.invalidateWeekly();
+        try {
+            getWeeklyTopListWithoutLogin();
+        } catch (Exception e) {
+            log.error("weekly top snapshot 생성 실패 : {}", e.getMessage());
         }
     }
 
-    // Monthly Top 업데이트
+    // Monthly Top 업데이트 (DB 에서 다시 계산한 지난 달 순위를 테이블에 기록, 같은 결과면 건너뛴다)
     @Scheduled(cron = "0 0 0 1 * *", zone = "Asia/Seoul")
     public void updateMonthlyTop() {
-        monthlyTopPictureRepository.deleteAllInBatch();
+        topPictureRanking.evictExpired();
+        List<Long> pictureIds = topPictureRanking.getPreviousTop(TopPictureRanking.Period.MONTHLY);
+        List<Long> savedIds = new ArrayList<>();
+        for (MonthlyTopPicture monthlyTopPicture : monthlyTopPictureRepository.findAll()) {
+            savedIds.add(monthlyTopPicture.getPictureId());
+        }
+        if (pictureIds.equals(savedIds)) {
+            return;
+        }
+        log.info("Monthly Top 업데이트 : {}", pictureIds);
+        List<MonthlyTopPicture> monthlyTopPictures = new ArrayList<>();
+        for (Long pictureId : pictureIds) {
+            monthlyTopPictures.add(MonthlyTopPicture.builder().pictureId(pictureId).build());
+        }
+        monthlyTopPictureRepository.replaceAll(monthlyTopPictures);
+        topListSnapshotCache.invalidateMonthly();
+        try {
+            getMonthlyTopListWithoutLogin();
+        } catch (Exception e) {
+            log.error("monthly top snapshot 생성 실패 : {}", e.getMessage());
+        }
+    }
 
-        // 지난 달 1일 KST 기준 시간
-        LocalDate firstDayOfLastMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
-        Instant firstDayOfLastMonthKST = firstDayOfLastMonth.atStartOfDay(ZoneId.of("Asia/Seoul")).toInstant();
+    // 지난 기간 이미지들의 좋아요 변화도 순위 테이블에 반영되도록 매 시간 checkpoint
+    @Scheduled(cron = "0 30 * * * *", zone = "Asia/Seoul")
+    public void checkpointTopPictures() {
+        updateWeeklyTop();
+        updateMonthlyTop();
+    }
 
-        // 지난 달 마지막 날짜 KST 기준 시간
-        LocalDate lastDayOfLastMonth = LocalDate.now().minusMonths(1).with(TemporalAdjusters.lastDayOfMonth());
-        Instant lastDayOfLastMonthKST = lastDayOfLastMonth.atStartOfDay(ZoneId.of("Asia/Seoul")).toInstant().plus(Duration.ofDays(1)).minusSeconds(1);
+    // snapshot 의 좋아요 수가 너무 오래 멈춰있지 않고, 다른 서버에서 삭제된 이미지가 빠지도록 주기적으로 다시 만든다.
+    @Scheduled(fixedDelayString = "${top-list.refresh-delay-millis:60000}",
+            initialDelayString = "${top-list.refresh-delay-millis:60000}")
+    public void refreshTopListSnapshots() {
+        topListSnapshotCache.invalidateWeekly();
+        topListSnapshotCache.invalidateMonthly();
+        try {
+            getWeeklyTopListWithoutLogin();
+            getMonthlyTopListWithoutLogin();
+        } catch (Exception e) {
+            log.error("top snapshot 갱신 실패 : {}", e.getMessage());
+        }
+    }
 
-        List<Picture> picList = pictureRepository.findTop50ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(true, true,
-                firstDayOfLastMonthKST, lastDayOfLastMonthKST);
+    // 응답의 좋아요 수는 아직 DB 에 반영되지 않은 증감분까지 더한 값
+    private PictureAllDetailResponse makeDetailResponse(Picture picture, List<String> tagWords, Boolean isLoved, String makerName) {
+        PictureAllDetailResponse response = PictureAllDetailResponse.from(picture, tagWords, isLoved, makerName);
+        response.setLoveCount(getLoveCount(picture));
+        return response;
+    }
 
-        System.out.println(picList);
+    public Long getLoveCount(Picture picture) {
+        return loveCountAccumulator.currentLoveCount(picture.getId(), picture.getLoveCount());
+    }
 
-        for (Picture picture : picList) {
-            MonthlyTopPicture monthlyTopPicture = new MonthlyTopPicture();
-            monthlyTopPicture.setPictureId(picture.getId());
-            monthlyTopPictureRepository.save(monthlyTopPicture);
+    // 여러 이미지의 태그들을 한 번의 쿼리로 조회 (이미지 id -> 정렬된 태그 목록)
+    public Map<Long, List<String>> getTagWordsMap(List<Picture> pictures) {
+        Map<Long, List<String>> tagWordsMap = new HashMap<>();
+        if (pictures.isEmpty()) {
+            return tagWordsMap;
+        }
+        List<Long> pictureIds = new ArrayList<>();
+        for (Picture picture : pictures) {
+            pictureIds.add(picture.getId());
         }
+        for (PictureTagWord pictureTagWord : pictureTagRepository.findTagWordsByPictureIdIn(pictureIds)) {
+            tagWordsMap.computeIfAbsent(pictureTagWord.getPictureId(), id -> new ArrayList<>())
+                    .add(pictureTagWord.getWord());
+        }
+        for (List<String> words : tagWordsMap.values()) {
+            Collections.sort(words);
+        }
+        return tagWordsMap;
     }
 
     public List<String> getTagWords(Picture picture) {
@@ -388,15 +443,53 @@ public class PictureService {
     }
 
     // 이미지 삭제할 때 이미지의 태그들의 tag count 낮추기
+    // UPDATE 한 번으로 (동시에 지워도 서로 덮어쓰지 않음)
     public void minusTagCount(Picture picture) {
-        Set<PictureTag> pTags = picture.getPictureTags();
-        for (PictureTag pTag : pTags) {
-            Tag tag = pTag.getTag();
-            if (tag.getTagCount() > 0) {
-                tag.setTagCount(tag.getTagCount() - 1);
+        List<Long> tagIds = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        for (PictureTag pTag : picture.getPictureTags()) {
+            tagIds.add(pTag.getTag().getId());
+            words.add(pTag.getTag().getWord());
+        }
+        if (!tagIds.isEmpty()) {
+            tagRepository.decreaseTagCount(tagIds);
+            randomTagSampler.decrease(words);
+        }
+    }
+
+    // 여러 이미지의 태그 수를 한 번에 낮추기 (한 태그가 여러 이미지에 달려있으면 그 수만큼)
+    // 줄일 양이 같은 태그끼리 UPDATE 한 번
+    public void minusTagCounts(List<Long> pictureIds) {
+        Map<Long, Long> amountsByTagId = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        for (PictureTagId pictureTagId : pictureTagRepository.findTagIdsByPictureIdIn(pictureIds)) {
+            amountsByTagId.merge(pictureTagId.getTagId(), 1L, Long::sum);
+            words.add(pictureTagId.getWord());
+        }
+        Map<Long, List<Long>> tagIdsByAmount = new TreeMap<>();
+        for (Map.Entry<Long, Long> entry : amountsByTagId.entrySet()) {
+            tagIdsByAmount.computeIfAbsent(entry.getValue(), amount -> new ArrayList<>()).add(entry.getKey());
+        }
+        for (Map.Entry<Long, List<Long>> entry : tagIdsByAmount.entrySet()) {
+            tagRepository.decreaseTagCountBy(entry.getKey(), entry.getValue());
+        }
+        randomTagSampler.decrease(words);
+    }
+
+    // 여러 이미지를 한 번의 쿼리로 조회 (요청한 id 순서 유지, 없는 이미지는 제외)
+    public List<Picture> findPicturesByIds(List<Long> pictureIds) {
+        Map<Long, Picture> pictureMap = new HashMap<>();
+        for (Picture picture : pictureRepository.findAllById(pictureIds)) {
+            pictureMap.put(picture.getId(), picture);
+        }
+        List<Picture> pictures = new ArrayList<>();
+        for (Long pictureId : pictureIds) {
+            Picture picture = pictureMap.get(pictureId);
+            if (picture != null) {
+                pictures.add(picture);
             }
-            tagRepository.save(tag);
         }
+        return pictures;
     }
 
     public Picture findPictureById(Long pictureId) {
@@ -0,0 +1,216 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Tag;
+import D6B.D_discover_picture.picture.domain.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 랜덤 태그 추천용 (tag_count 가 minCount 이상인 태그들만 메모리에 유지)
+ * - 균등 추첨 : 단어 목록에서 바로 뽑기 (제거는 마지막 원소와 자리 바꿔서 O(1))
+ * - 인기 가중 추첨 (random-tag.weighted=true) : tag_count 비율로 뽑는 alias table (Vose)
+ *   태그 수가 바뀐 뒤 처음 뽑을 때 한 번 다시 만들고, 추첨은 O(1)
+ * 시작할 때 DB 에서 읽고, 이 서버의 이미지 저장/삭제 때의 태그 수 변화는 바로 반영한다.
+ * 다른 서버에서 바뀐 태그 수는 tag-sampler.refresh-delay-millis 마다 DB 에서 다시 읽어 맞춘다.
+ */
+@Slf4j
+@Component
+public class RandomTagSampler {
+    private final TagRepository tagRepository;
+    private final long minCount;
+    private final boolean weighted;
+    private final Supplier<Random> randomSupplier;
+
+    private final List<String> words = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<String, Long> counts = new HashMap<>();
+    private AliasTable aliasTable;
+    private boolean ready = false;
+
+    @Autowired
+    public RandomTagSampler(TagRepository tagRepository,
+                            @Value("${random-tag.min-count:10}") long minCount,
+                            @Value("${random-tag.weighted:false}") boolean weighted) {
+        this(tagRepository, minCount, weighted, ThreadLocalRandom::current);
+    }
+
+    RandomTagSampler(TagRepository tagRepository, long minCount, boolean weighted, Supplier<Random> randomSupplier) {
+        this.tagRepository = tagRepository;
+        this.minCount = minCount;
+        this.weighted = weighted;
+        this.randomSupplier = randomSupplier;
+    }
+
+    // 대상 태그들을 DB 에서 다시 읽는다. (읽는 동안에는 lock 을 잡지 않고, 바꿔 끼울 때만)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Tag> tags = tagRepository.findByTagCountGreaterThanEqual(minCount);
+        int size;
+        synchronized (this) {
+            words.clear();
+            positions.clear();
+            counts.clear();
+            aliasTable = null;
+            for (Tag tag : tags) {
+                put(tag.getWord(), tag.getTagCount());
+            }
+            ready = true;
+            size = words.size();
+        }
+        log.info("랜덤 태그 후보 {}개", size);
+    }
+
+    // 다른 서버에서 바뀐 태그 수를 맞춘다.
+    @Scheduled(fixedDelayString = "${tag-sampler.refresh-delay-millis:60000}",
+            initialDelayString = "${tag-sampler.refresh-delay-millis:60000}")
+    public void refresh() {
+        synchronized (this) {
+            if (!ready) {
+                return;
+            }
+        }
+        rebuild();
+    }
+
+    // 태그 저장 직후의 tag_count 반영 (upsert 후 다시 읽은 값)
+    public synchronized void update(Collection<Tag> tags) {
+        if (!ready) {
+            return;
+        }
+        for (Tag tag : tags) {
+            if (tag.getTagCount() != null && tag.getTagCount() >= minCount) {
+                put(tag.getWord(), tag.getTagCount());
+            } else {
+                remove(tag.getWord());
+            }
+        }
+    }
+
+    // 이미지 삭제로 태그 수가 하나씩 줄었을 때 (후보가 아닌 태그는 줄어도 후보가 될 일이 없음)
+    public synchronized void decrease(Collection<String> tagWords) {
+        if (!ready) {
+            return;
+        }
+        for (String word : tagWords) {
+            Long count = counts.get(word);
+            if (count == null) {
+                continue;
+            }
+            if (count - 1 >= minCount) {
+                put(word, count - 1);
+            } else {
+                remove(word);
+            }
+        }
+    }
+
+    // 서로 다른 태그 size 개 (후보가 그보다 적으면 전부 섞어서)
+    public synchronized List<String> draw(int size) {
+        if (!ready) {
+            rebuild();
+        }
+        Random random = randomSupplier.get();
+        if (words.size() <= size) {
+            List<String> all = new ArrayList<>(words);
+            Collections.shuffle(all, random);
+            return all;
+        }
+        LinkedHashSet<String> picked = new LinkedHashSet<>();
+        if (weighted) {
+            if (aliasTable == null) {
+                aliasTable = new AliasTable(words, counts);
+            }
+            // 한두 태그에 쏠려 있으면 중복만 계속 나올 수 있으니 횟수 제한 후 균등 추첨으로 채운다.
+            for (int i = 0; i < size * 10 && picked.size() < size; i++) {
+                picked.add(words.get(aliasTable.next(random)));
+            }
+        }
+        while (picked.size() < size) {
+            picked.add(words.get(random.nextInt(words.size())));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    private void put(String word, Long count) {
+        if (!counts.containsKey(word)) {
+            positions.put(word, words.size());
+            words.add(word);
+        }
+        counts.put(word, count);
+        aliasTable = null;
+    }
+
+    private void remove(String word) {
+        Integer position = positions.remove(word);
+        if (position == null) {
+            return;
+        }
+        counts.remove(word);
+        String last = words.remove(words.size() - 1);
+        if (position < words.size()) {
+            words.set(position, last);
+            positions.put(last, position);
+        }
+        aliasTable = null;
+    }
+
+    // Vose alias method : 만드는 데 O(n), 뽑는 데 O(1)
+    static class AliasTable {
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(List<String> words, Map<String, Long> counts) {
+            int n = words.size();
+            probability = new double[n];
+            alias = new int[n];
+            double total = 0;
+            for (String word : words) {
+                total += counts.get(word);
+            }
+            double[] scaled = new double[n];
+            Deque<Integer> small = new ArrayDeque<>();
+            Deque<Integer> large = new ArrayDeque<>();
+            for (int i = 0; i < n; i++) {
+                scaled[i] = counts.get(words.get(i)) * n / total;
+                if (scaled[i] < 1.0) {
+                    small.push(i);
+                } else {
+                    large.push(i);
+                }
+            }
+            while (!small.isEmpty() && !large.isEmpty()) {
+                int less = small.pop();
+                int more = large.pop();
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1.0;
+                if (scaled[more] < 1.0) {
+                    small.push(more);
+                } else {
+                    large.push(more);
+                }
+            }
+            // 부동소수 오차로 남은 것들은 확률 1
+            while (!large.isEmpty()) {
+                probability[large.pop()] = 1.0;
+            }
+            while (!small.isEmpty()) {
+                probability[small.pop()] = 1.0;
+            }
+        }
+
+        int next(Random random) {
+            int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+    }
+}
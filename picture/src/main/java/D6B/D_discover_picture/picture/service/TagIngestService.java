@@ -0,0 +1,79 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Tag;
+import D6B.D_discover_picture.picture.domain.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * 업로드된 이미지의 태그들을 한 번에 저장
+ * 1. 태그 upsert 를 JDBC batch 로 (없으면 tag_count 1 로 insert, 있으면 tag_count + 1)
+ *    - tag.word unique index 덕분에 같은 새 태그가 동시에 올라와도 행은 하나만 생긴다.
+ * 2. IN 쿼리 한 번으로 태그 id 조회
+ * 3. picture_tag 행들을 JDBC batch 로 insert
+ */
+@Slf4j
+@Service
+public class TagIngestService {
+    private static final String UPSERT_TAG_SQL =
+            "INSERT INTO tag (word, tag_count) VALUES (?, 1) ON DUPLICATE KEY UPDATE tag_count = tag_count + 1";
+    private static final String INSERT_PICTURE_TAG_SQL =
+            "INSERT INTO picture_tag (picture_id, tag_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagRepository tagRepository;
+
+    @Autowired
+    public TagIngestService(JdbcTemplate jdbcTemplate, TagRepository tagRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagRepository = tagRepository;
+    }
+
+    // 저장된 태그들 반환 (word 순)
+    @Transactional
+    public List<Tag> attachTags(Long pictureId, List<String> imageTags) {
+        // 한 이미지에 같은 태그는 한 번만, 여러 업로드가 항상 같은 순서로 잠그도록 정렬 (deadlock 방지)
+        TreeSet<String> words = new TreeSet<>();
+        for (String word : imageTags) {
+            if (word != null && !word.isBlank()) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> sortedWords = new ArrayList<>(words);
+
+        jdbcTemplate.batchUpdate(UPSERT_TAG_SQL, sortedWords, sortedWords.size(),
+                (ps, word) -> ps.setString(1, word));
+
+        // DB collation 이 대소문자를 구분하지 않으면 다른 표기의 기존 태그로 합쳐진다.
+        List<Tag> found = tagRepository.findByWordIn(sortedWords);
+        Map<String, Tag> tagsByWord = new HashMap<>();
+        Map<String, Tag> tagsByWordIgnoreCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Tag tag : found) {
+            tagsByWord.put(tag.getWord(), tag);
+            tagsByWordIgnoreCase.putIfAbsent(tag.getWord(), tag);
+        }
+        Map<Long, Tag> tagsById = new LinkedHashMap<>();
+        for (String word : sortedWords) {
+            Tag tag = tagsByWord.containsKey(word) ? tagsByWord.get(word) : tagsByWordIgnoreCase.get(word);
+            if (tag == null) {
+                throw new IllegalStateException("태그 저장 실패 : " + word);
+            }
+            tagsById.putIfAbsent(tag.getId(), tag);
+        }
+        List<Tag> tags = new ArrayList<>(tagsById.values());
+
+        jdbcTemplate.batchUpdate(INSERT_PICTURE_TAG_SQL, tags, tags.size(), (ps, tag) -> {
+            ps.setLong(1, pictureId);
+            ps.setLong(2, tag.getId());
+        });
+        return tags;
+    }
+}
@@ -0,0 +1,503 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import D6B.D_discover_picture.picture.domain.PictureTagRepository;
+import D6B.D_discover_picture.picture.domain.PictureTagWord;
+import D6B.D_discover_picture.picture.domain.PictureVisibility;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 태그 단어 -> 이미지 id 역색인 (메모리)
+ * - 단어마다 이미지 id 를 정렬된 배열로 들고 있다. (가장 큰 id 크기의 BitSet 대신 실제로 달린 이미지 수만큼만 차지)
+ * - 단어는 대소문자 구분 없이 정렬된 map 에 두어 접두어 검색은 subMap 으로 처리한다.
+ * - 포함 검색은 2글자 조각 -> 단어 색인으로 후보 단어만 확인한다. (1글자 검색어만 전체 단어를 훑음)
+ * - 보이는 이미지인지는 결과 id 마다 공개 이미지 / 본인 비공개 이미지 배열에서 이진 탐색한다. (검색마다 복사하지 않음)
+ * - 결과는 id 내림차순(최신순)으로, cursor(마지막으로 받은 id) 보다 작은 id 부터 잘라서 준다.
+ * 시작할 때 DB 에서 만들고, 이 서버의 이미지 저장/삭제/공개 여부 변경은 commit 된 뒤에 반영한다.
+ * 다른 서버에서 생긴 변경은 refresh-delay-millis 마다 지난 갱신 이후 updated_at 이 바뀐 이미지만 DB 에서 읽고, 색인에 없는 이미지의 태그만 더해서 맞춘다.
+ * 테이블 전체를 읽는 것은 하루 한 번 다시 만들 때뿐이고, 삭제된 이미지 id 는 단어 쪽에 남아 있다가(검색 결과에서는 걸러짐) 그때 정리된다.
+ */
+@Slf4j
+@Component
+public class TagSearchIndex {
+    public enum MatchMode { EXACT, PREFIX, CONTAINS }
+
+    private static final int GRAM = 2;
+    private static final int REFRESH_CHUNK = 1000;
+    // 서버 간 시계 차이, 늦게 commit 된 트랜잭션을 놓치지 않도록 지난 갱신 시각보다 조금 앞에서부터 읽는다. (여러 번 적용해도 같음)
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+    private final PictureRepository pictureRepository;
+    private final PictureTagRepository pictureTagRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // rebuild / refresh 는 한 번에 하나만
+    private final Object syncLock = new Object();
+    private State state = new State();
+    // rebuild / refresh 가 DB 를 읽는 동안 이 서버에서 생긴 변경 (새로 읽은 상태에 다시 적용)
+    private List<Consumer<State>> changesDuringSync = null;
+    // 이 시각 이후에 바뀐 이미지만 refresh 에서 다시 읽는다. (syncLock 안에서만)
+    private Instant refreshedUntil;
+    private volatile boolean ready = false;
+
+    @Autowired
+    public TagSearchIndex(PictureRepository pictureRepository, PictureTagRepository pictureTagRepository) {
+        this.pictureRepository = pictureRepository;
+        this.pictureTagRepository = pictureTagRepository;
+    }
+
+    @Getter
+    public static class Page {
+        private final List<Long> pictureIds;
+        // 다음 페이지 요청에 쓸 cursor, 마지막 페이지면 null
+        private final Long nextCursor;
+
+        private Page(List<Long> pictureIds, Long nextCursor) {
+            this.pictureIds = pictureIds;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    // 색인을 DB 에서 다시 만든다. (읽는 동안에도 검색은 이전 색인으로)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tag-search.rebuild-cron:0 0 4 * * *}", zone = "Asia/Seoul")
+    public void rebuild() {
+        synchronized (syncLock) {
+            Instant started = Instant.now();
+            startSync();
+            State fresh = new State();
+            try {
+                for (PictureVisibility visibility : pictureRepository.findAliveVisibilities()) {
+                    fresh.setVisibility(visibility.getId(), visibility.getIsPublic() == Boolean.TRUE, visibility.getMakerUid());
+                    fresh.indexedPictures.add(visibility.getId());
+                }
+                for (PictureTagWord tagWord : pictureTagRepository.findAliveTagWords()) {
+                    fresh.addWord(tagWord.getPictureId(), tagWord.getWord());
+                }
+            } catch (RuntimeException e) {
+                finishSync(null);
+                throw e;
+            }
+            finishSync(fresh);
+            refreshedUntil = started.minus(REFRESH_OVERLAP);
+            ready = true;
+            log.info("태그 검색 색인 생성 : 단어 {}개, 공개 이미지 {}개", fresh.postings.size(), fresh.publicPictures.size());
+        }
+    }
+
+    // 다른 서버에서 바뀐 공개 여부, 삭제, 새 이미지를 DB 에서 가져와 맞춘다. (updated_at 색인으로 바뀐 행만)
+    @Scheduled(fixedDelayString = "${tag-search.refresh-delay-millis:60000}",
+            initialDelayString = "${tag-search.refresh-delay-millis:60000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        synchronized (syncLock) {
+            Instant started = Instant.now();
+            startSync();
+            List<PictureVisibility> changed;
+            List<Long> missing = new ArrayList<>();
+            List<PictureTagWord> tagWords = new ArrayList<>();
+            try {
+                changed = pictureRepository.findVisibilitiesUpdatedAfter(refreshedUntil);
+                lock.readLock().lock();
+                try {
+                    for (PictureVisibility visibility : changed) {
+                        if (visibility.getIsAlive() == Boolean.TRUE && !state.indexedPictures.contains(visibility.getId())) {
+                            missing.add(visibility.getId());
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                for (int from = 0; from < missing.size(); from += REFRESH_CHUNK) {
+                    tagWords.addAll(pictureTagRepository.findTagWordsByPictureIdIn(
+                            missing.subList(from, Math.min(from + REFRESH_CHUNK, missing.size()))));
+                }
+            } catch (RuntimeException e) {
+                finishSync(null);
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                for (PictureVisibility visibility : changed) {
+                    state.clearVisibility(visibility.getId(), visibility.getMakerUid());
+                    if (visibility.getIsAlive() == Boolean.TRUE) {
+                        state.setVisibility(visibility.getId(), visibility.getIsPublic() == Boolean.TRUE, visibility.getMakerUid());
+                    }
+                }
+                for (PictureTagWord tagWord : tagWords) {
+                    state.addWord(tagWord.getPictureId(), tagWord.getWord());
+                }
+                for (Long pictureId : missing) {
+                    state.indexedPictures.add(pictureId);
+                }
+                replayChanges(state);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            refreshedUntil = started.minus(REFRESH_OVERLAP);
+            if (!missing.isEmpty()) {
+                log.info("태그 검색 색인 갱신 : 바뀐 이미지 {}개, 새 이미지 {}개", changed.size(), missing.size());
+            }
+        }
+    }
+
+    // 새 이미지 추가 (commit 된 뒤에)
+    public void add(Long pictureId, boolean isPublic, String makerUid, Collection<String> words) {
+        List<String> copied = new ArrayList<>(words);
+        AfterCommit.run(() -> apply(target -> {
+            target.setVisibility(pictureId, isPublic, makerUid);
+            for (String word : copied) {
+                target.addWord(pictureId, word);
+            }
+            target.indexedPictures.add(pictureId);
+        }));
+    }
+
+    // 공개 여부 변경 (commit 된 뒤에)
+    public void updateVisibility(Long pictureId, boolean isPublic, String makerUid) {
+        AfterCommit.run(() -> apply(target -> {
+            target.clearVisibility(pictureId, makerUid);
+            target.setVisibility(pictureId, isPublic, makerUid);
+        }));
+    }
+
+    // 삭제된 이미지는 보이지 않게만 한다. (단어 쪽에 남은 id 는 검색 결과에서 걸러짐)
+    public void remove(Long pictureId, String makerUid) {
+        AfterCommit.run(() -> apply(target -> target.clearVisibility(pictureId, makerUid)));
+    }
+
+    /**
+     * 태그 검색
+     * @param keywords  검색어들
+     * @param matchAll  true 면 모든 검색어에 걸리는 이미지(AND), false 면 하나라도 걸리는 이미지(OR)
+     * @param matchMode 검색어와 태그 단어 비교 방법 (일치, 접두어, 포함)
+     * @param viewerUid 로그인 사용자 uid (본인 비공개 이미지도 보임), 비로그인이면 null
+     * @param cursor    이전 페이지의 nextCursor, 첫 페이지면 null
+     * @param size      페이지 크기
+     */
+    public Page search(List<String> keywords, boolean matchAll, MatchMode matchMode, String viewerUid, Long cursor, int size) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            SortedIds result = null;
+            for (String keyword : keywords) {
+                if (keyword == null || keyword.isBlank()) {
+                    continue;
+                }
+                SortedIds matched = match(keyword.trim(), matchMode);
+                if (result == null) {
+                    result = matched;
+                } else if (matchAll) {
+                    result = result.and(matched);
+                } else {
+                    result = result.or(matched);
+                }
+            }
+            if (result == null) {
+                return new Page(new ArrayList<>(), null);
+            }
+            return page(result, viewerUid, cursor, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page page(SortedIds result, String viewerUid, Long cursor, int size) {
+        SortedIds privatePictures = viewerUid == null ? null : state.privatePicturesByMaker.get(viewerUid);
+        List<Long> pictureIds = new ArrayList<>();
+        Long nextCursor = null;
+        int index = cursor == null ? result.size - 1 : result.countLessThan(cursor) - 1;
+        for (; index >= 0; index--) {
+            long id = result.ids[index];
+            if (!state.publicPictures.contains(id) && (privatePictures == null || !privatePictures.contains(id))) {
+                continue;
+            }
+            if (pictureIds.size() >= size) {
+                nextCursor = pictureIds.get(pictureIds.size() - 1);
+                break;
+            }
+            pictureIds.add(id);
+        }
+        return new Page(pictureIds, nextCursor);
+    }
+
+    // 검색어에 걸리는 단어들의 id 를 합친 결과 (EXACT 는 색인의 배열을 그대로, 읽기만 한다)
+    private SortedIds match(String keyword, MatchMode matchMode) {
+        if (matchMode == MatchMode.EXACT) {
+            SortedIds ids = state.postings.get(keyword);
+            return ids == null ? SortedIds.EMPTY : ids;
+        }
+        if (matchMode == MatchMode.PREFIX) {
+            return SortedIds.union(state.postings.subMap(keyword, true, keyword + Character.MAX_VALUE, true).values());
+        }
+        List<SortedIds> matched = new ArrayList<>();
+        for (String word : state.wordsContaining(keyword.toLowerCase(Locale.ROOT))) {
+            matched.add(state.postings.get(word));
+        }
+        return SortedIds.union(matched);
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (changesDuringSync != null) {
+                changesDuringSync.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void startSync() {
+        lock.writeLock().lock();
+        try {
+            changesDuringSync = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 새로 읽은 상태로 바꾸고(실패했으면 null), 읽는 동안 생긴 변경을 다시 적용한다. (모든 변경은 여러 번 적용해도 같음)
+    private void finishSync(State fresh) {
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                replayChanges(fresh);
+                state = fresh;
+            }
+            changesDuringSync = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replayChanges(State target) {
+        for (Consumer<State> change : changesDuringSync) {
+            change.accept(target);
+        }
+        changesDuringSync = null;
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * 색인 한 벌 (접근은 lock 으로)
+     * 단어 key 는 처음 들어온 대소문자 그대로, 조각 색인은 소문자 단어로 둔다.
+     */
+    private static class State {
+        private final TreeMap<String, SortedIds> postings = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+        private final SortedIds indexedPictures = new SortedIds();
+        private SortedIds publicPictures = new SortedIds();
+        private Map<String, SortedIds> privatePicturesByMaker = new HashMap<>();
+
+        private void addWord(Long pictureId, String word) {
+            if (pictureId == null || word == null) {
+                return;
+            }
+            SortedIds ids = postings.get(word);
+            if (ids == null) {
+                ids = new SortedIds();
+                postings.put(word, ids);
+                String lowerWord = word.toLowerCase(Locale.ROOT);
+                for (String gram : grams(lowerWord)) {
+                    wordsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(lowerWord);
+                }
+            }
+            ids.add(pictureId);
+        }
+
+        private void setVisibility(Long pictureId, boolean isPublic, String makerUid) {
+            if (pictureId == null) {
+                return;
+            }
+            if (isPublic) {
+                publicPictures.add(pictureId);
+            } else {
+                privatePicturesByMaker.computeIfAbsent(makerUid, uid -> new SortedIds()).add(pictureId);
+            }
+        }
+
+        private void clearVisibility(Long pictureId, String makerUid) {
+            if (pictureId == null) {
+                return;
+            }
+            publicPictures.remove(pictureId);
+            SortedIds privatePictures = privatePicturesByMaker.get(makerUid);
+            if (privatePictures != null) {
+                privatePictures.remove(pictureId);
+            }
+        }
+
+        // 소문자 검색어를 포함하는 단어들, 조각이 있으면 가장 적은 단어가 걸린 조각의 단어들만 확인한다.
+        private Collection<String> wordsContaining(String keyword) {
+            Collection<String> candidates = null;
+            for (String gram : grams(keyword)) {
+                Set<String> words = wordsByGram.getOrDefault(gram, Collections.emptySet());
+                if (candidates == null || words.size() < candidates.size()) {
+                    candidates = words;
+                }
+            }
+            if (candidates == null) {
+                candidates = postings.keySet();
+            }
+            List<String> matched = new ArrayList<>();
+            for (String word : candidates) {
+                if (word.toLowerCase(Locale.ROOT).contains(keyword)) {
+                    matched.add(word);
+                }
+            }
+            return matched;
+        }
+
+        private static List<String> grams(String word) {
+            List<String> grams = new ArrayList<>();
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                grams.add(word.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+
+    /**
+     * 오름차순으로 정렬된 이미지 id 배열
+     * 새 이미지는 id 가 가장 크므로 대부분 끝에 붙는다.
+     */
+    static class SortedIds {
+        static final SortedIds EMPTY = new SortedIds(new long[0], 0);
+
+        private long[] ids;
+        private int size;
+
+        SortedIds() {
+            this(new long[4], 0);
+        }
+
+        private SortedIds(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insert(-position - 1, id);
+            } else {
+                insert(size, id);
+            }
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // id 보다 작은 값의 개수
+        int countLessThan(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        // 작은 쪽 id 를 큰 쪽에서 이진 탐색
+        SortedIds and(SortedIds other) {
+            SortedIds small = size <= other.size ? this : other;
+            SortedIds large = small == this ? other : this;
+            long[] result = new long[small.size];
+            int count = 0;
+            for (int i = 0; i < small.size; i++) {
+                if (large.contains(small.ids[i])) {
+                    result[count++] = small.ids[i];
+                }
+            }
+            return new SortedIds(result, count);
+        }
+
+        SortedIds or(SortedIds other) {
+            long[] result = new long[size + other.size];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < size || j < other.size) {
+                long next;
+                if (j >= other.size || (i < size && ids[i] < other.ids[j])) {
+                    next = ids[i++];
+                } else if (i >= size || other.ids[j] < ids[i]) {
+                    next = other.ids[j++];
+                } else {
+                    next = ids[i++];
+                    j++;
+                }
+                result[count++] = next;
+            }
+            return new SortedIds(result, count);
+        }
+
+        // 여러 배열을 한 번에 합친다. (하나씩 or 하면 단어 수만큼 다시 복사됨)
+        static SortedIds union(Collection<SortedIds> sets) {
+            int total = 0;
+            for (SortedIds set : sets) {
+                total += set.size;
+            }
+            long[] result = new long[total];
+            int offset = 0;
+            for (SortedIds set : sets) {
+                System.arraycopy(set.ids, 0, result, offset, set.size);
+                offset += set.size;
+            }
+            Arrays.sort(result);
+            int count = 0;
+            for (int i = 0; i < total; i++) {
+                if (count == 0 || result[count - 1] != result[i]) {
+                    result[count++] = result[i];
+                }
+            }
+            return new SortedIds(result, count);
+        }
+
+        private void insert(int position, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 오늘의 픽 : 공개된 살아있는 이미지 중 하루 동안 고정된 무작위 샘플
+ * - 날짜와 seed 로 난수를 만들어서 같은 날, 같은 seed 면 같은 샘플이 나온다.
+ * - id 범위 안에서 무작위 id 를 뽑아 IN 쿼리로 확인하고 공개된 살아있는 이미지만 남긴다. (테이블 전체를 보지 않음)
+ * - 빈 id 가 너무 많아 채우지 못하면 무작위 위치의 다음 이미지로 채운다.
+ * 매일 0시에 새로 뽑고, 날짜가 바뀐 뒤 처음 요청이 오면 그때도 새로 뽑는다.
+ */
+@Slf4j
+@Component
+public class TodayPickSampler {
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    // id 범위가 샘플 크기의 이 배수 이하면 범위 안 id 를 전부 가져와서 섞는다.
+    private static final int SMALL_RANGE_FACTOR = 4;
+    private static final int MAX_PROBE_ROUNDS = 5;
+
+    private final PictureRepository pictureRepository;
+    private final int sampleSize;
+    private final long seed;
+    private volatile Sample sample;
+
+    @Autowired
+    public TodayPickSampler(PictureRepository pictureRepository,
+                            @Value("${today-pick.size:50}") int sampleSize,
+                            @Value("${today-pick.seed:0}") long seed) {
+        this.pictureRepository = pictureRepository;
+        this.sampleSize = sampleSize;
+        this.seed = seed;
+    }
+
+    // 오늘의 픽 이미지 id 들 (뽑힌 순서)
+    public List<Long> getPictureIds() {
+        LocalDate today = LocalDate.now(ZONE);
+        Sample current = sample;
+        if (current == null || !current.day.equals(today)) {
+            current = refresh(today);
+        }
+        return current.pictureIds;
+    }
+
+    @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Seoul")
+    public void refreshToday() {
+        refresh(LocalDate.now(ZONE));
+    }
+
+    synchronized Sample refresh(LocalDate day) {
+        Sample current = sample;
+        if (current != null && current.day.equals(day)) {
+            return current;
+        }
+        try {
+            sample = new Sample(day, Collections.unmodifiableList(draw(day)));
+            log.info("{} 오늘의 픽 {}개 샘플링", day, sample.pictureIds.size());
+        } catch (Exception e) {
+            // 실패하면 이전 샘플(없으면 최신 이미지들)을 그대로 쓰고 다음 요청 때 다시 시도
+            log.error("오늘의 픽 샘플링 실패 : {}", e.getMessage());
+            if (current != null) {
+                return current;
+            }
+            return new Sample(day, pictureRepository.findTop50ByIsPublicAndIsAliveOrderByIdDesc(true, true)
+                    .stream().map(Picture::getId).collect(Collectors.toList()));
+        }
+        return sample;
+    }
+
+    List<Long> draw(LocalDate day) {
+        Long minId = pictureRepository.findMinPublicAliveId();
+        Long maxId = pictureRepository.findMaxPublicAliveId();
+        if (minId == null || maxId == null) {
+            return new ArrayList<>();
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ day.toEpochDay());
+        long range = maxId - minId + 1;
+
+        // 이미지가 적으면 전부 가져와서 섞기
+        if (range <= (long) sampleSize * SMALL_RANGE_FACTOR) {
+            List<Long> ids = new ArrayList<>(pictureRepository.findPublicAliveIdsFrom(minId, PageRequest.of(0, (int) range)));
+            for (int i = ids.size() - 1; i > 0; i--) {
+                Collections.swap(ids, i, random.nextInt(i + 1));
+            }
+            return new ArrayList<>(ids.subList(0, Math.min(sampleSize, ids.size())));
+        }
+
+        // 1. 무작위 id 를 한 번에 여러 개 확인 (살아있는 공개 이미지마다 뽑힐 확률이 같음)
+        LinkedHashSet<Long> picked = new LinkedHashSet<>();
+        for (int round = 0; round < MAX_PROBE_ROUNDS && picked.size() < sampleSize; round++) {
+            List<Long> probes = new ArrayList<>();
+            for (int i = 0; i < (sampleSize - picked.size()) * 2; i++) {
+                probes.add(random.nextLong(minId, maxId + 1));
+            }
+            Set<Long> found = new HashSet<>(pictureRepository.findPublicAliveIdsIn(probes));
+            for (Long probe : probes) {
+                if (found.contains(probe) && picked.size() < sampleSize) {
+                    picked.add(probe);
+                }
+            }
+        }
+
+        // 2. 그래도 모자라면 무작위 위치 다음의 이미지로 채우기
+        int attempts = (sampleSize - picked.size()) * 2;
+        for (int i = 0; i < attempts && picked.size() < sampleSize; i++) {
+            List<Long> next = pictureRepository.findPublicAliveIdsFrom(random.nextLong(minId, maxId + 1), PageRequest.of(0, 1));
+            if (!next.isEmpty()) {
+                picked.add(next.get(0));
+            }
+        }
+        return new ArrayList<>(picked);
+    }
+
+    static class Sample {
+        private final LocalDate day;
+        private final List<Long> pictureIds;
+
+        private Sample(LocalDate day, List<Long> pictureIds) {
+            this.day = day;
+            this.pictureIds = pictureIds;
+        }
+    }
+}
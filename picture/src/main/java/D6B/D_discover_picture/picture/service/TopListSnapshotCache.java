@@ -0,0 +1,98 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.controller.dto.PictureAllDetailResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Weekly / Monthly Top 목록의 비로그인용 응답을 미리 만들어 메모리에 들고 있는 캐시
+ * - 목록은 스케줄러(updateWeeklyTop / updateMonthlyTop)가 돌 때, 그리고 top-list.refresh-delay-millis 마다 다시 만든다.
+ * - 순위에 있는 이미지가 삭제되면 invalidate 된다. (요청을 받은 서버만이므로 다른 서버는 다음 refresh 까지 기다린다)
+ * - 응답 객체는 setter 가 있으므로 만들 때 복사해두고, 꺼낼 때도 복사본을 준다. (호출한 쪽이 바꿔도 snapshot 은 그대로)
+ */
+@Component
+public class TopListSnapshotCache {
+    private final Snapshot weekly = new Snapshot();
+    private final Snapshot monthly = new Snapshot();
+
+    public List<PictureAllDetailResponse> getWeekly(Supplier<List<PictureAllDetailResponse>> loader) {
+        return weekly.get(loader);
+    }
+
+    public List<PictureAllDetailResponse> getMonthly(Supplier<List<PictureAllDetailResponse>> loader) {
+        return monthly.get(loader);
+    }
+
+    public void invalidateWeekly() {
+        weekly.invalidate();
+    }
+
+    public void invalidateMonthly() {
+        monthly.invalidate();
+    }
+
+    // 해당 이미지가 들어있는 snapshot 만 무효화
+    public void invalidateIfContains(Long pictureId) {
+        if (weekly.contains(pictureId)) {
+            weekly.invalidate();
+        }
+        if (monthly.contains(pictureId)) {
+            monthly.invalidate();
+        }
+    }
+
+    private static class Snapshot {
+        private final AtomicLong version = new AtomicLong();
+        private volatile List<PictureAllDetailResponse> list;
+
+        List<PictureAllDetailResponse> get(Supplier<List<PictureAllDetailResponse>> loader) {
+            List<PictureAllDetailResponse> current = list;
+            if (current != null) {
+                return copy(current);
+            }
+            long loadingVersion = version.get();
+            List<PictureAllDetailResponse> loaded = copy(loader.get());
+            synchronized (this) {
+                // 만드는 도중 invalidate 되었다면 저장하지 않는다.
+                if (version.get() == loadingVersion) {
+                    list = loaded;
+                }
+            }
+            return copy(loaded);
+        }
+
+        synchronized void invalidate() {
+            version.incrementAndGet();
+            list = null;
+        }
+
+        boolean contains(Long pictureId) {
+            List<PictureAllDetailResponse> current = list;
+            if (current == null) {
+                return false;
+            }
+            for (PictureAllDetailResponse response : current) {
+                if (response.getPictureId().equals(pictureId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // 응답마다 새 객체 (태그 목록은 List.copyOf 로 바꿀 수 없게, 이미 그런 목록이면 그대로 쓴다)
+        private static List<PictureAllDetailResponse> copy(List<PictureAllDetailResponse> responses) {
+            List<PictureAllDetailResponse> copied = new ArrayList<>();
+            for (PictureAllDetailResponse response : responses) {
+                PictureAllDetailResponse copy = response.withLoveCheck(response.getLoveCheck());
+                copy.setPictureTags(List.copyOf(response.getPictureTags()));
+                copied.add(copy);
+            }
+            return Collections.unmodifiableList(copied);
+        }
+    }
+}
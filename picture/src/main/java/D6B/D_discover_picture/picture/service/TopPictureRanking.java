@@ -0,0 +1,226 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * 기간(주간 / 월간)별 좋아요 순위를 메모리에서 관리하는 랭킹 엔진
+ * - 기간마다 상위 CAPACITY 개의 이미지만 들고 있는다.
+ * - 좋아요 수 변경, 공개 여부 변경, 삭제 시 증분으로 갱신한다. (테이블 전체 재조회 X)
+ * - 처음 쓰이는 기간은 해당 기간에 만들어진 이미지만 한 번 조회해서 채운다.
+ * - 서버마다 자기에게 온 좋아요만 증분으로 보므로, 주기적으로(resync-delay-millis) DB 에서 다시 채워 서버 간 순위를 맞춘다.
+ * - 상위 CAPACITY 밖에서 잘린 이미지가 있는 기간은, 삭제 / 비공개로 빠진 자리가 생기면 다음 조회 때 DB 에서 다시 채운다.
+ * - 지난 기간 순위(Weekly / Monthly Top 테이블)는 메모리 대신 DB 에서 새로 계산해, 어느 서버가 기록해도 같은 결과가 되게 한다.
+ * - DB 에서 다시 채울 때는 아직 반영되지 않은 좋아요 증감분(LoveCountAccumulator)까지 더한 값으로 줄을 세운다.
+ * - DB 조회는 lock 밖에서 하고 바꿔 끼우는 것만 lock 안에서 한다. (조회 중에 들어온 변경은 다음 resync 에서 맞춰진다)
+ */
+@Slf4j
+@Component
+public class TopPictureRanking {
+    public static final int TOP_SIZE = 50;
+    private static final int CAPACITY = TOP_SIZE * 4;
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    public enum Period { WEEKLY, MONTHLY }
+
+    private final PictureRepository pictureRepository;
+    private final LoveCountAccumulator loveCountAccumulator;
+    private final Map<String, RankingWindow> windows = new HashMap<>();
+
+    @Autowired
+    public TopPictureRanking(PictureRepository pictureRepository, LoveCountAccumulator loveCountAccumulator) {
+        this.pictureRepository = pictureRepository;
+        this.loveCountAccumulator = loveCountAccumulator;
+    }
+
+    // 이번 주 실시간 순위
+    public List<Long> getCurrentTop(Period period, int size) {
+        return getWindow(period, currentStart(period)).top(size);
+    }
+
+    // 지난 기간(Weekly / Monthly Top 테이블 대상) 순위, DB 에서 새로 계산한다.
+    public List<Long> getPreviousTop(Period period) {
+        return reload(period, previousStart(period)).top(TOP_SIZE);
+    }
+
+    // 들고 있는 기간들을 DB 에서 다시 채운다. (다른 서버에 온 좋아요, 잘려나간 이미지 반영)
+    @Scheduled(fixedDelayString = "${ranking.resync-delay-millis:60000}",
+            initialDelayString = "${ranking.resync-delay-millis:60000}")
+    public void resync() {
+        List<RankingWindow> held;
+        synchronized (this) {
+            held = new ArrayList<>(windows.values());
+        }
+        for (RankingWindow window : held) {
+            reload(window.period, window.start);
+        }
+    }
+
+    // 좋아요 수, 공개 여부 등이 바뀐 이미지 반영
+    public void update(Picture picture, Long loveCount) {
+        for (RankingWindow window : windowsContaining(picture.getCreatedAt())) {
+            if (picture.getIsAlive() == Boolean.TRUE && picture.getIsPublic() == Boolean.TRUE) {
+                window.offer(picture.getId(), loveCount);
+            } else {
+                window.remove(picture.getId());
+            }
+        }
+    }
+
+    // 삭제된 이미지 반영
+    public synchronized void remove(Long pictureId) {
+        for (RankingWindow window : windows.values()) {
+            window.remove(pictureId);
+        }
+    }
+
+    // 지난 기간보다 오래된 기간은 버린다.
+    public synchronized void evictExpired() {
+        for (Period period : Period.values()) {
+            Instant oldest = previousStart(period);
+            windows.values().removeIf(window -> window.period == period && window.start.isBefore(oldest));
+        }
+    }
+
+    private List<RankingWindow> windowsContaining(Instant createdAt) {
+        List<RankingWindow> result = new ArrayList<>();
+        if (createdAt == null) {
+            return result;
+        }
+        for (Period period : Period.values()) {
+            for (Instant start : Arrays.asList(currentStart(period), previousStart(period))) {
+                if (!createdAt.isBefore(start) && createdAt.isBefore(end(period, start))) {
+                    result.add(getWindow(period, start));
+                }
+            }
+        }
+        return result;
+    }
+
+    private RankingWindow getWindow(Period period, Instant start) {
+        RankingWindow window;
+        synchronized (this) {
+            window = windows.get(key(period, start));
+        }
+        if (window == null || window.needsRefill()) {
+            window = reload(period, start);
+        }
+        return window;
+    }
+
+    // DB 에서 새 기간을 만들고(lock 없이) 들고 있던 것과 바꿔 끼운다.
+    private RankingWindow reload(Period period, Instant start) {
+        RankingWindow window = new RankingWindow(period, start, CAPACITY);
+        // 기간의 마지막 초까지 포함 (기존 updateWeeklyTop 과 같은 범위)
+        List<Picture> seed = pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                true, true, start, end(period, start).minusSeconds(1));
+        for (Picture picture : seed) {
+            window.offer(picture.getId(), loveCountAccumulator.currentLoveCount(picture.getId(), picture.getLoveCount()));
+        }
+        // 조회 결과가 꽉 찼으면 그 아래에 잘린 이미지가 있을 수 있다.
+        window.truncated |= seed.size() >= CAPACITY;
+        synchronized (this) {
+            windows.put(key(period, start), window);
+        }
+        log.debug("{} 랭킹 DB 재계산 : {} ({}개)", period, start, seed.size());
+        return window;
+    }
+
+    private static String key(Period period, Instant start) {
+        return period + "-" + start;
+    }
+
+    private static Instant currentStart(Period period) {
+        return start(period, LocalDate.now(KST));
+    }
+
+    private static Instant previousStart(Period period) {
+        LocalDate today = LocalDate.now(KST);
+        return start(period, period == Period.WEEKLY ? today.minusWeeks(1) : today.minusMonths(1));
+    }
+
+    private static Instant start(Period period, LocalDate date) {
+        LocalDate first = period == Period.WEEKLY
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : date.withDayOfMonth(1);
+        return first.atStartOfDay(KST).toInstant();
+    }
+
+    private static Instant end(Period period, Instant start) {
+        LocalDate first = LocalDate.ofInstant(start, KST);
+        LocalDate next = period == Period.WEEKLY ? first.plusWeeks(1) : first.plusMonths(1);
+        return next.atStartOfDay(KST).toInstant();
+    }
+
+    /**
+     * 한 기간의 상위 이미지들 (좋아요 수 내림차순, 같으면 id 오름차순)
+     * capacity 를 넘으면 가장 낮은 이미지를 버린다.
+     * 버린 적이 있는데 빠지는 이미지가 생기면, 그 자리를 메울 후보를 모르므로 refill 이 필요하다고 표시한다.
+     */
+    static class RankingWindow {
+        private final Period period;
+        private final Instant start;
+        private final int capacity;
+        private final Map<Long, Long> loveCounts = new HashMap<>();
+        private boolean truncated = false;
+        private boolean refill = false;
+        private final TreeSet<long[]> ranking = new TreeSet<>((a, b) -> a[1] != b[1]
+                ? Long.compare(b[1], a[1])
+                : Long.compare(a[0], b[0]));
+
+        RankingWindow(Period period, Instant start, int capacity) {
+            this.period = period;
+            this.start = start;
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(Long pictureId, Long loveCount) {
+            long count = loveCount == null ? 0L : loveCount;
+            Long previous = loveCounts.get(pictureId);
+            if (previous != null) {
+                ranking.remove(new long[]{pictureId, previous});
+            } else if (ranking.size() >= capacity && count <= ranking.last()[1]) {
+                truncated = true;
+                return;
+            }
+            loveCounts.put(pictureId, count);
+            ranking.add(new long[]{pictureId, count});
+            if (ranking.size() > capacity) {
+                long[] lowest = ranking.pollLast();
+                loveCounts.remove(lowest[0]);
+                truncated = true;
+            }
+        }
+
+        synchronized void remove(Long pictureId) {
+            Long previous = loveCounts.remove(pictureId);
+            if (previous != null) {
+                ranking.remove(new long[]{pictureId, previous});
+                refill |= truncated;
+            }
+        }
+
+        synchronized boolean needsRefill() {
+            return refill;
+        }
+
+        synchronized List<Long> top(int size) {
+            List<Long> pictureIds = new ArrayList<>();
+            for (long[] entry : ranking) {
+                if (pictureIds.size() >= size) {
+                    break;
+                }
+                pictureIds.add(entry[0]);
+            }
+            return pictureIds;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package D6B.D_discover_picture.picture.service;
 
-import D6B.D_discover_picture.picture.controller.dto.DeleteUserRequest;
 import D6B.D_discover_picture.picture.controller.dto.PictureDetailResponse;
 import D6B.D_discover_picture.picture.domain.Picture;
 import D6B.D_discover_picture.picture.domain.PictureRepository;
@@ -8,45 +7,62 @@ import D6B.D_discover_picture.picture.domain.PictureTagRepository;
 import D6B.D_discover_picture.picture.domain.TagRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 
 @Slf4j
 @Service
 public class UserPictureService {
+    // 탈퇴한 유저의 이미지를 한 트랜잭션에서 지우는 최대 개수
+    private static final int MAX_DELETE_CHUNK = 500;
+
     private final PictureRepository pictureRepository;
     private final PictureService pictureService;
+    private final TopPictureRanking topPictureRanking;
+    private final LoveCountAccumulator loveCountAccumulator;
+    private final DeletionOutbox deletionOutbox;
+    private final TagSearchIndex tagSearchIndex;
+    private final MsaService msaService;
 
     @Autowired
     public UserPictureService(PictureRepository pictureRepository,
-                              PictureService pictureService) {
+                              PictureService pictureService,
+                              TopPictureRanking topPictureRanking,
+                              LoveCountAccumulator loveCountAccumulator,
+                              DeletionOutbox deletionOutbox,
+                              TagSearchIndex tagSearchIndex,
+                              MsaService msaService) {
         this.pictureRepository = pictureRepository;
         this.pictureService = pictureService;
+        this.topPictureRanking = topPictureRanking;
+        this.loveCountAccumulator = loveCountAccumulator;
+        this.deletionOutbox = deletionOutbox;
+        this.tagSearchIndex = tagSearchIndex;
+        this.msaService = msaService;
     }
 
-    // 해당 그림의 좋아요 수 올리고 그림 이미지 주소 반환
+    // 해당 그림의 좋아요 수 올리고 그림 이미지 주소 반환 (DB 반영은 LoveCountAccumulator 가 모아서)
     public String plusCount(Long pictureId) {
         Picture picture = pictureService.findPictureById(pictureId);
         if (picture.getIsAlive() == Boolean.TRUE) {
-            picture.setLoveCount(picture.getLoveCount() + 1);
-            pictureRepository.save(picture);
+            loveCountAccumulator.add(pictureId, 1);
+            topPictureRanking.update(picture, pictureService.getLoveCount(picture));
             return picture.getImgUrl();
         } else {
             throw new IllegalStateException("삭제된 이미지 입니다.");
         }
     }
 
-    // 해당 그림의 좋아요 수 내리기
+    // 해당 그림의 좋아요 수 내리기 (0 밑으로는 내려가지 않음)
     public void minusCount(Long pictureId) {
         Picture picture = pictureService.findPictureById(pictureId);
         if (picture.getIsAlive() == Boolean.TRUE) {
-            if (picture.getLoveCount() > 0) {
-                picture.setLoveCount(picture.getLoveCount() - 1);
-            } else {
-                picture.setLoveCount(0L);
-            }
-            pictureRepository.save(picture);
+            loveCountAccumulator.add(pictureId, -1);
+            topPictureRanking.update(picture, pictureService.getLoveCount(picture));
             return;
         } else {
             throw new IllegalStateException("삭제된 이미지 입니다.");
@@ -54,83 +70,112 @@ public class UserPictureService {
 
     }
 
-    // 본인이 좋아요 한 이미지들 반환
+    // 본인이 좋아요 한 이미지들 반환 (유저 서버가 한 페이지 분량의 id 만 보낸다)
     public List<PictureDetailResponse> getLikeAllList(List<Long> pictureIds) {
-        List<PictureDetailResponse> list = new ArrayList<>();
-        for (Long id : pictureIds) {
-            Picture picture = pictureService.findPictureById(id);
+        List<Picture> pictures = new ArrayList<>();
+        for (Picture picture : findPagePictures(pictureIds)) {
             if (picture.getIsAlive() == Boolean.TRUE) {
-                List<String> tagWords = pictureService.getTagWords(picture);
-                PictureDetailResponse pictureDetailResponse = PictureDetailResponse.from(picture, tagWords, true);
-                list.add(pictureDetailResponse);
+                pictures.add(picture);
             }
         }
-        return list;
+        return makeDetailList(pictures, true);
     }
 
     // 다른 사람의 좋아요 한 이미지 반환
     public List<PictureDetailResponse> getLikePublicList(List<Long> pictureIds) {
-        List<PictureDetailResponse> list = new ArrayList<>();
-        for (Long id : pictureIds) {
-            Picture picture = pictureService.findPictureById(id);
+        List<Picture> pictures = new ArrayList<>();
+        for (Picture picture : findPagePictures(pictureIds)) {
             if (picture.getIsAlive() == Boolean.TRUE && picture.getIsPublic() == Boolean.TRUE) {
-                List<String> tagWords = pictureService.getTagWords(picture);
-                PictureDetailResponse pictureDetailResponse = PictureDetailResponse.from(picture, tagWords, false);
-                list.add(pictureDetailResponse);
+                pictures.add(picture);
             }
         }
-        return list;
+        return makeDetailList(pictures, false);
     }
 
-    // 내가 만든 이미지들 반환
-    public List<PictureDetailResponse> getPicMadeByMe(String uid) {
-        List<Picture> pictureList = pictureRepository.findAllByMakerUidOrderByIdDesc(uid);
-        List<PictureDetailResponse> list = new ArrayList<>();
-        for (Picture picture : pictureList) {
-            if (picture.getIsAlive() == Boolean.TRUE) {
-                List<String> tagWords = pictureService.getTagWords(picture);
-                PictureDetailResponse pictureDetailResponse = PictureDetailResponse.from(picture, tagWords, false);
-                list.add(pictureDetailResponse);
-            }
-        }
-        return list;
+    // 내가 만든 이미지들 반환 (cursor 는 이전 페이지 마지막 이미지 id, 첫 페이지면 null)
+    public List<PictureDetailResponse> getPicMadeByMe(String uid, Long cursor, int size) {
+        List<Picture> pictureList = pictureRepository.findByMakerUidAndIsAliveAndIdLessThanOrderByIdDesc(
+                uid, true, toKeyset(cursor), PageRequest.of(0, PictureService.limitPageSize(size)));
+        return makeDetailList(pictureList, false);
     }
 
     // 다른 사람이 만든 이미지들 반환
-    public List<PictureDetailResponse> getPicMadeByOther(String uid) {
-        List<Picture> pictureList = pictureRepository.findAllByMakerUidAndIsPublicAndIsAliveOrderByIdDesc(uid, true, true);
-        List<PictureDetailResponse> list = new ArrayList<>();
-        for (Picture picture : pictureList) {
-            List<String> tagWords = pictureService.getTagWords(picture);
-            PictureDetailResponse pictureDetailResponse = PictureDetailResponse.from(picture, tagWords, false);
-            list.add(pictureDetailResponse);
-        }
-        return list;
+    public List<PictureDetailResponse> getPicMadeByOther(String uid, Long cursor, int size) {
+        List<Picture> pictureList = pictureRepository.findByMakerUidAndIsPublicAndIsAliveAndIdLessThanOrderByIdDesc(
+                uid, true, true, toKeyset(cursor), PageRequest.of(0, PictureService.limitPageSize(size)));
+        return makeDetailList(pictureList, false);
+    }
+
+    // 유저 서버에 진행 중인 탈퇴 job 이 있는 유저인지 확인 (트랜잭션 밖에서)
+    public boolean isBeingDeleted(String uid) {
+        return Boolean.TRUE.equals(msaService.await(msaService.hasRunningDeletionJob(uid)));
     }
 
-    // 유저 탈퇴 시 유저가 제작한 이미지들 삭제 및 좋아요 누른 그림들 count 낮추기
-    public void deleteUser(DeleteUserRequest deleteUserRequest) {
-        List<Picture> userPicture = pictureRepository.findAllByMakerUidAndIsAlive(deleteUserRequest.getUid(), true);
-        for (Picture picture : userPicture) {
-            picture.setIsAlive(false);
-            pictureService.minusTagCount(picture);
-            pictureRepository.save(picture);
-            // msa 요청
-            MsaService.deleteLikeAlarmRequest(picture.getId());
-            MsaService.deleteLikeRequest(picture.getId());
+    /**
+     * 유저 탈퇴 시 유저가 제작한 살아있는 이미지를 최대 size 개 삭제 (유저 서버의 탈퇴 job 이 0 이 나올 때까지 반복 호출)
+     * 태그 수 감소, 이미지 비활성화는 각각 UPDATE 로 한 번에, 다른 서버에 알리는 일은 outbox 에 기록
+     * @return 이번에 삭제한 이미지 수
+     */
+    @Transactional
+    public int deleteUserPictures(String uid, int size) {
+        int chunk = Math.max(1, Math.min(size, MAX_DELETE_CHUNK));
+        List<Long> pictureIds = pictureRepository.findAliveIdsByMakerUid(uid, PageRequest.of(0, chunk));
+        if (pictureIds.isEmpty()) {
+            return 0;
+        }
+        pictureService.minusTagCounts(pictureIds);
+        pictureRepository.deactivateByIds(pictureIds, Instant.now());
+        for (Long pictureId : pictureIds) {
+            topPictureRanking.remove(pictureId);
+            tagSearchIndex.remove(pictureId, uid);
         }
+        // 좋아요 삭제, 알림 삭제는 DeletionOutbox 가 모아서 요청
+        deletionOutbox.enqueue(pictureIds);
+        return pictureIds.size();
+    }
 
-        List<Long> pictureIdxs = deleteUserRequest.getPictureIdxs();
-        for (Long pId : pictureIdxs) {
-            Picture picture = pictureService.findPictureById(pId);
+    // 탈퇴한 유저가 좋아요 눌렀던 그림들의 좋아요 수 낮추기 (이미지 조회는 한 번에)
+    public void minusCounts(List<Long> pictureIds) {
+        if (pictureIds.isEmpty()) {
+            return;
+        }
+        for (Picture picture : pictureService.findPicturesByIds(pictureIds)) {
             if (picture.getIsAlive() == Boolean.TRUE) {
-                if (picture.getLoveCount() > 0) {
-                    picture.setLoveCount(picture.getLoveCount() - 1);
-                } else {
-                    picture.setLoveCount(0L);
-                }
-                pictureRepository.save(picture);
+                loveCountAccumulator.add(picture.getId(), -1);
+                topPictureRanking.update(picture, pictureService.getLoveCount(picture));
             }
         }
     }
+
+    private List<Picture> findPagePictures(List<Long> pictureIds) {
+        if (pictureIds.size() > PictureService.MAX_PAGE_SIZE) {
+            throw new IllegalStateException("한 번에 조회할 수 있는 이미지는 " + PictureService.MAX_PAGE_SIZE + "개 까지 입니다.");
+        }
+        return pictureService.findPicturesByIds(pictureIds);
+    }
+
+    private Long toKeyset(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+
+    // 태그는 한 번의 쿼리로 모아서 조회
+    private List<PictureDetailResponse> makeDetailList(List<Picture> pictures, Boolean isLoved) {
+        List<PictureDetailResponse> list = new ArrayList<>();
+        if (pictures.isEmpty()) {
+            return list;
+        }
+        Map<Long, List<String>> tagWordsMap = pictureService.getTagWordsMap(pictures);
+        for (Picture picture : pictures) {
+            List<String> tagWords = tagWordsMap.getOrDefault(picture.getId(), new ArrayList<>());
+            list.add(makeDetailResponse(picture, tagWords, isLoved));
+        }
+        return list;
+    }
+
+    // 응답의 좋아요 수는 아직 DB 에 반영되지 않은 증감분까지 더한 값
+    private PictureDetailResponse makeDetailResponse(Picture picture, List<String> tagWords, Boolean isLoved) {
+        PictureDetailResponse response = PictureDetailResponse.from(picture, tagWords, isLoved);
+        response.setLoveCount(pictureService.getLoveCount(picture));
+        return response;
+    }
 }
@@ -0,0 +1,28 @@
+package D6B.D_discover_picture.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalApiConfigTest {
+    private final InternalApiConfig.InternalOnlyInterceptor interceptor = new InternalApiConfig.InternalOnlyInterceptor();
+
+    @Test
+    void 게이트웨이를_거친_요청은_거절한다() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/picture/metrics/love_count");
+        request.addHeader("X-Forwarded-For", "203.0.113.10");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request, response, null)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void 서비스끼리_직접_보낸_요청은_통과한다() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/picture/delete/user/uid-1/pictures");
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+    }
+}
@@ -0,0 +1,104 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutbox;
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutbox.Target;
+import D6B.D_discover_picture.picture.domain.PictureDeletionOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// dispatcher 는 트랜잭션 밖에서 돌므로 테스트도 트랜잭션 없이 (각 쿼리가 바로 commit)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(DeletionOutbox.class)
+class DeletionOutboxTest {
+
+    @Autowired
+    private DeletionOutbox deletionOutbox;
+
+    @Autowired
+    private PictureDeletionOutboxRepository outboxRepository;
+
+    @MockBean
+    private MsaService msaService;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAllInBatch();
+        when(msaService.await(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(invocation -> invocation.<Mono<?>>getArgument(0).block());
+    }
+
+    @Test
+    void 대상별로_이미지_id_를_모아서_한_번에_보낸다() {
+        when(msaService.deleteLikes(anyList())).thenReturn(Mono.empty());
+        deletionOutbox.enqueue(List.of(1L, 2L, 3L));
+
+        assertThat(deletionOutbox.dispatchBatch(Target.USER_LOVE)).isEqualTo(3);
+
+        verify(msaService, times(1)).deleteLikes(List.of(1L, 2L, 3L));
+        assertThat(outboxRepository.countByTarget(Target.USER_LOVE)).isZero();
+        assertThat(outboxRepository.countByTarget(Target.ALARM)).isEqualTo(3);
+    }
+
+    @Test
+    void 실패하면_backoff_뒤에_다시_보낸다() {
+        when(msaService.deleteLikeAlarms(anyList())).thenReturn(Mono.error(new IllegalStateException("알림 서버 응답 시간 초과")));
+        deletionOutbox.enqueue(List.of(1L));
+
+        assertThat(deletionOutbox.dispatchBatch(Target.ALARM)).isZero();
+        // 아직 다시 보낼 때가 아니면 요청하지 않는다.
+        assertThat(deletionOutbox.dispatchBatch(Target.ALARM)).isZero();
+
+        verify(msaService, times(1)).deleteLikeAlarms(anyList());
+        PictureDeletionOutbox row = outboxRepository.findAll().stream()
+                .filter(outbox -> outbox.getTarget() == Target.ALARM)
+                .findFirst().orElseThrow();
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(row.getLastError()).isEqualTo("알림 서버 응답 시간 초과");
+        assertThat(deletionOutbox.getMetrics()).containsEntry("alarm.pending", 1L).containsEntry("failedBatches", 1L);
+    }
+
+    @Test
+    void 다른_서버가_잡고_있는_행은_보내지_않는다() {
+        when(msaService.deleteLikes(anyList())).thenReturn(Mono.empty());
+        deletionOutbox.enqueue(List.of(1L, 2L));
+        List<Long> ids = outboxRepository.findAll().stream()
+                .filter(outbox -> outbox.getTarget() == Target.USER_LOVE && outbox.getPictureId() == 1L)
+                .map(PictureDeletionOutbox::getId)
+                .collect(Collectors.toList());
+        Instant now = Instant.now();
+        assertThat(outboxRepository.claim(ids, now, now.plusSeconds(60), "other-pod")).isEqualTo(1);
+
+        assertThat(deletionOutbox.dispatchBatch(Target.USER_LOVE)).isEqualTo(1);
+
+        verify(msaService, times(1)).deleteLikes(List.of(2L));
+        assertThat(outboxRepository.countByTarget(Target.USER_LOVE)).isEqualTo(1);
+        // 이미 잡힌 행은 다시 잡을 수 없다.
+        assertThat(outboxRepository.claim(ids, now, now.plusSeconds(60), "this-pod")).isZero();
+    }
+
+    @Test
+    void backoff_는_두_배씩_늘고_최대값에서_멈춘다() {
+        assertThat(deletionOutbox.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(deletionOutbox.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(deletionOutbox.backoff(100)).isEqualTo(Duration.ofMinutes(10));
+    }
+}
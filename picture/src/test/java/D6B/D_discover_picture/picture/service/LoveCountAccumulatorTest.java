@@ -0,0 +1,94 @@
+package D6B.D_discover_picture.picture.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LoveCountAccumulatorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LoveCountAccumulator accumulator;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        accumulator.flushOnShutdown();
+    }
+
+    @Test
+    void 가득_차면_요청_스레드가_아니라_flusher_스레드가_쓴다() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        String[] writer = new String[1];
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            writer[0] = Thread.currentThread().getName();
+            written.countDown();
+            return new int[0];
+        });
+        accumulator = new LoveCountAccumulator(jdbcTemplate, transactionManager, 2, 1, 50);
+
+        accumulator.add(1L, 1);
+        accumulator.add(2L, 1);
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer[0]).isEqualTo("love-count-flusher");
+        assertThat(accumulator.getMetrics()).containsEntry("forcedFlushes", 1L);
+    }
+
+    @Test
+    void flusher_가_밀려_있으면_기다렸다가_다시_쌓아둔다() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new int[0];
+        });
+        accumulator = new LoveCountAccumulator(jdbcTemplate, transactionManager, 1, 1, 50);
+
+        // 첫 묶음은 flusher 가 들고 멈춰 있고, 두 번째는 큐를 채우고, 세 번째는 자리가 없다.
+        accumulator.add(1L, 1);
+        waitUntilQueueEmpty();
+        accumulator.add(2L, 1);
+        accumulator.add(3L, 1);
+
+        assertThat(accumulator.getMetrics())
+                .containsEntry("forcedFlushes", 2L)
+                .containsEntry("rejectedHandoffs", 1L)
+                .containsEntry("pendingPictures", 1L);
+        // 다시 쌓아둔 증감분도 조회에는 그대로 보인다.
+        assertThat(accumulator.currentLoveCount(3L, 10L)).isEqualTo(11L);
+    }
+
+    @Test
+    void 실패한_묶음은_다시_쌓아두고_조회_값은_유지한다() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("DB 연결 실패"));
+        accumulator = new LoveCountAccumulator(jdbcTemplate, transactionManager, 100, 1, 50);
+
+        accumulator.add(1L, 1);
+        accumulator.add(1L, 1);
+        accumulator.flush();
+
+        assertThat(accumulator.currentLoveCount(1L, 10L)).isEqualTo(12L);
+        assertThat(accumulator.getMetrics()).containsEntry("failedBatches", 1L).containsEntry("pendingPictures", 1L);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        // 묶음이 한 트랜잭션이라 일부만 반영된 채로 남지 않는다.
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private void waitUntilQueueEmpty() {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (accumulator.getMetrics().get("queuedBatches") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package D6B.D_discover_picture.picture.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class MakerNameCacheTest {
+
+    private MsaService msaService;
+    private MakerNameCache makerNameCache;
+    private long now = 0L;
+
+    @BeforeEach
+    void setUp() {
+        msaService = mock(MsaService.class);
+        when(msaService.findMakerNames(anyList())).thenAnswer(invocation -> {
+            List<String> uids = invocation.getArgument(0);
+            Map<String, String> names = new HashMap<>();
+            for (String uid : uids) {
+                if (!uid.equals("unknown")) {
+                    names.put(uid, "name-" + uid);
+                }
+            }
+            return Mono.just(names);
+        });
+        makerNameCache = new MakerNameCache(msaService, 2, 60, () -> now);
+    }
+
+    @Test
+    void 없는_uid_만_한번에_조회하고_입력_순서대로_돌려준다() {
+        makerNameCache.getMakerNames(List.of("a")).block();
+
+        List<String> names = makerNameCache.getMakerNames(List.of("b", "a", "b", "unknown")).block();
+
+        assertThat(names).containsExactly("name-b", "name-a", "name-b", null);
+        verify(msaService).findMakerNames(List.of("a"));
+        verify(msaService).findMakerNames(List.of("b", "unknown"));
+    }
+
+    @Test
+    void evict_된_uid_는_다시_조회한다() {
+        makerNameCache.getMakerNames(List.of("a")).block();
+        makerNameCache.evict("a");
+        makerNameCache.getMakerNames(List.of("a")).block();
+
+        verify(msaService, times(2)).findMakerNames(List.of("a"));
+        assertThat(makerNameCache.getMetrics()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void TTL_이_지난_uid_는_다시_조회한다() {
+        makerNameCache.getMakerNames(List.of("a")).block();
+        now += 59_000;
+        makerNameCache.getMakerNames(List.of("a")).block();
+        verify(msaService, times(1)).findMakerNames(List.of("a"));
+
+        now += 1_000;
+        makerNameCache.getMakerNames(List.of("a")).block();
+        verify(msaService, times(2)).findMakerNames(List.of("a"));
+    }
+
+    @Test
+    void 최대_크기를_넘으면_오래_안_쓴_uid_부터_버린다() {
+        makerNameCache.getMakerNames(Arrays.asList("a", "b")).block();
+        makerNameCache.getMakerNames(List.of("a")).block();
+        makerNameCache.getMakerNames(List.of("c")).block();
+
+        makerNameCache.getMakerNames(List.of("a", "b")).block();
+
+        verify(msaService).findMakerNames(List.of("b"));
+        assertThat(makerNameCache.getMetrics().get("size")).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,61 @@
+package D6B.D_discover_picture.picture.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MsaServiceTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private MsaService msaService(Duration delay, Duration timeout) {
+        ExchangeFunction exchange = request -> {
+            calls.incrementAndGet();
+            return Mono.delay(delay).map(tick -> ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"a\":\"maker1\",\"b\":\"maker2\"}")
+                    .build());
+        };
+        WebClient client = WebClient.builder().baseUrl("http://user").exchangeFunction(exchange).build();
+        return new MsaService(client, client, timeout);
+    }
+
+    @Test
+    void 동시에_들어온_같은_닉네임_조회는_한번만_요청한다() {
+        MsaService msaService = msaService(Duration.ofMillis(200), Duration.ofSeconds(2));
+
+        CompletableFuture<Map<String, String>> first = msaService.findMakerNames(List.of("a", "b")).toFuture();
+        CompletableFuture<Map<String, String>> second = msaService.findMakerNames(List.of("a", "b")).toFuture();
+
+        assertThat(msaService.await(first)).containsEntry("a", "maker1").containsEntry("b", "maker2");
+        assertThat(msaService.await(second)).isEqualTo(msaService.await(first));
+        assertThat(calls.get()).isEqualTo(1);
+
+        // 끝난 요청은 공유하지 않는다.
+        msaService.await(msaService.findMakerNames(List.of("a", "b")));
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void 응답이_늦으면_timeout_으로_실패한다() {
+        MsaService msaService = msaService(Duration.ofSeconds(5), Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> msaService.await(msaService.findMakerNames(List.of("a"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("시간 초과");
+    }
+}
@@ -0,0 +1,123 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureTag;
+import D6B.D_discover_picture.picture.domain.Tag;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PictureService.class, TopListSnapshotCache.class, TopPictureRanking.class, LoveCountAccumulator.class})
+class PictureFeedQueryTest {
+
+    private static final int FEED_SIZE = 50;
+
+    @Autowired
+    private PictureService pictureService;
+
+    @MockBean
+    private MsaService msaService;
+
+    @MockBean
+    private MakerNameCache makerNameCache;
+
+    @MockBean
+    private TagIngestService tagIngestService;
+
+    @MockBean
+    private TagSearchIndex tagSearchIndex;
+
+    @MockBean
+    private TodayPickSampler todayPickSampler;
+
+    @MockBean
+    private RandomTagSampler randomTagSampler;
+
+    @MockBean
+    private DeletionOutbox deletionOutbox;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> pictureIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Tag cat = testEntityManager.persist(Tag.builder().word("cat").tagCount((long) FEED_SIZE).build());
+        Tag dog = testEntityManager.persist(Tag.builder().word("dog").tagCount((long) FEED_SIZE).build());
+        for (int i = 0; i < FEED_SIZE; i++) {
+            Picture picture = testEntityManager.persist(Picture.builder()
+                    .imgUrl("https://img/" + i)
+                    .makerUid("maker" + i)
+                    .isPublic(true)
+                    .isAlive(true)
+                    .isCreated(true)
+                    .loveCount((long) i)
+                    .createdAt(Instant.now())
+                    .build());
+            testEntityManager.persist(PictureTag.builder().picture(picture).tag(dog).build());
+            testEntityManager.persist(PictureTag.builder().picture(picture).tag(cat).build());
+            pictureIds.add(picture.getId());
+        }
+        Collections.reverse(pictureIds);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void feedAssemblyUsesOneQueryForPicturesAndOneForTags() {
+        Statistics statistics = testEntityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<Picture> pictures = pictureService.findPicturesByIds(pictureIds);
+        Map<Long, List<String>> tagWordsMap = pictureService.getTagWordsMap(pictures);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(pictures).extracting(Picture::getId).containsExactlyElementsOf(pictureIds);
+        assertThat(tagWordsMap).hasSize(FEED_SIZE);
+        assertThat(tagWordsMap.values()).allSatisfy(words -> assertThat(words).containsExactly("cat", "dog"));
+    }
+
+    @Test
+    void toggleAndDeleteDoNotOverwriteLoveCountFlushedAfterLoad() {
+        Long toggledId = pictureIds.get(0);
+        Long deletedId = pictureIds.get(1);
+        Picture toggling = testEntityManager.find(Picture.class, toggledId);
+        Picture deleting = testEntityManager.find(Picture.class, deletedId);
+        // 이미지를 읽은 뒤에 LoveCountAccumulator 가 좋아요 수를 반영
+        testEntityManager.getEntityManager()
+                .createNativeQuery("UPDATE picture SET love_count = 100 WHERE id IN (:ids)")
+                .setParameter("ids", List.of(toggledId, deletedId))
+                .executeUpdate();
+
+        pictureService.deletePicture(deletedId, deleting.getMakerUid());
+        pictureService.toggleIsPublic(toggling.getMakerUid(), toggledId);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Picture toggled = testEntityManager.find(Picture.class, toggledId);
+        assertThat(toggled.getIsPublic()).isFalse();
+        assertThat(toggled.getLoveCount()).isEqualTo(100L);
+        Picture deleted = testEntityManager.find(Picture.class, deletedId);
+        assertThat(deleted.getIsAlive()).isFalse();
+        assertThat(deleted.getLoveCount()).isEqualTo(100L);
+    }
+}
@@ -0,0 +1,85 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Tag;
+import D6B.D_discover_picture.picture.domain.TagRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RandomTagSamplerTest {
+
+    private TagRepository tagRepository;
+
+    @Test
+    void 태그_수_변화가_후보에_바로_반영된다() {
+        RandomTagSampler sampler = sampler(false, tag("cat", 10L), tag("dog", 12L), tag("sea", 9L));
+        assertThat(sampler.draw(3)).containsExactlyInAnyOrder("cat", "dog");
+
+        // 9 -> 10 이 되면 후보, 10 -> 9 가 되면 제외
+        sampler.update(List.of(tag("sea", 10L)));
+        sampler.decrease(List.of("cat", "sky"));
+        assertThat(sampler.draw(3)).containsExactlyInAnyOrder("dog", "sea");
+
+        sampler.decrease(List.of("dog", "dog", "dog"));
+        assertThat(sampler.draw(3)).containsExactly("sea");
+    }
+
+    @Test
+    void 서로_다른_태그를_뽑는다() {
+        RandomTagSampler sampler = sampler(false,
+                tag("a", 10L), tag("b", 10L), tag("c", 10L), tag("d", 10L), tag("e", 10L));
+        for (int i = 0; i < 100; i++) {
+            assertThat(sampler.draw(3)).hasSize(3).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void 가중_추첨은_tag_count_비율을_따른다() {
+        RandomTagSampler sampler = sampler(true, tag("popular", 900L), tag("normal", 90L), tag("rare", 10L));
+        Map<String, Integer> firstPicks = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            firstPicks.merge(sampler.draw(1).get(0), 1, Integer::sum);
+        }
+        assertThat(firstPicks.get("popular")).isBetween(8700, 9300);
+        assertThat(firstPicks.get("normal")).isBetween(700, 1100);
+        assertThat(firstPicks.get("rare")).isBetween(40, 180);
+    }
+
+    @Test
+    void refresh_는_다른_서버에서_바뀐_태그_수를_DB_에서_다시_읽는다() {
+        RandomTagSampler sampler = sampler(false, tag("cat", 10L), tag("dog", 12L));
+        // 다른 서버에서 cat 이 줄고 sea 가 늘었음
+        when(tagRepository.findByTagCountGreaterThanEqual(10L)).thenReturn(List.of(tag("dog", 12L), tag("sea", 10L)));
+
+        sampler.refresh();
+
+        assertThat(sampler.draw(3)).containsExactlyInAnyOrder("dog", "sea");
+    }
+
+    private RandomTagSampler sampler(boolean weighted, Tag... tags) {
+        tagRepository = mock(TagRepository.class);
+        List<Tag> eligible = new ArrayList<>();
+        for (Tag tag : tags) {
+            if (tag.getTagCount() >= 10) {
+                eligible.add(tag);
+            }
+        }
+        when(tagRepository.findByTagCountGreaterThanEqual(10L)).thenReturn(eligible);
+        Random random = new Random(42);
+        RandomTagSampler sampler = new RandomTagSampler(tagRepository, 10L, weighted, () -> random);
+        sampler.rebuild();
+        return sampler;
+    }
+
+    private Tag tag(String word, Long tagCount) {
+        return Tag.builder().word(word).tagCount(tagCount).build();
+    }
+}
@@ -0,0 +1,105 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import D6B.D_discover_picture.picture.domain.Tag;
+import D6B.D_discover_picture.picture.domain.TagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 운영 DB(MySQL/MariaDB)의 ON DUPLICATE KEY UPDATE 를 쓰기 위해 H2 MySQL 모드
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:tag_ingest;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TagIngestService.class)
+class TagIngestServiceTest {
+
+    @Autowired
+    private TagIngestService tagIngestService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PictureRepository pictureRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM picture_tag");
+        jdbcTemplate.update("DELETE FROM tag");
+        jdbcTemplate.update("DELETE FROM picture");
+    }
+
+    @Test
+    void 있는_태그는_count_를_올리고_없는_태그는_새로_만든다() {
+        tagRepository.save(Tag.builder().word("cat").tagCount(3L).build());
+        Long pictureId = newPicture();
+
+        List<Tag> tags = tagIngestService.attachTags(pictureId, Arrays.asList("dog", "cat", "dog", " ", null));
+
+        assertThat(tags).extracting(Tag::getWord).containsExactly("cat", "dog");
+        assertThat(tagRepository.findByWord("cat").get().getTagCount()).isEqualTo(4L);
+        assertThat(tagRepository.findByWord("dog").get().getTagCount()).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM picture_tag WHERE picture_id = ?", Long.class, pictureId))
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void 같은_새_태그가_동시에_올라와도_행은_하나() throws Exception {
+        int uploads = 8;
+        List<Long> pictureIds = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            pictureIds.add(newPicture());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        try {
+            List<Callable<List<Tag>>> tasks = new ArrayList<>();
+            for (Long pictureId : pictureIds) {
+                tasks.add(() -> tagIngestService.attachTags(pictureId, List.of("sunset", "sea")));
+            }
+            for (Future<List<Tag>> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(tagRepository.findAll()).hasSize(2)
+                .allSatisfy(tag -> assertThat(tag.getTagCount()).isEqualTo((long) uploads));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM picture_tag", Long.class))
+                .isEqualTo(2L * uploads);
+    }
+
+    private Long newPicture() {
+        return pictureRepository.save(Picture.builder()
+                .imgUrl("https://img")
+                .makerUid("maker")
+                .isPublic(true)
+                .isAlive(true)
+                .isCreated(true)
+                .loveCount(0L)
+                .createdAt(Instant.now())
+                .build()).getId();
+    }
+}
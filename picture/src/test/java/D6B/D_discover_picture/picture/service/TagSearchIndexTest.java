@@ -0,0 +1,171 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import D6B.D_discover_picture.picture.domain.PictureTagRepository;
+import D6B.D_discover_picture.picture.domain.PictureTagWord;
+import D6B.D_discover_picture.picture.domain.PictureVisibility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static D6B.D_discover_picture.picture.service.TagSearchIndex.MatchMode.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class TagSearchIndexTest {
+
+    private PictureRepository pictureRepository;
+    private PictureTagRepository pictureTagRepository;
+    private TagSearchIndex tagSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        pictureRepository = mock(PictureRepository.class);
+        pictureTagRepository = mock(PictureTagRepository.class);
+        List<PictureVisibility> visibilities = List.of(
+                visibility(1L, true, "maker1"),
+                visibility(2L, true, "maker1"),
+                visibility(3L, false, "maker2"),
+                visibility(4L, true, "maker2"),
+                visibility(5L, true, "maker2"));
+        List<PictureTagWord> tagWords = List.of(
+                tagWord(1L, "cat"), tagWord(1L, "sunset"),
+                tagWord(2L, "Cathedral"),
+                tagWord(3L, "cat"),
+                tagWord(4L, "cat"), tagWord(4L, "sea"),
+                tagWord(5L, "seaside"), tagWord(5L, "sunset"));
+        when(pictureRepository.findAliveVisibilities()).thenReturn(visibilities);
+        when(pictureTagRepository.findAliveTagWords()).thenReturn(tagWords);
+        tagSearchIndex = new TagSearchIndex(pictureRepository, pictureTagRepository);
+        tagSearchIndex.rebuild();
+    }
+
+    @Test
+    void 일치_접두어_포함_검색() {
+        assertThat(ids(List.of("CAT"), true, EXACT, null)).containsExactly(4L, 1L);
+        assertThat(ids(List.of("cat"), true, PREFIX, null)).containsExactly(4L, 2L, 1L);
+        assertThat(ids(List.of("side"), true, CONTAINS, null)).containsExactly(5L);
+    }
+
+    @Test
+    void AND_OR_검색() {
+        assertThat(ids(List.of("cat", "sunset"), true, EXACT, null)).containsExactly(1L);
+        assertThat(ids(List.of("cat", "sunset"), false, EXACT, null)).containsExactly(5L, 4L, 1L);
+    }
+
+    @Test
+    void 비공개_이미지는_제작자에게만_보인다() {
+        assertThat(ids(List.of("cat"), true, EXACT, "maker1")).containsExactly(4L, 1L);
+        assertThat(ids(List.of("cat"), true, EXACT, "maker2")).containsExactly(4L, 3L, 1L);
+    }
+
+    @Test
+    void cursor_로_최신순으로_나눠서_준다() {
+        TagSearchIndex.Page first = tagSearchIndex.search(List.of("s"), true, PREFIX, null, null, 2);
+        assertThat(first.getPictureIds()).containsExactly(5L, 4L);
+        assertThat(first.getNextCursor()).isEqualTo(4L);
+
+        TagSearchIndex.Page second = tagSearchIndex.search(List.of("s"), true, PREFIX, null, first.getNextCursor(), 2);
+        assertThat(second.getPictureIds()).containsExactly(1L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void 저장_공개여부변경_삭제가_바로_반영된다() {
+        tagSearchIndex.add(6L, true, "maker1", List.of("cat"));
+        assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(6L, 4L, 1L);
+
+        tagSearchIndex.updateVisibility(6L, false, "maker1");
+        assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(4L, 1L);
+        assertThat(ids(List.of("cat"), true, EXACT, "maker1")).containsExactly(6L, 4L, 1L);
+
+        tagSearchIndex.remove(4L, "maker2");
+        assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(1L);
+    }
+
+    @Test
+    void 포함_검색은_대소문자와_1글자_검색어도_처리한다() {
+        assertThat(ids(List.of("ATH"), true, CONTAINS, null)).containsExactly(2L);
+        assertThat(ids(List.of("s"), true, CONTAINS, null)).containsExactly(5L, 4L, 1L);
+        assertThat(ids(List.of("zz"), true, CONTAINS, null)).isEmpty();
+    }
+
+    @Test
+    void 트랜잭션_안의_변경은_commit_된_뒤에만_반영된다() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tagSearchIndex.add(6L, true, "maker1", List.of("cat"));
+            assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(4L, 1L);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(6L, 4L, 1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refresh_는_다른_서버의_변경을_DB_에서_가져온다() {
+        // 다른 서버에서 4번 삭제, 3번 공개, 7번 새로 저장
+        List<PictureVisibility> changed = List.of(
+                visibility(3L, true, true, "maker2"),
+                visibility(4L, true, false, "maker2"),
+                visibility(7L, true, true, "maker3"));
+        List<PictureTagWord> newTagWords = List.of(tagWord(7L, "cat"));
+        when(pictureRepository.findVisibilitiesUpdatedAfter(any())).thenReturn(changed);
+        when(pictureTagRepository.findTagWordsByPictureIdIn(anyCollection())).thenReturn(newTagWords);
+
+        tagSearchIndex.refresh();
+
+        assertThat(ids(List.of("cat"), true, EXACT, null)).containsExactly(7L, 3L, 1L);
+        verify(pictureTagRepository).findTagWordsByPictureIdIn(List.of(7L));
+    }
+
+    @Test
+    void refresh_는_지난_갱신_이후에_바뀐_이미지만_읽고_전체는_다시_읽지_않는다() {
+        when(pictureRepository.findVisibilitiesUpdatedAfter(any())).thenReturn(List.of());
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+
+        tagSearchIndex.refresh();
+        tagSearchIndex.refresh();
+
+        verify(pictureRepository, times(2)).findVisibilitiesUpdatedAfter(since.capture());
+        assertThat(since.getAllValues().get(0)).isNotNull();
+        assertThat(since.getAllValues().get(1)).isAfterOrEqualTo(since.getAllValues().get(0));
+        verify(pictureRepository, times(1)).findAliveVisibilities();
+        verify(pictureTagRepository, times(1)).findAliveTagWords();
+    }
+
+    private List<Long> ids(List<String> keywords, boolean matchAll, TagSearchIndex.MatchMode matchMode, String viewerUid) {
+        return tagSearchIndex.search(keywords, matchAll, matchMode, viewerUid, null, 100).getPictureIds();
+    }
+
+    private PictureVisibility visibility(Long id, boolean isPublic, String makerUid) {
+        return visibility(id, isPublic, true, makerUid);
+    }
+
+    private PictureVisibility visibility(Long id, boolean isPublic, boolean isAlive, String makerUid) {
+        PictureVisibility visibility = mock(PictureVisibility.class);
+        when(visibility.getId()).thenReturn(id);
+        when(visibility.getIsPublic()).thenReturn(isPublic);
+        when(visibility.getIsAlive()).thenReturn(isAlive);
+        when(visibility.getMakerUid()).thenReturn(makerUid);
+        return visibility;
+    }
+
+    private PictureTagWord tagWord(Long pictureId, String word) {
+        PictureTagWord tagWord = mock(PictureTagWord.class);
+        when(tagWord.getPictureId()).thenReturn(pictureId);
+        when(tagWord.getWord()).thenReturn(word);
+        return tagWord;
+    }
+}
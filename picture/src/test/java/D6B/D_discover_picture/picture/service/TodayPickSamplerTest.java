@@ -0,0 +1,80 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TodayPickSamplerTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private PictureRepository pictureRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void 같은_날_같은_seed_면_같은_샘플() {
+        Set<Long> eligible = persistPictures(400);
+
+        List<Long> first = new TodayPickSampler(pictureRepository, 20, 7L).draw(DAY);
+        List<Long> again = new TodayPickSampler(pictureRepository, 20, 7L).draw(DAY);
+        List<Long> nextDay = new TodayPickSampler(pictureRepository, 20, 7L).draw(DAY.plusDays(1));
+        List<Long> otherSeed = new TodayPickSampler(pictureRepository, 20, 8L).draw(DAY);
+
+        assertThat(first).hasSize(20).doesNotHaveDuplicates();
+        assertThat(eligible).containsAll(first);
+        assertThat(again).containsExactlyElementsOf(first);
+        assertThat(nextDay).isNotEqualTo(first);
+        assertThat(otherSeed).isNotEqualTo(first);
+    }
+
+    @Test
+    void 이미지가_적으면_전부_섞어서_준다() {
+        Set<Long> eligible = persistPictures(12);
+
+        List<Long> sample = new TodayPickSampler(pictureRepository, 50, 7L).draw(DAY);
+
+        assertThat(sample).hasSameSizeAs(eligible).containsExactlyInAnyOrderElementsOf(eligible);
+    }
+
+    @Test
+    void 이미지가_없으면_빈_샘플() {
+        assertThat(new TodayPickSampler(pictureRepository, 50, 7L).draw(DAY)).isEmpty();
+    }
+
+    // 4개 중 하나는 비공개, 하나는 삭제된 이미지. 공개된 살아있는 이미지 id 반환
+    private Set<Long> persistPictures(int count) {
+        Set<Long> eligible = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            boolean isPublic = i % 4 != 1;
+            boolean isAlive = i % 4 != 2;
+            Picture picture = testEntityManager.persist(Picture.builder()
+                    .imgUrl("https://img/" + i)
+                    .makerUid("maker")
+                    .isPublic(isPublic)
+                    .isAlive(isAlive)
+                    .isCreated(true)
+                    .loveCount(0L)
+                    .createdAt(Instant.now())
+                    .build());
+            if (isPublic && isAlive) {
+                eligible.add(picture.getId());
+            }
+        }
+        testEntityManager.flush();
+        return eligible;
+    }
+}
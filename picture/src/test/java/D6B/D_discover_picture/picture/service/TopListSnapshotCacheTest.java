@@ -0,0 +1,34 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.controller.dto.PictureAllDetailResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopListSnapshotCacheTest {
+
+    private final TopListSnapshotCache cache = new TopListSnapshotCache();
+
+    @Test
+    void 꺼낸_응답을_바꿔도_snapshot_은_그대로다() {
+        List<String> tags = new ArrayList<>(List.of("cat"));
+        cache.getWeekly(() -> List.of(PictureAllDetailResponse.builder()
+                .pictureId(1L).loveCount(3L).pictureTags(tags).loveCheck(false).build()));
+
+        PictureAllDetailResponse first = cache.getWeekly(List::of).get(0);
+        first.setLoveCount(100L);
+        first.setMakerName("someone");
+        tags.add("dog");
+
+        PictureAllDetailResponse second = cache.getWeekly(List::of).get(0);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getLoveCount()).isEqualTo(3L);
+        assertThat(second.getMakerName()).isNull();
+        assertThat(second.getPictureTags()).containsExactly("cat");
+        assertThatThrownBy(() -> second.getPictureTags().add("bird")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,168 @@
+package D6B.D_discover_picture.picture.service;
+
+import D6B.D_discover_picture.picture.domain.Picture;
+import D6B.D_discover_picture.picture.domain.PictureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static D6B.D_discover_picture.picture.service.TopPictureRanking.Period.MONTHLY;
+import static D6B.D_discover_picture.picture.service.TopPictureRanking.Period.WEEKLY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TopPictureRankingTest {
+
+    private PictureRepository pictureRepository;
+    private LoveCountAccumulator loveCountAccumulator;
+    private TopPictureRanking topPictureRanking;
+
+    @BeforeEach
+    void setUp() {
+        pictureRepository = mock(PictureRepository.class);
+        List<Picture> seed = new ArrayList<>();
+        seed.add(picture(1L, 30L));
+        seed.add(picture(2L, 20L));
+        seed.add(picture(3L, 10L));
+        when(pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any())).thenReturn(seed);
+        loveCountAccumulator = mock(LoveCountAccumulator.class);
+        when(loveCountAccumulator.currentLoveCount(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        topPictureRanking = new TopPictureRanking(pictureRepository, loveCountAccumulator);
+    }
+
+    @Test
+    void seedsWindowOnceAndReordersOnLoveCountChange() {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+
+        topPictureRanking.update(picture(3L, 31L), 31L);
+        topPictureRanking.update(picture(4L, 25L), 25L);
+
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(3L, 1L, 4L, 2L);
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 2)).containsExactly(3L, 1L);
+        // 이번 주, 이번 달 기간이 처음 쓰일 때 한 번씩만 조회
+        verify(pictureRepository, times(2)).findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void removesDeletedAndPrivatePictures() {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+
+        topPictureRanking.remove(1L);
+        Picture hidden = picture(2L, 20L);
+        hidden.setIsPublic(false);
+        topPictureRanking.update(hidden, 20L);
+
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void keepsOnlyBoundedNumberOfCandidates() {
+        for (long id = 100; id < 1000; id++) {
+            topPictureRanking.update(picture(id, id), id);
+        }
+
+        List<Long> top = topPictureRanking.getCurrentTop(WEEKLY, 1000);
+        assertThat(top).hasSize(TopPictureRanking.TOP_SIZE * 4);
+        assertThat(top.get(0)).isEqualTo(999L);
+    }
+
+    @Test
+    void resyncReplacesLocalCountsWithDatabase() {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+
+        // 다른 서버에 온 좋아요로 DB 순위가 바뀜
+        when(pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any()))
+                .thenReturn(List.of(picture(3L, 50L), picture(1L, 30L), picture(2L, 20L)));
+        topPictureRanking.resync();
+
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void refillsFromDatabaseAfterRemovingFromTruncatedWindow() {
+        List<Picture> full = new ArrayList<>();
+        for (long id = 1; id <= TopPictureRanking.TOP_SIZE * 4; id++) {
+            full.add(picture(id, 1000L - id));
+        }
+        when(pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any())).thenReturn(full);
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 1000)).hasSize(TopPictureRanking.TOP_SIZE * 4);
+
+        // 1번이 지워지면 DB 에서 201번째였던 이미지가 올라온다.
+        List<Picture> refilled = new ArrayList<>(full.subList(1, full.size()));
+        refilled.add(picture(999L, 1L));
+        when(pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any())).thenReturn(refilled);
+        topPictureRanking.remove(1L);
+
+        List<Long> top = topPictureRanking.getCurrentTop(WEEKLY, 1000);
+        assertThat(top).hasSize(TopPictureRanking.TOP_SIZE * 4).doesNotContain(1L);
+        assertThat(top.get(top.size() - 1)).isEqualTo(999L);
+    }
+
+    @Test
+    void doesNotRefillWindowThatWasNeverTruncated() {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+        topPictureRanking.remove(1L);
+
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(2L, 3L);
+        // 처음 채울 때 한 번만
+        verify(pictureRepository, times(1)).findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void resyncRanksByLoveCountIncludingPendingDeltas() {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+
+        // 3번에 온 좋아요가 아직 DB 에 쓰이지 않았다.
+        when(loveCountAccumulator.currentLoveCount(eq(3L), any())).thenReturn(40L);
+        topPictureRanking.resync();
+
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void updatesAreNotBlockedWhileReloadingFromDatabase() throws Exception {
+        assertThat(topPictureRanking.getCurrentTop(WEEKLY, 10)).containsExactly(1L, 2L, 3L);
+        assertThat(topPictureRanking.getCurrentTop(MONTHLY, 10)).containsExactly(1L, 2L, 3L);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(pictureRepository.findTop200ByIsPublicAndIsAliveAndCreatedAtBetweenOrderByLoveCountDesc(
+                anyBoolean(), anyBoolean(), any(), any())).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(picture(1L, 30L));
+        });
+
+        CompletableFuture<Void> resync = CompletableFuture.runAsync(topPictureRanking::resync);
+        assertThat(querying.await(5, TimeUnit.SECONDS)).isTrue();
+        // DB 조회가 끝나지 않아도 좋아요 반영은 바로 끝난다.
+        CompletableFuture.runAsync(() -> topPictureRanking.update(picture(2L, 21L), 21L)).get(1, TimeUnit.SECONDS);
+
+        release.countDown();
+        resync.get(5, TimeUnit.SECONDS);
+    }
+
+    private Picture picture(Long id, Long loveCount) {
+        return Picture.builder()
+                .id(id)
+                .loveCount(loveCount)
+                .isPublic(true)
+                .isAlive(true)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -2,7 +2,9 @@ package D6B.D_discover_user;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
 public class DDiscoverUserApplication {
 	public static void main(String[] args) {
@@ -10,17 +10,20 @@ public class ConstValues {
     public static WebClient ALARM_SERVER_CLIENT;
     public static String PICTURE_SERVER;
     public static WebClient PICTURE_SERVER_CLIENT;
-    public static final String USER_HISTORY_DELETE_TO_PICTURE = "/delete/user";
     public static final String COUNT_DOWN_LOVE_TO_PICTURE = "/delete/count/";
+    public static final String COUNT_DOWN_LOVES_TO_PICTURE = "/delete/count";
+    public static final String USER_PICTURES_DELETE_TO_PICTURE = "/delete/user/";
     public static final String COUNT_UP_LOVE_TO_PICTURE = "/create/count/";
     public static final String USER_MADE_TO_PICTURE_WHEN_LOGIN = "/made/user/";
     public static final String USER_MADE_TO_PICTURE_WHEN_NOT_LOGIN = "/made/no_user/";
     public static final String USER_LIKES_TO_PICTURE_WHEN_NOT_ME = "/like_public_list";
     public static final String USER_LIKES_TO_PICTURE_WHEN_ME = "/like_all_list";
+    public static final String MAKER_NAME_EVICT_TO_PICTURE = "/maker_name/evict/";
     public static final String CREATE_ALARM_TO_ALARM = "/create";
     public static final String MARK_ALARM_TO_ALARM = "/marked";
     public static final String CANCEL_ALARM_TO_ALARM = "/isalive";
     public static final String USER_HISTORY_DELETE_TO_ALARM = "/remove/";
+    public static final String FCM_TOKEN_EVICT_TO_ALARM = "/fcm_token/evict/";
 
     @Value(value = "${pictureServer}")
     public void setPictureServer(String pictureServer) {
@@ -8,6 +8,7 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.FileInputStream;
@@ -17,17 +18,22 @@ import java.util.Objects;
 @Slf4j
 @Service
 public class AuthorizeService {
+    private final VerifiedTokenCache verifiedTokenCache;
+    private volatile boolean firebaseInitialized = false;
+
+    @Autowired
+    public AuthorizeService(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
     public AuthResponse isAuthorized(String idToken, String uid) throws IOException, FirebaseAuthException {
-        // Firebase 초기화
-        if(FirebaseApp.getApps().isEmpty()) {
-            FileInputStream serviceAccount = new FileInputStream("creaite-app-firebase-adminsdk.json");
-            FirebaseOptions options = new FirebaseOptions.Builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .build();
-            FirebaseApp.initializeApp(options);
+        // 이미 검증한 토큰이면 캐시에서, 아니면 Firebase 토큰 디코드
+        FirebaseToken decodedToken = verifiedTokenCache.get(idToken);
+        if (decodedToken == null) {
+            initFirebase();
+            decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+            verifiedTokenCache.put(idToken, decodedToken);
         }
-        // Firebase 토큰 디코드
-        FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
         String decodedTokenUid = decodedToken.getUid();
         // uid 변형이 없었는지 검증
         if(Objects.equals(decodedTokenUid, uid)) {
@@ -42,4 +48,22 @@ public class AuthorizeService {
                     .build();
         }
     }
+
+    // Firebase 초기화는 한 번만
+    private void initFirebase() throws IOException {
+        if (firebaseInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (FirebaseApp.getApps().isEmpty()) {
+                try (FileInputStream serviceAccount = new FileInputStream("creaite-app-firebase-adminsdk.json")) {
+                    FirebaseOptions options = new FirebaseOptions.Builder()
+                            .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                            .build();
+                    FirebaseApp.initializeApp(options);
+                }
+            }
+            firebaseInitialized = true;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package D6B.D_discover_user.common.service;
+
+import com.google.firebase.auth.FirebaseToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 검증이 끝난 Firebase ID 토큰 캐시.
+ * 토큰 원문 대신 SHA-256 해시를 key 로 쓰고, 토큰의 exp 가 지나면 다시 검증하게 한다.
+ * 유저 서버는 decodedToken 의 이름, 이메일 등이 필요해서 요청마다 verifyIdToken 을 하지 않도록 둔다.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final int maxSize;
+    private final LongSupplier clock;
+    // accessOrder = true 인 LinkedHashMap 으로 LRU (접근은 모두 synchronized)
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${auth.token-cache.max-size:10000}") int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedTokenCache.Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    // 만료되지 않은 검증 결과가 있으면 반환, 없으면 null
+    public FirebaseToken get(String idToken) {
+        String key = hash(idToken);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > clock.getAsLong()) {
+                    hits.incrementAndGet();
+                    return entry.token;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // exp 클레임이 없거나 이미 지난 토큰은 저장하지 않는다.
+    public void put(String idToken, FirebaseToken token) {
+        Object exp = token.getClaims().get("exp");
+        if (!(exp instanceof Number)) {
+            return;
+        }
+        long expiresAt = ((Number) exp).longValue() * 1000;
+        if (expiresAt <= clock.getAsLong()) {
+            return;
+        }
+        String key = hash(idToken);
+        synchronized (entries) {
+            entries.put(key, new Entry(token, expiresAt));
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        synchronized (entries) {
+            metrics.put("size", (long) entries.size());
+        }
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        return metrics;
+    }
+
+    private String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        private final FirebaseToken token;
+        private final long expiresAt;
+
+        private Entry(FirebaseToken token, long expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
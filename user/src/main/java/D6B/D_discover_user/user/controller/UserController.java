@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -130,11 +131,40 @@ public class UserController {
                                                  @PathVariable String uid) throws IOException, FirebaseAuthException {
         AuthResponse authResponse = authorizeService.isAuthorized(idToken, uid);
         if(authResponse.getIsUser()) {
-            userService.deleteUserInfo(authResponse.getDecodedToken());
-            return ResponseEntity.ok().build();
+            UserDeletionJobResponseDto deletionJob = userService.deleteUserInfo(authResponse.getDecodedToken());
+            if(deletionJob == null) return ResponseEntity.ok().build();
+            // 좋아요, 그림, 알람 정리는 탈퇴 job 이 이어서 진행한다.
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(deletionJob);
         } else return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
     }
 
+    /**
+     * 회원 탈퇴 정리(좋아요, 그림, 알람) 진행 상황
+     * @param idToken : 헤더에 담긴 token
+     * @param uid : Firebase 통해 얻은 uid
+     * @return : 가장 최근 탈퇴 job 의 단계와 처리한 수
+     */
+    @GetMapping("/deletion_job/{uid}")
+    public ResponseEntity<UserDeletionJobResponseDto> readDeletionJob(@RequestHeader("Authorization") String idToken,
+                                                                      @PathVariable String uid) throws IOException, FirebaseAuthException {
+        AuthResponse authResponse = authorizeService.isAuthorized(idToken, uid);
+        if(authResponse.getIsUser()) {
+            UserDeletionJobResponseDto deletionJob = userService.findDeletionJob(uid);
+            if(deletionJob == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            return ResponseEntity.ok(deletionJob);
+        } else return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+    }
+
+    /**
+     * picture 서버가 탈퇴한 유저의 그림을 지우기 전에 진행 중인 탈퇴 job 이 있는지 확인하는 API
+     * @param uid : 탈퇴한 유저의 uid
+     * @return : 끝나지 않은 탈퇴 job 이 있으면 true
+     */
+    @GetMapping("/deletion_job/running/{uid}")
+    public Boolean hasRunningDeletionJob(@PathVariable String uid) {
+        return userService.hasRunningDeletionJob(uid);
+    }
+
     /**
      * 좋아요
      * @param idToken : Firebase 통해서 받은 해당 유저에 대한 idToken
@@ -175,23 +205,27 @@ public class UserController {
      * @param idToken : 로그인 유저의 idToken
      * @param targetUid : 타겟 유저의 uid
      * @param userMadeOrLoveRequestDto : 로그인 유저의 id
+     * @param cursor : 이전 페이지의 nextCursor, 첫 페이지면 생략
+     * @param size : 페이지 크기 (최대 100)
      * @return : 좋아요 리스트에 오른 그림 리스트
      * @throws IOException : 예외
      * @throws FirebaseAuthException : 예외
      */
     @PostMapping("/{target_uid}/like_picture/certified")
-    public ResponseEntity<List<UserPicsResponseDto>> readUserLovePicsCertified(@RequestHeader("Authorization") String idToken,
+    public ResponseEntity<UserPicsPageResponseDto> readUserLovePicsCertified(@RequestHeader("Authorization") String idToken,
                                                                                @PathVariable("target_uid") String targetUid,
-                                                                               @RequestBody UserMadeOrLoveRequestDto userMadeOrLoveRequestDto) throws IOException, FirebaseAuthException {
+                                                                               @RequestBody UserMadeOrLoveRequestDto userMadeOrLoveRequestDto,
+                                                                               @RequestParam(required = false) Long cursor,
+                                                                               @RequestParam(defaultValue = "30") int size) throws IOException, FirebaseAuthException {
         AuthResponse authResponse = authorizeService.isAuthorized(idToken, userMadeOrLoveRequestDto.getUid());
         if(authResponse.getIsUser()) {
             FirebaseToken decodedToken = authResponse.getDecodedToken();
             // 본인이 본인의 좋아요 누른 사진을 보는 경우
             if(Objects.equals(authResponse.getDecodedToken().getUid(), targetUid)) {
-                return ResponseEntity.ok(userService.findMyLovePics(decodedToken));
+                return ResponseEntity.ok(userService.findMyLovePics(decodedToken, cursor, size));
             // 타인의 좋아요 누른 사진을 보는 경우
             } else {
-                return ResponseEntity.ok(userService.findUserLovePicsCertified(decodedToken, targetUid));
+                return ResponseEntity.ok(userService.findUserLovePicsCertified(decodedToken, targetUid, cursor, size));
             }
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -204,8 +238,10 @@ public class UserController {
      * @return : 찾는 유저의 좋아요 리스트
      */
     @GetMapping("/{uid}/like_picture")
-    public ResponseEntity<List<UserPicsResponseDto>> readUserLovePicsNotCert(@PathVariable String uid) {
-        return ResponseEntity.ok(userService.findUserLovePics(uid));
+    public ResponseEntity<UserPicsPageResponseDto> readUserLovePicsNotCert(@PathVariable String uid,
+                                                                           @RequestParam(required = false) Long cursor,
+                                                                           @RequestParam(defaultValue = "30") int size) {
+        return ResponseEntity.ok(userService.findUserLovePics(uid, cursor, size));
     }
 
     /**
@@ -218,18 +254,20 @@ public class UserController {
      * @throws FirebaseAuthException :
      */
     @PostMapping("/{target_uid}/made_picture/certified")
-    public ResponseEntity<List<UserPicsResponseDto>> readUserMadePicsCertified(@RequestHeader("Authorization") String idToken,
+    public ResponseEntity<UserPicsPageResponseDto> readUserMadePicsCertified(@RequestHeader("Authorization") String idToken,
                                                                       @PathVariable("target_uid") String targetUid,
-                                                                      @RequestBody UserMadeOrLoveRequestDto userMadeOrLoveRequestDto) throws IOException, FirebaseAuthException {
+                                                                      @RequestBody UserMadeOrLoveRequestDto userMadeOrLoveRequestDto,
+                                                                      @RequestParam(required = false) Long cursor,
+                                                                      @RequestParam(defaultValue = "30") int size) throws IOException, FirebaseAuthException {
         AuthResponse authResponse = authorizeService.isAuthorized(idToken, userMadeOrLoveRequestDto.getUid());
         if(authResponse.getIsUser()) {
             FirebaseToken decodedToken = authResponse.getDecodedToken();
             // 본인이 본인이 제작한 이미지를 보는 경우
             if(Objects.equals(authResponse.getDecodedToken().getUid(), targetUid)) {
-                return ResponseEntity.ok(userService.findMyMadePics(decodedToken));
+                return ResponseEntity.ok(userService.findMyMadePics(decodedToken, cursor, size));
             // 타인이 제작한 이미지를 보는 경우
             } else {
-                return ResponseEntity.ok(userService.findUserMadePicsCertified(decodedToken, targetUid));
+                return ResponseEntity.ok(userService.findUserMadePicsCertified(decodedToken, targetUid, cursor, size));
             }
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -242,8 +280,10 @@ public class UserController {
      * @return : 유저가 만든 이미지 정보
      */
     @GetMapping("/{uid}/made_picture")
-    public ResponseEntity<List<UserPicsResponseDto>> readUserMadePicsNotCert(@PathVariable String uid){
-        return ResponseEntity.ok(userService.findUserMadePics(uid));
+    public ResponseEntity<UserPicsPageResponseDto> readUserMadePicsNotCert(@PathVariable String uid,
+                                                                           @RequestParam(required = false) Long cursor,
+                                                                           @RequestParam(defaultValue = "30") int size){
+        return ResponseEntity.ok(userService.findUserMadePics(uid, cursor, size));
     }
 
     //***************************************여기서부턴 MSA 통신***********************************************//
@@ -257,6 +297,15 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * 삭제한 그림들의 좋아요 기록을 한 번에 disable 하기 위함 (picture 서버의 삭제 outbox)
+     */
+    @PostMapping("/like/delete")
+    public ResponseEntity<Object> deleteLovesByPicturesDead(@RequestBody List<Long> pictureIds) {
+        userService.deActiveLoves(pictureIds);
+        return ResponseEntity.ok().build();
+    }
+
     /**
      * 로그인 유저가 그림 리스트를 조회할 때, 그림의 생성자와 좋아요 여부를 picture 서버에 알려주는 API
      * @param loveCheckAndMakerRequestDtos : 현재로그인한 유저의 uid, 레이아웃될 그림의 id 목록, 그림 생성자 uid
@@ -277,6 +326,16 @@ public class UserController {
         return userService.findMakers(makerUids);
     }
 
+    /**
+     * picture 서버의 제작자 이름 캐시가 없는 uid 들만 모아서 조회하는 API
+     * @param makerUids : 이미지의 생성자 uid 목록(중복 없이)
+     * @return : uid -> 이름 (없는 유저는 빠진다)
+     */
+    @PostMapping("/find_maker_name_map")
+    public Map<String, String> findMakerNameMap(@RequestBody List<String> makerUids) {
+        return userService.findMakerNameMap(makerUids);
+    }
+
     /**
      * 알람 서버에서 uid 통해서 fcmToken 값을 얻을 때 보내는 API
      * @param uid : 토큰값을 알고자하는 유저의 uid
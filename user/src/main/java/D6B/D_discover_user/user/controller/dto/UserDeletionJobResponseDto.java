@@ -0,0 +1,37 @@
+package D6B.D_discover_user.user.controller.dto;
+
+import D6B.D_discover_user.user.domain.UserDeletionJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionJobResponseDto {
+    private String uid;
+    private String step;
+    private Long processedLoves;
+    private Long processedPictures;
+    private Integer attempts;
+    private String lastError;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    public static UserDeletionJobResponseDto from(UserDeletionJob job) {
+        return UserDeletionJobResponseDto.builder()
+                .uid(job.getUid())
+                .step(job.getStep().name())
+                .processedLoves(job.getProcessedLoves())
+                .processedPictures(job.getProcessedPictures())
+                .attempts(job.getAttempts())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
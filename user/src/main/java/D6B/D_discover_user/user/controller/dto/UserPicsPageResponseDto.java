@@ -0,0 +1,18 @@
+package D6B.D_discover_user.user.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPicsPageResponseDto {
+    private List<UserPicsResponseDto> pictures;
+    // 다음 페이지 요청에 쓸 cursor, 마지막 페이지면 null
+    private Long nextCursor;
+}
@@ -12,7 +12,7 @@ import java.time.Instant;
 @Setter
 @ToString
 @Entity
-@Table(name = "love")
+@Table(name = "love", indexes = @Index(name = "idx_love_user_active_id", columnList = "user_uid, is_active, id"))
 public class Love {
 
     @Id
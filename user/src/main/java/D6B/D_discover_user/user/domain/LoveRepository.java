@@ -1,19 +1,41 @@
 package D6B.D_discover_user.user.domain;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface LoveRepository extends JpaRepository<Love, Long> {
     Optional<Love> findByUserUidAndPictureId(String userUid, Long pictureId);
 
-    List<Love> findByUserUidAndIsActiveTrueOrderByCreatedAtDesc(String userUid);
-
-    List<Love> findByUserId(Long userId);
+    // 좋아요는 다시 활성화해도 created_at 이 바뀌지 않아서 id 순서가 곧 created_at 순서
+    List<Love> findByUserUidAndIsActiveTrueAndIdLessThanOrderByIdDesc(String userUid, Long cursor, Pageable pageable);
 
+    // 탈퇴한 유저의 남은 활성 좋아요 (오래된 것부터 나눠서)
+    List<Love> findByUserUidAndIsActiveTrueOrderByIdAsc(String userUid, Pageable pageable);
 
     List<Love> findByPictureId(Long pictureId);
 
     Optional<Love> findByUserUidAndPictureIdAndIsActiveTrue(String uid, Long pictureId);
+
+    // 여러 그림 중 uid 유저가 좋아요 누른 그림 id 들만
+    @Query("SELECT l.pictureId FROM Love l WHERE l.user.uid = :uid AND l.isActive = true AND l.pictureId IN :pictureIds")
+    List<Long> findActiveLovedPictureIds(@Param("uid") String uid, @Param("pictureIds") Collection<Long> pictureIds);
+
+    // 여러 그림의 활성 좋아요 비활성화
+    @Transactional
+    @Modifying
+    @Query("UPDATE Love l SET l.isActive = false WHERE l.pictureId IN :pictureIds AND l.isActive = true")
+    int deactivateByPictureIds(@Param("pictureIds") Collection<Long> pictureIds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Love l SET l.isActive = false WHERE l.id IN :loveIds AND l.isActive = true")
+    int deactivateByIds(@Param("loveIds") Collection<Long> loveIds);
 }
@@ -0,0 +1,65 @@
+package D6B.D_discover_user.user.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * 회원 탈퇴 후 정리 작업 (좋아요 -> 만든 그림 -> 알람 순서로 나눠서 진행)
+ * 진행 상황을 남겨두어서 중간에 실패하거나 서버가 내려가도 남은 것부터 이어서 한다.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "user_deletion_job", indexes = {
+        @Index(name = "idx_user_deletion_job_step_next", columnList = "step, next_attempt_at"),
+        @Index(name = "idx_user_deletion_job_uid", columnList = "uid")})
+public class UserDeletionJob {
+    public enum Step { LOVES, PICTURES, ALARMS, DONE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "uid", nullable = false)
+    private String uid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "step", nullable = false, length = 20)
+    private Step step;
+
+    // 지금까지 정리한 좋아요, 그림 수
+    @Column(name = "processed_loves", nullable = false)
+    private Long processedLoves;
+
+    @Column(name = "processed_pictures", nullable = false)
+    private Long processedPictures;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    // 실행 중인 서버가 잡고 있는 시간 (여러 서버가 같은 job 을 동시에 돌리지 않도록)
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,26 @@
+package D6B.D_discover_user.user.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJob, Long> {
+    // 다시 시도할 시간이 된 job 들
+    List<UserDeletionJob> findTop20ByStepNotAndNextAttemptAtLessThanEqualOrderByIdAsc(UserDeletionJob.Step step, Instant now);
+
+    Optional<UserDeletionJob> findFirstByUidAndStepNotOrderByIdDesc(String uid, UserDeletionJob.Step step);
+
+    Optional<UserDeletionJob> findFirstByUidOrderByIdDesc(String uid);
+
+    // 아무도 잡고 있지 않은 job 만 잡는다. (1 이면 성공)
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserDeletionJob j SET j.lockedUntil = :lockedUntil WHERE j.id = :id AND (j.lockedUntil IS NULL OR j.lockedUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("lockedUntil") Instant lockedUntil);
+}
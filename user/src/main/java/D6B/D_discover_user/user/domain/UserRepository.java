@@ -2,8 +2,11 @@ package D6B.D_discover_user.user.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUid(String uid);
+    List<User> findByUidIn(Collection<String> uids);
 }
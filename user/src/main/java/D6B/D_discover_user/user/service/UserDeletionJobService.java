@@ -0,0 +1,159 @@
+package D6B.D_discover_user.user.service;
+
+import D6B.D_discover_user.common.ConstValues;
+import D6B.D_discover_user.user.domain.Love;
+import D6B.D_discover_user.user.domain.LoveRepository;
+import D6B.D_discover_user.user.domain.UserDeletionJob;
+import D6B.D_discover_user.user.domain.UserDeletionJobRepository;
+import D6B.D_discover_user.user.service.msa.AlarmCallService;
+import D6B.D_discover_user.user.service.msa.PictureCallService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 탈퇴 정리 작업
+ * 탈퇴 요청은 job 만 남기고 바로 끝나고, 스케줄러가 각 서비스에 묶음 단위 요청을 보내며 진행한다.
+ * 1. LOVES    : 활성 좋아요 chunkSize 개씩 -> 그림 서버에 좋아요 수 내리기 요청 후 UPDATE 한 번으로 비활성화
+ * 2. PICTURES : 그림 서버가 유저의 그림을 chunkSize 개씩 삭제 (0 개가 올 때까지)
+ * 3. ALARMS   : 알람 서버가 유저의 알람을 UPDATE 한 번으로 비활성화
+ * 단계마다 진행 상황을 저장하므로 실패하면 backoff 후 남은 것부터 다시 한다.
+ * (좋아요 수 내리기 응답만 잃어버린 경우 그 묶음의 좋아요 수가 한 번 더 내려갈 수 있다.)
+ */
+@Slf4j
+@Service
+public class UserDeletionJobService {
+    private static final Duration LOCK_DURATION = Duration.ofMinutes(5);
+    private static final long BASE_BACKOFF_MILLIS = 1_000L;
+    private static final long MAX_BACKOFF_MILLIS = 10 * 60 * 1_000L;
+
+    private final UserDeletionJobRepository userDeletionJobRepository;
+    private final LoveRepository loveRepository;
+    private final int chunkSize;
+
+    @Autowired
+    public UserDeletionJobService(UserDeletionJobRepository userDeletionJobRepository,
+                                  LoveRepository loveRepository,
+                                  @Value("${user-deletion.chunk-size:500}") int chunkSize) {
+        this.userDeletionJobRepository = userDeletionJobRepository;
+        this.loveRepository = loveRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    // 탈퇴 job 등록 (아직 끝나지 않은 job 이 있으면 그 job 을 그대로 쓴다)
+    public UserDeletionJob start(String uid) {
+        Optional<UserDeletionJob> running = userDeletionJobRepository.findFirstByUidAndStepNotOrderByIdDesc(uid, UserDeletionJob.Step.DONE);
+        if(running.isPresent()) return running.get();
+        Instant now = Instant.now();
+        return userDeletionJobRepository.save(UserDeletionJob.builder()
+                .uid(uid)
+                .step(UserDeletionJob.Step.LOVES)
+                .processedLoves(0L)
+                .processedPictures(0L)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    // 아직 끝나지 않은 탈퇴 job 이 있는지 (picture 서버가 유저의 그림을 지우기 전에 확인)
+    public boolean isRunning(String uid) {
+        return userDeletionJobRepository.findFirstByUidAndStepNotOrderByIdDesc(uid, UserDeletionJob.Step.DONE).isPresent();
+    }
+
+    public Optional<UserDeletionJob> findLatest(String uid) {
+        return userDeletionJobRepository.findFirstByUidOrderByIdDesc(uid);
+    }
+
+    @Scheduled(fixedDelayString = "${user-deletion.dispatch-delay-millis:1000}", initialDelayString = "${user-deletion.dispatch-delay-millis:1000}")
+    public void runDueJobs() {
+        Instant now = Instant.now();
+        for(UserDeletionJob job : userDeletionJobRepository.findTop20ByStepNotAndNextAttemptAtLessThanEqualOrderByIdAsc(UserDeletionJob.Step.DONE, now)) {
+            // 다른 서버가 먼저 잡은 job 은 건너뛴다.
+            if(userDeletionJobRepository.claim(job.getId(), now, now.plus(LOCK_DURATION)) == 1) {
+                run(job.getId());
+            }
+        }
+    }
+
+    // 끝나거나 실패할 때까지 단계를 진행한다.
+    void run(Long jobId) {
+        UserDeletionJob job = userDeletionJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("탈퇴 job 이 없습니다 : " + jobId));
+        try {
+            while(job.getStep() != UserDeletionJob.Step.DONE) {
+                advance(job);
+                job.setLockedUntil(Instant.now().plus(LOCK_DURATION));
+                job.setUpdatedAt(Instant.now());
+                job = userDeletionJobRepository.save(job);
+            }
+            log.info("탈퇴 정리 완료 : uid {}, 좋아요 {}개, 그림 {}개", job.getUid(), job.getProcessedLoves(), job.getProcessedPictures());
+        } catch(Exception e) {
+            job.setAttempts(job.getAttempts() + 1);
+            job.setNextAttemptAt(Instant.now().plusMillis(backoff(job.getAttempts())));
+            job.setLastError(truncate(e.getMessage()));
+            log.warn("탈퇴 정리 실패 : uid {}, 단계 {}, {}회째 - {}", job.getUid(), job.getStep(), job.getAttempts(), e.getMessage());
+        }
+        job.setLockedUntil(null);
+        job.setUpdatedAt(Instant.now());
+        userDeletionJobRepository.save(job);
+    }
+
+    // 한 묶음만 처리하고 다음 단계로 넘어갈지 정한다.
+    private void advance(UserDeletionJob job) {
+        switch(job.getStep()) {
+            case LOVES: {
+                List<Love> loves = loveRepository.findByUserUidAndIsActiveTrueOrderByIdAsc(job.getUid(), PageRequest.of(0, chunkSize));
+                if(loves.isEmpty()) {
+                    job.setStep(UserDeletionJob.Step.PICTURES);
+                    return;
+                }
+                List<Long> pictureIds = loves.stream().map(Love::getPictureId).collect(Collectors.toList());
+                List<Long> loveIds = loves.stream().map(Love::getId).collect(Collectors.toList());
+                // 좋아요 수를 먼저 내리고 비활성화 (반대로 하면 실패 시 내려야 할 좋아요를 잃어버린다)
+                PictureCallService.postRequestWithBodyToPictureOrThrow(ConstValues.COUNT_DOWN_LOVES_TO_PICTURE, pictureIds);
+                loveRepository.deactivateByIds(loveIds);
+                job.setProcessedLoves(job.getProcessedLoves() + loves.size());
+                return;
+            }
+            case PICTURES: {
+                Integer deleted = PictureCallService.postRequestToPictureThenCountOrThrow(
+                        ConstValues.USER_PICTURES_DELETE_TO_PICTURE + job.getUid() + "/pictures?size=" + chunkSize);
+                if(deleted == null || deleted == 0) {
+                    job.setStep(UserDeletionJob.Step.ALARMS);
+                    return;
+                }
+                job.setProcessedPictures(job.getProcessedPictures() + deleted);
+                return;
+            }
+            case ALARMS:
+                AlarmCallService.putRequestToAlarmThenVoidOrThrow(ConstValues.USER_HISTORY_DELETE_TO_ALARM + job.getUid());
+                job.setStep(UserDeletionJob.Step.DONE);
+                job.setFinishedAt(Instant.now());
+                job.setLastError(null);
+                return;
+            default:
+        }
+    }
+
+    // 1초부터 두 배씩, 최대 10분
+    static long backoff(int attempts) {
+        if(attempts >= 20) return MAX_BACKOFF_MILLIS;
+        return Math.min(BASE_BACKOFF_MILLIS << Math.max(attempts - 1, 0), MAX_BACKOFF_MILLIS);
+    }
+
+    private static String truncate(String message) {
+        if(message == null) return null;
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
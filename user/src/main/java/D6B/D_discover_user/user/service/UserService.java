@@ -12,26 +12,29 @@ import D6B.D_discover_user.user.service.msa.AlarmCallService;
 import D6B.D_discover_user.user.service.msa.PictureCallService;
 import com.google.firebase.auth.FirebaseToken;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 
 @Slf4j
 @Service
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final LoveRepository loveRepository;
     private final UserRepository userRepository;
+    private final UserDeletionJobService userDeletionJobService;
 
     public UserService(LoveRepository loveRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       UserDeletionJobService userDeletionJobService) {
         this.loveRepository = loveRepository;
         this.userRepository = userRepository;
+        this.userDeletionJobService = userDeletionJobService;
     }
 
     public void enrollUser(String fcmToken, FirebaseToken decodedToken) {
@@ -40,12 +43,17 @@ public class UserService {
         if(optUser.isPresent()) {
             User user = optUser.get();
             // 비활성 회원의 경우 다시 activate 해야한다.
-            if(!user.getIsActive()) userRepository.save(activateUser(user, fcmToken, decodedToken));
+            if(!user.getIsActive()) {
+                userRepository.save(activateUser(user, fcmToken, decodedToken));
+                evictMakerName(user.getUid());  // 이름이 구글 계정 이름으로 초기화됨
+                evictFcmToken(user.getUid());
+            }
             // 활성 회원의 경우 token값을 갱신한다.
             else {
-                if(!user.getFcmToken().equals(fcmToken)) {
+                if(!Objects.equals(user.getFcmToken(), fcmToken)) {
                     user.setFcmToken(fcmToken);
                     userRepository.save(user);
+                    evictFcmToken(user.getUid());   // 알람 서버에 캐시된 이전 토큰 제거
                 }
             }
         // 신규 회원
@@ -89,7 +97,10 @@ public class UserService {
         Optional<User> optUser = userRepository.findByUid(decodedToken.getUid());
         if(optUser.isPresent()) {
             User user = optUser.get();
-            return userRepository.save(updateUserWithoutImg(user, userUpdateRequestDto));
+            boolean nameChanged = !Objects.equals(user.getName(), userUpdateRequestDto.getName());
+            User updatedUser = userRepository.save(updateUserWithoutImg(user, userUpdateRequestDto));
+            if(nameChanged) evictMakerName(user.getUid());
+            return updatedUser;
         } else log.info("해당 uid에 대한 유저가 없습니다.");
         return null;
     }
@@ -101,21 +112,27 @@ public class UserService {
         return user;
     }
 
-    // 삭제
-    public void deleteUserInfo(FirebaseToken decodedToken) {
+    // 삭제 - 유저만 바로 비활성화하고 좋아요, 그림, 알람 정리는 탈퇴 job 으로 넘긴다.
+    public UserDeletionJobResponseDto deleteUserInfo(FirebaseToken decodedToken) {
         String uid = decodedToken.getUid();
         Optional<User> optUser = userRepository.findByUid(uid);
         if(optUser.isPresent()) {
             User user = optUser.get();
             user.setIsActive(false);
             userRepository.save(user);
-            // 좋아요 비활성화 시키기 및 해당 좋아요로부터 그림의 id 뽑아내기
-            List<Long> madeOrLoved = deactivateLove(uid);
-            // 해당 유저가 그림 비활성화 및 좋아요 누른 그림의 좋아요 수 줄이기
-            deactivatePictureAndMinusLove(uid, madeOrLoved);
-            // 알람 비활성화 시키기 - 주는자, 받는자
-            deactivateAlarms(uid);
+            return UserDeletionJobResponseDto.from(userDeletionJobService.start(uid));
         } else log.info("해당 uid에 대한 유저가 없습니다.");
+        return null;
+    }
+
+    // 진행 중인 탈퇴 job 이 있는지
+    public boolean hasRunningDeletionJob(String uid) {
+        return userDeletionJobService.isRunning(uid);
+    }
+
+    // 가장 최근 탈퇴 job 의 진행 상황
+    public UserDeletionJobResponseDto findDeletionJob(String uid) {
+        return userDeletionJobService.findLatest(uid).map(UserDeletionJobResponseDto::from).orElse(null);
     }
 
     /**
@@ -128,18 +145,6 @@ public class UserService {
         return user.getId();
     }
 
-    // 비활성 유저의 좋아요는 비활성화 시키는 함수
-    public List<Long> deactivateLove(String uid) {
-        List<Love> loves = loveRepository.findByUserId(findIdByUid(uid));
-        List<Long> loveIdxs = new ArrayList<>();
-        for(Love love : loves) {
-            love.setIsActive(false);
-            loveIdxs.add(love.getPictureId());
-            loveRepository.save(love);
-        }
-        return loveIdxs;
-    }
-
     public void toggleLove(LoveToggleRequestDto loveToggleRequestDto) {
 //        log.info(loveToggleRequestDto+"여기는 러브 토글 리퀘");
         String uid = loveToggleRequestDto.getUid();
@@ -194,37 +199,82 @@ public class UserService {
         }
     }
 
+    /**
+     * 삭제된 그림들의 좋아요를 UPDATE 한 번으로 비활성화 (picture 서버의 삭제 outbox 가 모아서 보냄)
+     * @param pictureIds : 삭제된 그림 id 목록
+     */
+    public void deActiveLoves(List<Long> pictureIds) {
+        if(!pictureIds.isEmpty()) {
+            loveRepository.deactivateByPictureIds(pictureIds);
+        }
+    }
+
+    /**
+     * 그림 목록의 제작자 이름과 좋아요 여부를 한 번에 찾는다.
+     * 제작자는 IN 쿼리 한 번, 좋아요 여부는 조회하는 유저마다 IN 쿼리 한 번(보통 한 명)으로 끝낸다.
+     * 기존과 같이 제작자가 없는 그림은 응답에서 빠진다.
+     */
     public List<LoveCheckAndMakerResponseDto> findLoveChecksAndMakers(List<LoveCheckAndMakerRequestDto> loveCheckAndMakerRequestDtos) {
+        List<String> makerUids = new ArrayList<>();
+        Map<String, Set<Long>> pictureIdsByUid = new HashMap<>();
+        for(LoveCheckAndMakerRequestDto requestDto : loveCheckAndMakerRequestDtos) {
+            makerUids.add(requestDto.getMakerUid());
+            pictureIdsByUid.computeIfAbsent(requestDto.getUid(), uid -> new HashSet<>()).add(requestDto.getPictureId());
+        }
+        Map<String, String> makerNames = findMakerNameMap(makerUids);
+        Map<String, Set<Long>> lovedByUid = new HashMap<>();
+        pictureIdsByUid.forEach((uid, pictureIds) ->
+                lovedByUid.put(uid, new HashSet<>(loveRepository.findActiveLovedPictureIds(uid, pictureIds))));
+
         List<LoveCheckAndMakerResponseDto> responseDtos = new ArrayList<>();
-        for(LoveCheckAndMakerRequestDto loveCheckAndMakerRequestDto : loveCheckAndMakerRequestDtos) {
-            String uid = loveCheckAndMakerRequestDto.getUid();
-            String makerUid = loveCheckAndMakerRequestDto.getMakerUid();
-            Long pictureId = loveCheckAndMakerRequestDto.getPictureId();
-            Optional<User> optMaker = userRepository.findByUid(makerUid);
-            optMaker.ifPresent(user -> responseDtos.add(LoveCheckAndMakerResponseDto.builder()
-                    .loveCheck(loveRepository.findByUserUidAndPictureIdAndIsActiveTrue(uid, pictureId).isPresent())
-                    .makerName(user.getName())
-                    .build()));
+        for(LoveCheckAndMakerRequestDto requestDto : loveCheckAndMakerRequestDtos) {
+            if(!makerNames.containsKey(requestDto.getMakerUid())) continue;
+            responseDtos.add(LoveCheckAndMakerResponseDto.builder()
+                    .loveCheck(lovedByUid.get(requestDto.getUid()).contains(requestDto.getPictureId()))
+                    .makerName(makerNames.get(requestDto.getMakerUid()))
+                    .build());
         }
         return responseDtos;
     }
 
+    // 제작자 uid 목록 순서대로 이름 목록 반환 (없는 제작자는 빠진다)
     public List<String> findMakers(List<String> makerUids) {
+        Map<String, String> makerNames = findMakerNameMap(makerUids);
         List<String> responseDtos = new ArrayList<>();
         for(String makerUid : makerUids) {
-            Optional<User> optUser = userRepository.findByUid(makerUid);
-            optUser.ifPresent(user -> responseDtos.add(user.getName()));
+            if(makerNames.containsKey(makerUid)) responseDtos.add(makerNames.get(makerUid));
         }
         return responseDtos;
     }
 
     /**
-     * 유저 탈퇴(비활성화) 시, 값을 해당 유저의 그림을 비활성화하고 좋아요 수를 하나 줄인다.
-     * @param uid : 탈퇴한 유저의 uid
-     * @param pictureIdxs : 유저가 좋아요 눌렀던 그림 idx
+     * 제작자 uid 목록으로 uid -> 이름 map 을 만든다(한 번의 쿼리). 없는 uid 는 map 에 들어가지 않는다.
+     * @param makerUids : 이미지의 생성자 uid 목록
+     * @return : uid -> 이름
      */
-    public void deactivatePictureAndMinusLove(String uid, List<Long> pictureIdxs) {
-        PictureCallService.postRequestWithBodyToPicture(ConstValues.USER_HISTORY_DELETE_TO_PICTURE, new DeleteUserHistoryInPicture(uid, pictureIdxs));
+    public Map<String, String> findMakerNameMap(List<String> makerUids) {
+        Map<String, String> makerNames = new HashMap<>();
+        if(makerUids.isEmpty()) return makerNames;
+        for(User user : userRepository.findByUidIn(new HashSet<>(makerUids))) {
+            makerNames.put(user.getUid(), user.getName());
+        }
+        return makerNames;
+    }
+
+    /**
+     * 이름이 바뀌면 picture 서버에 캐시된 제작자 이름을 지우도록 알린다.
+     * @param uid : 이름이 바뀐 유저의 uid
+     */
+    public void evictMakerName(String uid) {
+        PictureCallService.postRequestToPictureThenVoid(ConstValues.MAKER_NAME_EVICT_TO_PICTURE + uid);
+    }
+
+    /**
+     * FCM 토큰이 바뀌면 알람 서버에 캐시된 토큰을 지우도록 알린다.
+     * @param uid : 토큰이 바뀐 유저의 uid
+     */
+    public void evictFcmToken(String uid) {
+        AlarmCallService.postRequestToAlarmThenVoid(ConstValues.FCM_TOKEN_EVICT_TO_ALARM + uid);
     }
 
     /**
@@ -243,14 +293,6 @@ public class UserService {
         PictureCallService.postRequestToPictureThenVoid(ConstValues.COUNT_UP_LOVE_TO_PICTURE + pictureId);
     }
 
-    /**
-     * 유저 탈퇴 시, 유저의 모든 알람을 비활성화
-     * @param uid : 탈퇴한 유저의 uid
-     */
-    public void deactivateAlarms(String uid) {
-        AlarmCallService.putRequestToAlarmThenVoid(ConstValues.USER_HISTORY_DELETE_TO_ALARM + uid);
-    }
-
     /**
      * 좋아요 '처음' 누르면 알람을 그림 url 획득 및 해당 그림에 좋아요 추가 요청
      * @param pictureId : 그림의 url
@@ -293,35 +335,61 @@ public class UserService {
     }
 
     //*******************************여기서부턴 좋아요 리스트*******************************//
+    // 좋아요, 만든 그림 리스트는 id 기준 keyset 페이징 (cursor 는 이전 페이지의 nextCursor, 첫 페이지면 null)
     /**
      * 본인이 본인의 좋아요 리스트를 찾는 함수
      * @param decodedToken : 로그인 유저(본인)의 토큰값
+     * @param cursor : 이전 페이지의 nextCursor (좋아요 id)
+     * @param size : 페이지 크기
      * @return : 좋아요 이미지 리스트(디테일 정보도 담김)
      */
-    public List<UserPicsResponseDto> findMyLovePics(FirebaseToken decodedToken) {
-        List<UserPicsResponseDto> responseDtos = MakeUserLikesResponseWithGettingPictureInfo(ConstValues.USER_LIKES_TO_PICTURE_WHEN_ME, getPictureIds(decodedToken.getUid()));
-        return setMakerNameInResponse(responseDtos);
+    public UserPicsPageResponseDto findMyLovePics(FirebaseToken decodedToken, Long cursor, int size) {
+        return findLovePics(ConstValues.USER_LIKES_TO_PICTURE_WHEN_ME, decodedToken.getUid(), null, cursor, size);
     }
 
     /**
      * 로그인 사용자가 특정인의 좋아요 리스트를 찾는 함수
      * @param decodedToken : 로그인 유저의 토큰값
      * @param targetUid : 타겟 유저의 uid
+     * @param cursor : 이전 페이지의 nextCursor (좋아요 id)
+     * @param size : 페이지 크기
      * @return : 좋아요 이미지 리스트(디테일 정보도 담김)
      */
-    public List<UserPicsResponseDto> findUserLovePicsCertified(FirebaseToken decodedToken, String targetUid) {
-        List<UserPicsResponseDto> responseDtos = MakeUserLikesResponseWithGettingPictureInfo(ConstValues.USER_LIKES_TO_PICTURE_WHEN_NOT_ME, getPictureIds(targetUid));
-        return checkPicsWhetherILoved(decodedToken.getUid(), setMakerNameInResponse(responseDtos));
+    public UserPicsPageResponseDto findUserLovePicsCertified(FirebaseToken decodedToken, String targetUid, Long cursor, int size) {
+        return findLovePics(ConstValues.USER_LIKES_TO_PICTURE_WHEN_NOT_ME, targetUid, decodedToken.getUid(), cursor, size);
     }
 
     /**
      * 비로그인 사용자가 특정인의 좋아요 리스트를 찾는 함수
      * @param targetUid : 타겟 유저의 uid
+     * @param cursor : 이전 페이지의 nextCursor (좋아요 id)
+     * @param size : 페이지 크기
      * @return : 좋아요 이미지 리스트(디테일 정보도 담김)
      */
-    public List<UserPicsResponseDto> findUserLovePics(String targetUid) {
-        List<UserPicsResponseDto> responseDtos = MakeUserLikesResponseWithGettingPictureInfo(ConstValues.USER_LIKES_TO_PICTURE_WHEN_NOT_ME, getPictureIds(targetUid));
-        return setMakerNameInResponse(responseDtos);    // 접속자가 아니라서 좋아요 눌렀는지 여부 판단 필요X
+    public UserPicsPageResponseDto findUserLovePics(String targetUid, Long cursor, int size) {
+        return findLovePics(ConstValues.USER_LIKES_TO_PICTURE_WHEN_NOT_ME, targetUid, null, cursor, size);    // 접속자가 아니라서 좋아요 눌렀는지 여부 판단 필요X
+    }
+
+    // 좋아요는 size + 1 개를 조회해서 다음 페이지가 있는지 확인한다.
+    // 그림 서버에서 삭제/비공개 그림이 걸러져 size 보다 적게 와도 nextCursor 는 좋아요 id 기준이라 빠지는 것이 없다.
+    UserPicsPageResponseDto findLovePics(String url, String targetUid, String loginUid, Long cursor, int size) {
+        int pageSize = limitPageSize(size);
+        List<Love> loves = getLoves(targetUid, cursor, pageSize + 1);
+        Long nextCursor = null;
+        if(loves.size() > pageSize) {
+            loves = loves.subList(0, pageSize);
+            nextCursor = loves.get(pageSize - 1).getId();
+        }
+        List<Long> pictureIds = loves.stream().map(Love::getPictureId).collect(Collectors.toList());
+        List<UserPicsResponseDto> responseDtos = pictureIds.isEmpty() ? new ArrayList<>() : MakeUserLikesResponseWithGettingPictureInfo(url, pictureIds);
+        responseDtos = setMakerNameInResponse(responseDtos);
+        if(loginUid != null) {
+            responseDtos = checkPicsWhetherILoved(loginUid, responseDtos);
+        }
+        return UserPicsPageResponseDto.builder()
+                .pictures(responseDtos)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     public List<UserPicsResponseDto> MakeUserLikesResponseWithGettingPictureInfo(String url, List<Long> pictureIds) {
@@ -339,32 +407,50 @@ public class UserService {
     /**
      * 본인이 제작한 이미지 리스트를 찾는 함수
      * @param decodedToken : 로그인 유저(본인)의 토큰값
+     * @param cursor : 이전 페이지의 nextCursor (그림 id)
+     * @param size : 페이지 크기
      * @return : 타겟 유저(본인)가 제작한 이미지 리스트(디테일 정보도 담김)
      */
-    public List<UserPicsResponseDto> findMyMadePics(FirebaseToken decodedToken) {
-        List<UserPicsResponseDto> responseDtos = MakeUserMadeResponseWithGettingPictureInfo(ConstValues.USER_MADE_TO_PICTURE_WHEN_LOGIN + decodedToken.getUid() + "/1");
-        return checkPicsWhetherILoved(decodedToken.getUid(), setMakerNameInResponse(responseDtos));
+    public UserPicsPageResponseDto findMyMadePics(FirebaseToken decodedToken, Long cursor, int size) {
+        return findMadePics(ConstValues.USER_MADE_TO_PICTURE_WHEN_LOGIN + decodedToken.getUid() + "/1", decodedToken.getUid(), cursor, size);
     }
 
     /**
      * 로그인 사용자가 다른이가 제작한 이미지 리스트를 찾는 함수
      * @param decodedToken : 로그인 유저의 토큰값
      * @param targetUid : 타겟 유저의 uid
+     * @param cursor : 이전 페이지의 nextCursor (그림 id)
+     * @param size : 페이지 크기
      * @return : 타겟 유저가 제작한 이미지 리스트(디테일 정보도 담김)
      */
-    public List<UserPicsResponseDto> findUserMadePicsCertified(FirebaseToken decodedToken, String targetUid) {
-        List<UserPicsResponseDto> responseDtos = MakeUserMadeResponseWithGettingPictureInfo(ConstValues.USER_MADE_TO_PICTURE_WHEN_LOGIN + targetUid + "/0");
-        return checkPicsWhetherILoved(decodedToken.getUid(), setMakerNameInResponse(responseDtos));
+    public UserPicsPageResponseDto findUserMadePicsCertified(FirebaseToken decodedToken, String targetUid, Long cursor, int size) {
+        return findMadePics(ConstValues.USER_MADE_TO_PICTURE_WHEN_LOGIN + targetUid + "/0", decodedToken.getUid(), cursor, size);
     }
 
     /**
      * 유저가 만든 그림 or 사진
      * @param targetUid : 좋아요 누른 사람의 uid
+     * @param cursor : 이전 페이지의 nextCursor (그림 id)
+     * @param size : 페이지 크기
      * @return : 유저가 만든 그림의 id, url, createdAt 리스트
      */
-    public List<UserPicsResponseDto> findUserMadePics(String targetUid) {
-        List<UserPicsResponseDto> responseDtos = MakeUserMadeResponseWithGettingPictureInfo(ConstValues.USER_MADE_TO_PICTURE_WHEN_NOT_LOGIN + targetUid);
-        return setMakerNameInResponse(responseDtos);    // 접속자가 아니라서 좋아요 눌렀는지 여부 판단 필요X
+    public UserPicsPageResponseDto findUserMadePics(String targetUid, Long cursor, int size) {
+        return findMadePics(ConstValues.USER_MADE_TO_PICTURE_WHEN_NOT_LOGIN + targetUid, null, cursor, size);    // 접속자가 아니라서 좋아요 눌렀는지 여부 판단 필요X
+    }
+
+    // 그림 서버가 size 개를 꽉 채워 주면 마지막 그림 id 가 다음 cursor
+    UserPicsPageResponseDto findMadePics(String url, String loginUid, Long cursor, int size) {
+        int pageSize = limitPageSize(size);
+        String pageUrl = url + "?size=" + pageSize + (cursor == null ? "" : "&cursor=" + cursor);
+        List<UserPicsResponseDto> responseDtos = setMakerNameInResponse(MakeUserMadeResponseWithGettingPictureInfo(pageUrl));
+        if(loginUid != null) {
+            responseDtos = checkPicsWhetherILoved(loginUid, responseDtos);
+        }
+        Long nextCursor = responseDtos.size() == pageSize ? responseDtos.get(pageSize - 1).getPictureId() : null;
+        return UserPicsPageResponseDto.builder()
+                .pictures(responseDtos)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     List<UserPicsResponseDto> MakeUserMadeResponseWithGettingPictureInfo(String url) {
@@ -376,12 +462,14 @@ public class UserService {
         return responseDtos;
     }
 
-    // uid 유저의 좋아요누른 그림 id 목록을 반환한다.
-    public List<Long> getPictureIds(String uid) {
-        return loveRepository.findByUserUidAndIsActiveTrueOrderByCreatedAtDesc(uid)
-                .stream()
-                .map(Love::getPictureId)
-                .collect(Collectors.toList());
+    // uid 유저의 활성 좋아요들을 cursor(좋아요 id) 이전부터 최신순으로 limit 개 반환한다.
+    public List<Love> getLoves(String uid, Long cursor, int limit) {
+        return loveRepository.findByUserUidAndIsActiveTrueAndIdLessThanOrderByIdDesc(
+                uid, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, limit));
+    }
+
+    private int limitPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     /**
@@ -389,9 +477,10 @@ public class UserService {
      */
     public List<UserPicsResponseDto> setMakerNameInResponse(List<UserPicsResponseDto> responseDtos) {
         if(!Objects.requireNonNull(responseDtos).isEmpty()) {
+            List<String> makerUids = responseDtos.stream().map(UserPicsResponseDto::getMakerUid).collect(Collectors.toList());
+            Map<String, String> makerNames = findMakerNameMap(makerUids);
             for(UserPicsResponseDto responseDto : responseDtos) {
-                Optional<User> optUser = userRepository.findByUid(responseDto.getMakerUid());
-                optUser.ifPresent(user -> responseDto.setMakerName(user.getName()));
+                if(makerNames.containsKey(responseDto.getMakerUid())) responseDto.setMakerName(makerNames.get(responseDto.getMakerUid()));
             }
         }
         return responseDtos;
@@ -401,13 +490,11 @@ public class UserService {
      * 그림 디테일 리스트를 전달할 때, 로그인한 유저가 해당 그림들에 좋아요를 눌렀는지를 판단한다
      */
     public List<UserPicsResponseDto> checkPicsWhetherILoved(String loginUid, List<UserPicsResponseDto> responseDtos) {
-        for(UserPicsResponseDto responseDto : Objects.requireNonNull(responseDtos)) {
-            Long pictureId = responseDto.getPictureId();
-            Optional<Love> optLove = loveRepository.findByUserUidAndPictureIdAndIsActiveTrue(loginUid, pictureId);
-            if(optLove.isPresent()) {
-                responseDto.setLoveCheck(Boolean.TRUE);
-            }
-            else responseDto.setLoveCheck(Boolean.FALSE);
+        if(Objects.requireNonNull(responseDtos).isEmpty()) return responseDtos;
+        List<Long> pictureIds = responseDtos.stream().map(UserPicsResponseDto::getPictureId).collect(Collectors.toList());
+        Set<Long> lovedPictureIds = new HashSet<>(loveRepository.findActiveLovedPictureIds(loginUid, pictureIds));
+        for(UserPicsResponseDto responseDto : responseDtos) {
+            responseDto.setLoveCheck(lovedPictureIds.contains(responseDto.getPictureId()));
         }
         return responseDtos;
     }
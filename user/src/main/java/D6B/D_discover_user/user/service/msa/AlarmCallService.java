@@ -10,13 +10,17 @@ import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 import static D6B.D_discover_user.common.ConstValues.ALARM_SERVER_CLIENT;
 
 @Slf4j
 public class AlarmCallService {
     /**
      * 함수명 : (요청구분) + Request + (요청에 추가로 들어가는 값들) + (어느 서비스에 요청하는지) + (Void)
+     * OrThrow 로 끝나는 함수는 실패를 삼키지 않고 예외를 던진다. (탈퇴 job 이 다시 시도할 수 있도록)
      */
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
 
     public static void postRequestWithBodyToAlarmThenVoid(String url, PostAlarmRequestDto postAlarmRequestDto) {
         try {
@@ -33,6 +37,20 @@ public class AlarmCallService {
         }
     }
 
+    public static void postRequestToAlarmThenVoid(String url) {
+        try {
+            ALARM_SERVER_CLIENT.post()
+                    .uri(url)
+                    .retrieve()
+                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
+                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
+                    .bodyToMono(Void.class)
+                    .block();
+        } catch (Exception e) {
+            log.error("{}", e.getMessage());
+        }
+    }
+
     public static void putRequestToAlarmThenVoid(String url) {
         try {
             ALARM_SERVER_CLIENT.put()
@@ -77,4 +95,13 @@ public class AlarmCallService {
             log.error("{}", e.getMessage());
         }
     }
+
+    public static void putRequestToAlarmThenVoidOrThrow(String url) {
+        ALARM_SERVER_CLIENT.put()
+                .uri(url)
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(new IllegalStateException("alarm 서버 요청 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Void.class)
+                .block(TIMEOUT);
+    }
 }
@@ -1,7 +1,6 @@
 package D6B.D_discover_user.user.service.msa;
 
 import D6B.D_discover_user.user.controller.dto.UserPicsResponseDto;
-import D6B.D_discover_user.user.service.dto.DeleteUserHistoryInPicture;
 import D6B.D_discover_user.user.service.dto.UserMadeDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
@@ -10,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 import static D6B.D_discover_user.common.ConstValues.PICTURE_SERVER_CLIENT;
@@ -19,7 +19,9 @@ import static D6B.D_discover_user.common.ConstValues.PICTURE_SERVER_CLIENT;
 public class PictureCallService {
     /**
      * 함수명 : (요청구분) + Request + (요청에 추가로 들어가는 값들) + (어느 서비스에 요청하는지) + (Void)
+     * OrThrow 로 끝나는 함수는 실패를 삼키지 않고 예외를 던진다. (탈퇴 job 이 다시 시도할 수 있도록)
      */
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
 
     public static String postRequestToPicture(String url) {
         try {
@@ -71,21 +73,6 @@ public class PictureCallService {
         return null;
     }
 
-    public static void postRequestWithBodyToPicture(String url, DeleteUserHistoryInPicture deleteUserHistoryInPicture) {
-        try {
-            PICTURE_SERVER_CLIENT.post()
-                    .uri(url)
-                    .body(BodyInserters.fromValue(deleteUserHistoryInPicture))
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, clientResponse -> Mono.error(RuntimeException::new))
-                    .onStatus(HttpStatus::is5xxServerError, clientResponse -> Mono.error(RuntimeException::new))
-                    .bodyToMono(void.class)
-                    .block();
-        } catch (Exception e) {
-            log.error("{}", e.getMessage());
-        }
-    }
-
     public static List<UserMadeDto> getRequestToPicture(String url) {
         try {
             return PICTURE_SERVER_CLIENT.get()
@@ -100,4 +87,23 @@ public class PictureCallService {
         }
         return null;
     }
+
+    public static void postRequestWithBodyToPictureOrThrow(String url, List<Long> pictureIds) {
+        PICTURE_SERVER_CLIENT.post()
+                .uri(url)
+                .body(BodyInserters.fromValue(pictureIds))
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(new IllegalStateException("picture 서버 요청 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Void.class)
+                .block(TIMEOUT);
+    }
+
+    public static Integer postRequestToPictureThenCountOrThrow(String url) {
+        return PICTURE_SERVER_CLIENT.post()
+                .uri(url)
+                .retrieve()
+                .onStatus(HttpStatus::isError, clientResponse -> Mono.error(new IllegalStateException("picture 서버 요청 실패 : " + clientResponse.statusCode())))
+                .bodyToMono(Integer.class)
+                .block(TIMEOUT);
+    }
 }
@@ -0,0 +1,61 @@
+package D6B.D_discover_user.common.service;
+
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void exp_전까지만_캐시된_토큰을_돌려준다() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+        FirebaseToken token = token("uid1", 1_060L);   // 1_060 초에 만료
+        cache.put("id-token", token);
+
+        assertThat(cache.get("id-token")).isSameAs(token);
+        assertThat(cache.get("other-token")).isNull();
+
+        now.set(1_060_000L);
+        assertThat(cache.get("id-token")).isNull();
+        assertThat(cache.getMetrics()).containsEntry("hits", 1L).containsEntry("misses", 2L).containsEntry("size", 0L);
+    }
+
+    @Test
+    void 이미_만료된_토큰은_저장하지_않는다() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+        cache.put("id-token", token("uid1", 999L));
+
+        assertThat(cache.get("id-token")).isNull();
+    }
+
+    @Test
+    void 최대_크기를_넘으면_오래_안_쓴_토큰부터_버린다() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2, now::get);
+        cache.put("a", token("a", 2_000L));
+        cache.put("b", token("b", 2_000L));
+        cache.get("a");
+        cache.put("c", token("c", 2_000L));
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    // FirebaseToken 생성자는 package-private 이라 리플렉션으로 만든다.
+    private FirebaseToken token(String uid, long expSeconds) throws Exception {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", uid);
+        claims.put("exp", expSeconds);
+        Constructor<FirebaseToken> constructor = FirebaseToken.class.getDeclaredConstructor(Map.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(claims);
+    }
+}
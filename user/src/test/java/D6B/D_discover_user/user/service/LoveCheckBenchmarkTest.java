@@ -0,0 +1,130 @@
+package D6B.D_discover_user.user.service;
+
+import D6B.D_discover_user.user.controller.dto.LoveCheckAndMakerRequestDto;
+import D6B.D_discover_user.user.controller.dto.LoveCheckAndMakerResponseDto;
+import D6B.D_discover_user.user.domain.Love;
+import D6B.D_discover_user.user.domain.LoveRepository;
+import D6B.D_discover_user.user.domain.User;
+import D6B.D_discover_user.user.domain.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 그림 목록의 좋아요 여부 + 제작자 이름 조회 : 기존 항목별 조회 vs IN 쿼리 일괄 조회
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:love_check;NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "user-deletion.dispatch-delay-millis=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserService.class, UserDeletionJobService.class})
+class LoveCheckBenchmarkTest {
+
+    private static final int MAKER_COUNT = 100;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoveRepository loveRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 500, 5000})
+    void 일괄_조회는_항목_수와_상관없이_쿼리가_일정하다(int size) {
+        List<LoveCheckAndMakerRequestDto> requestDtos = setUpFeed(size);
+        Statistics statistics = testEntityManager.getEntityManager()
+                .getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        List<LoveCheckAndMakerResponseDto> legacy = legacyFindLoveChecksAndMakers(requestDtos);
+        long legacyMillis = (System.nanoTime() - start) / 1_000_000;
+        long legacyStatements = statistics.getPrepareStatementCount();
+        testEntityManager.clear();
+
+        statistics.clear();
+        start = System.nanoTime();
+        List<LoveCheckAndMakerResponseDto> bulk = userService.findLoveChecksAndMakers(requestDtos);
+        long bulkMillis = (System.nanoTime() - start) / 1_000_000;
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        log.info("items={} legacy: {} statements / {} ms, bulk: {} statements / {} ms",
+                size, legacyStatements, legacyMillis, bulkStatements, bulkMillis);
+        assertThat(bulk).isEqualTo(legacy);
+        assertThat(legacyStatements).isGreaterThanOrEqualTo(2L * size);
+        assertThat(bulkStatements).isEqualTo(2L);
+    }
+
+    // 변경 전 UserService.findLoveChecksAndMakers 와 같은 항목별 조회
+    private List<LoveCheckAndMakerResponseDto> legacyFindLoveChecksAndMakers(List<LoveCheckAndMakerRequestDto> requestDtos) {
+        List<LoveCheckAndMakerResponseDto> responseDtos = new ArrayList<>();
+        for (LoveCheckAndMakerRequestDto requestDto : requestDtos) {
+            Optional<User> optMaker = userRepository.findByUid(requestDto.getMakerUid());
+            optMaker.ifPresent(user -> responseDtos.add(LoveCheckAndMakerResponseDto.builder()
+                    .loveCheck(loveRepository.findByUserUidAndPictureIdAndIsActiveTrue(requestDto.getUid(), requestDto.getPictureId()).isPresent())
+                    .makerName(user.getName())
+                    .build()));
+        }
+        return responseDtos;
+    }
+
+    // 보는 사람 1명, 제작자 100명, 세 장 중 한 장은 좋아요(그 중 절반은 취소된 좋아요)
+    private List<LoveCheckAndMakerRequestDto> setUpFeed(int size) {
+        User viewer = testEntityManager.persist(user("viewer"));
+        for (int i = 0; i < MAKER_COUNT; i++) {
+            testEntityManager.persist(user("maker" + i));
+        }
+        List<LoveCheckAndMakerRequestDto> requestDtos = new ArrayList<>();
+        for (long pictureId = 1; pictureId <= size; pictureId++) {
+            if (pictureId % 3 == 0) {
+                testEntityManager.persist(Love.builder()
+                        .user(viewer)
+                        .pictureId(pictureId)
+                        .isActive(pictureId % 2 == 0)
+                        .createdAt(Instant.now())
+                        .build());
+            }
+            requestDtos.add(LoveCheckAndMakerRequestDto.builder()
+                    .uid("viewer")
+                    .pictureId(pictureId)
+                    .makerUid("maker" + (pictureId % MAKER_COUNT))
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        return requestDtos;
+    }
+
+    private User user(String uid) {
+        return User.builder()
+                .uid(uid)
+                .name("name-" + uid)
+                .email(uid + "@test.com")
+                .fcmToken("token-" + uid)
+                .isActive(true)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package D6B.D_discover_user.user.service;
+
+import D6B.D_discover_user.common.ConstValues;
+import D6B.D_discover_user.user.domain.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 탈퇴 job : 그림/알람 서버는 WebClient exchange 함수로 대신하고 요청 경로만 기록한다.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user_deletion;NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE",
+        "user-deletion.chunk-size=2",
+        "user-deletion.dispatch-delay-millis=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserDeletionJobService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserDeletionJobServiceTest {
+
+    @Autowired
+    private UserDeletionJobService userDeletionJobService;
+
+    @Autowired
+    private UserDeletionJobRepository userDeletionJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoveRepository loveRepository;
+
+    private final List<String> pictureRequests = new ArrayList<>();
+    private final List<String> alarmRequests = new ArrayList<>();
+    // 그림 삭제 요청마다 돌려줄 삭제 수
+    private final Deque<Integer> deletedCounts = new ArrayDeque<>();
+    private int alarmFailures = 0;
+
+    @BeforeEach
+    void setUp() {
+        ConstValues.PICTURE_SERVER_CLIENT = WebClient.builder().exchangeFunction(request -> {
+            pictureRequests.add(request.url().getPath());
+            String body = request.url().getPath().endsWith("/pictures") ? String.valueOf(deletedCounts.isEmpty() ? 0 : deletedCounts.poll()) : "";
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+        }).build();
+        ConstValues.ALARM_SERVER_CLIENT = WebClient.builder().exchangeFunction(request -> {
+            alarmRequests.add(request.url().getPath());
+            HttpStatus status = alarmFailures-- > 0 ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+            return Mono.just(ClientResponse.create(status).build());
+        }).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDeletionJobRepository.deleteAll();
+        loveRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void 활성_좋아요만_묶음으로_정리하고_그림과_알람까지_끝낸다() {
+        User user = userRepository.save(user("deleted"));
+        for(long pictureId = 1; pictureId <= 5; pictureId++) {
+            loveRepository.save(love(user, pictureId, pictureId != 3));
+        }
+        deletedCounts.add(2);
+        deletedCounts.add(1);
+
+        UserDeletionJob job = userDeletionJobService.start("deleted");
+        userDeletionJobService.run(job.getId());
+
+        UserDeletionJob done = userDeletionJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(done.getStep()).isEqualTo(UserDeletionJob.Step.DONE);
+        assertThat(done.getProcessedLoves()).isEqualTo(4L);
+        assertThat(done.getProcessedPictures()).isEqualTo(3L);
+        assertThat(done.getLockedUntil()).isNull();
+        assertThat(loveRepository.findAll()).allMatch(love -> !love.getIsActive());
+        // 좋아요 4개를 2개씩 -> 2번, 그림 삭제는 0 이 올 때까지 3번
+        assertThat(pictureRequests).containsExactly(
+                "/delete/count", "/delete/count",
+                "/delete/user/deleted/pictures", "/delete/user/deleted/pictures", "/delete/user/deleted/pictures");
+        assertThat(alarmRequests).containsExactly("/remove/deleted");
+    }
+
+    @Test
+    void 실패하면_남은_단계부터_다시_한다() {
+        userRepository.save(user("retry"));
+        alarmFailures = 1;
+
+        UserDeletionJob job = userDeletionJobService.start("retry");
+        userDeletionJobService.run(job.getId());
+
+        UserDeletionJob failed = userDeletionJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(failed.getStep()).isEqualTo(UserDeletionJob.Step.ALARMS);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(failed.getLastError()).isNotNull();
+        // 진행 중인 job 이 있으면 새로 만들지 않는다.
+        assertThat(userDeletionJobService.start("retry").getId()).isEqualTo(job.getId());
+
+        userDeletionJobService.run(job.getId());
+
+        assertThat(userDeletionJobRepository.findById(job.getId()).orElseThrow().getStep()).isEqualTo(UserDeletionJob.Step.DONE);
+        assertThat(pictureRequests).containsExactly("/delete/user/retry/pictures");
+        assertThat(alarmRequests).containsExactly("/remove/retry", "/remove/retry");
+    }
+
+    @Test
+    void 다른_서버가_잡고_있는_job_은_잡을_수_없다() {
+        UserDeletionJob job = userDeletionJobService.start("locked");
+        Instant now = Instant.now();
+
+        assertThat(userDeletionJobRepository.claim(job.getId(), now, now.plusSeconds(60))).isEqualTo(1);
+        assertThat(userDeletionJobRepository.claim(job.getId(), now, now.plusSeconds(60))).isZero();
+    }
+
+    private User user(String uid) {
+        return User.builder()
+                .uid(uid)
+                .name("name-" + uid)
+                .email(uid + "@test.com")
+                .fcmToken("token-" + uid)
+                .isActive(false)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private Love love(User user, Long pictureId, boolean isActive) {
+        return Love.builder()
+                .user(user)
+                .pictureId(pictureId)
+                .isActive(isActive)
+                .createdAt(Instant.now())
+                .build();
+    }
+}